@@ -0,0 +1,97 @@
+package com.lemicare.payment.service.benchmark;
+
+import com.lemicare.payment.service.config.SecurityConfig;
+import com.lemicare.payment.service.filter.TenantFilter;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticating a request's bearer token with the beans from {@link SecurityConfig}:
+ * decoding and validating the HS256 JWT, then converting it to an authentication.
+ * With {@code jwtCacheMaxEntries=0} every call does the full work; otherwise the same
+ * token hits the verified-token cache after the first call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForHmacShaAlgorithmsAtLeast256BitsLong";
+
+    @Param({"0", "10000"})
+    public long jwtCacheMaxEntries;
+
+    private JwtDecoder jwtDecoder;
+    private Converter<Jwt, ? extends AbstractAuthenticationToken> authenticationConverter;
+    private String token;
+    private Jwt decoded;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        SecurityConfig config = new SecurityConfig(new TenantFilter());
+        ReflectionTestUtils.setField(config, "jwtSecretKey", SECRET);
+        ReflectionTestUtils.setField(config, "jwtCacheMaxEntries", jwtCacheMaxEntries);
+        ReflectionTestUtils.setField(config, "jwtCacheExpiryMarginSeconds", 30L);
+        ReflectionTestUtils.setField(config, "jwtCacheMaxTtlSeconds", 300L);
+        jwtDecoder = config.jwtDecoder();
+        authenticationConverter = config.jwtAuthenticationConverter();
+
+        // Signed the way the auth service signs: with the Base64 encoding of the secret as the key.
+        byte[] key = Base64.getEncoder().encode(SECRET.getBytes(StandardCharsets.UTF_8));
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+                .subject("user_42")
+                .claim("organizationId", "org_7Yt2")
+                .claim("branchId", "br_01")
+                .claim("role", "ROLE_ADMIN")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(86400)))
+                .build());
+        jwt.sign(new MACSigner(key));
+        token = jwt.serialize();
+        decoded = jwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return jwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return authenticationConverter.convert(decoded);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken decodeAndConvert() {
+        return authenticationConverter.convert(jwtDecoder.decode(token));
+    }
+}
@@ -0,0 +1,79 @@
+package com.lemicare.payment.service.benchmark;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.dto.response.CreateOrderResponse;
+import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request mapping and JSON serialization of the status-poll and create-order responses,
+ * with an ObjectMapper configured the way Spring Boot configures the MVC one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PaymentOrder order;
+    private PaymentOrderStatusResponse statusResponse;
+    private CreateOrderResponse createOrderResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        order = PaymentOrder.builder()
+                .orderId("po_8f2c1e0b4d7a4e59")
+                .organizationId("org_7Yt2")
+                .branchId("br_01")
+                .sourceInvoiceId("inv_2025_000481")
+                .sourceService("billing")
+                .razorpayOrderId("order_N5mDq2XQw8Lk3a")
+                .amount(1250.50)
+                .currency("INR")
+                .status("CREATED")
+                .createdAt(Timestamp.now())
+                .updatedAt(Timestamp.now())
+                .build();
+        statusResponse = PaymentOrderStatusResponse.from(order);
+        createOrderResponse = new CreateOrderResponse("order_N5mDq2XQw8Lk3a", "rzp_test_1DP5mmOlF5G5ag", 1250.50, "LemiCare Clinic");
+    }
+
+    @Benchmark
+    public PaymentOrderStatusResponse orderStatus_map() {
+        return PaymentOrderStatusResponse.from(order);
+    }
+
+    @Benchmark
+    public byte[] orderStatus_mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(PaymentOrderStatusResponse.from(order));
+    }
+
+    @Benchmark
+    public byte[] orderStatus_serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(statusResponse);
+    }
+
+    @Benchmark
+    public byte[] createOrder_serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(createOrderResponse);
+    }
+}
@@ -0,0 +1,116 @@
+package com.lemicare.payment.service.benchmark;
+
+import com.lemicare.payment.service.util.SignatureVerifier;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the SDK's signature checks, as the service used them, with {@link SignatureVerifier}.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="SignatureVerifierBenchmark -prof gc"}
+ * to see allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureVerifierBenchmark {
+
+    private static final String SECRET = "benchmark_key_secret";
+    private static final String ORDER_ID = "order_N5mDq2XQw8Lk3a";
+    private static final String PAYMENT_ID = "pay_N5mE7R1xYzTu9b";
+
+    /**
+     * Webhook body size in bytes; a captured-payment webhook is typically 1-2 KB.
+     */
+    @Param({"1024", "8192"})
+    private int payloadSize;
+
+    private String paymentSignature;
+    private byte[] webhookBody;
+    private String webhookSignature;
+
+    @Setup
+    public void setUp() throws RazorpayException {
+        paymentSignature = Utils.getHash(ORDER_ID + '|' + PAYMENT_ID, SECRET);
+
+        StringBuilder body = new StringBuilder("{\"event\":\"payment.captured\",\"payload\":{\"payment\":{\"entity\":{\"id\":\"")
+                .append(PAYMENT_ID).append("\",\"notes\":{\"padding\":\"");
+        while (body.length() < payloadSize - 8) {
+            body.append('x');
+        }
+        body.append("\"}}}}}");
+        webhookBody = body.toString().getBytes(StandardCharsets.UTF_8);
+        webhookSignature = Utils.getHash(body.toString(), SECRET);
+    }
+
+    @Benchmark
+    public boolean paymentSignature_sdk() throws RazorpayException {
+        JSONObject attributes = new JSONObject();
+        attributes.put("razorpay_order_id", ORDER_ID);
+        attributes.put("razorpay_payment_id", PAYMENT_ID);
+        attributes.put("razorpay_signature", paymentSignature);
+        return Utils.verifyPaymentSignature(attributes, SECRET);
+    }
+
+    @Benchmark
+    public void paymentSignature_cachedMac() throws RazorpayException {
+        SignatureVerifier.verifyPaymentSignature(ORDER_ID, PAYMENT_ID, paymentSignature, SECRET);
+    }
+
+    /**
+     * One check on a new virtual thread, as each request runs with virtual threads enabled.
+     * Compare with {@link #virtualThread_baseline} for the cost of the check itself.
+     */
+    @Benchmark
+    public boolean paymentSignature_cachedMac_virtualThread() throws InterruptedException {
+        boolean[] verified = {false};
+        Thread.ofVirtual().start(() -> {
+            try {
+                SignatureVerifier.verifyPaymentSignature(ORDER_ID, PAYMENT_ID, paymentSignature, SECRET);
+                verified[0] = true;
+            } catch (RazorpayException e) {
+                verified[0] = false;
+            }
+        }).join();
+        return verified[0];
+    }
+
+    @Benchmark
+    public boolean virtualThread_baseline() throws InterruptedException {
+        boolean[] ran = {false};
+        Thread.ofVirtual().start(() -> ran[0] = true).join();
+        return ran[0];
+    }
+
+    /**
+     * The old webhook path: the body was bound as a String, then checked by the SDK.
+     */
+    @Benchmark
+    public boolean webhookSignature_sdk() throws RazorpayException {
+        String payload = new String(webhookBody, StandardCharsets.UTF_8);
+        return Utils.verifyWebhookSignature(payload, webhookSignature, SECRET);
+    }
+
+    @Benchmark
+    public void webhookSignature_cachedMac() throws RazorpayException {
+        SignatureVerifier.verifyWebhookSignature(webhookBody, webhookSignature, SECRET);
+    }
+}
@@ -0,0 +1,79 @@
+package com.lemicare.payment.service.benchmark;
+
+import com.lemicare.payment.service.webhook.RazorpayWebhookEvent;
+import com.lemicare.payment.service.webhook.RazorpayWebhookParser;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a payment.captured webhook into a full org.json tree, as the workers
+ * used to, with {@link RazorpayWebhookParser}.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="WebhookParserBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookParserBenchmark {
+
+    /**
+     * The number of entries in the payment's notes, which pad the body the way clinic
+     * metadata does in production.
+     */
+    @Param({"4", "64"})
+    private int noteCount;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder notes = new StringBuilder("\"organizationId\":\"org_1\",\"branchId\":\"br_1\",\"orderId\":\"po_1\"");
+        for (int i = 3; i < noteCount; i++) {
+            notes.append(",\"note_").append(i).append("\":\"value of clinic note number ").append(i).append('"');
+        }
+        body = ("{\"entity\":\"event\",\"account_id\":\"acc_BFQ7uQEaa7j2z7\",\"event\":\"payment.captured\","
+                + "\"contains\":[\"payment\"],\"payload\":{\"payment\":{\"entity\":{"
+                + "\"id\":\"pay_DESlfW9H8K9uqM\",\"entity\":\"payment\",\"amount\":125050,\"currency\":\"INR\","
+                + "\"status\":\"captured\",\"order_id\":\"order_DESlLckIVRkHWj\",\"invoice_id\":null,"
+                + "\"international\":false,\"method\":\"card\",\"amount_refunded\":0,\"refund_status\":null,"
+                + "\"captured\":true,\"description\":\"Consultation\",\"card_id\":\"card_DESlfXuN5V4Kdd\","
+                + "\"card\":{\"id\":\"card_DESlfXuN5V4Kdd\",\"entity\":\"card\",\"name\":\"Gaurav Kumar\","
+                + "\"last4\":\"1111\",\"network\":\"Visa\",\"type\":\"debit\",\"issuer\":\"HDFC\","
+                + "\"international\":false,\"emi\":false,\"sub_type\":\"consumer\",\"token_iin\":null},"
+                + "\"bank\":null,\"wallet\":null,\"vpa\":null,\"email\":\"gaurav.kumar@example.com\","
+                + "\"contact\":\"+919876543210\",\"notes\":{" + notes + "},\"fee\":2951,\"tax\":450,"
+                + "\"error_code\":null,\"error_description\":null,\"error_source\":null,\"error_step\":null,"
+                + "\"error_reason\":null,\"acquirer_data\":{\"auth_code\":\"828553\",\"rrn\":\"524201012345\"},"
+                + "\"created_at\":1567674599}}},\"created_at\":1567674606}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String jsonTree() {
+        JSONObject event = new JSONObject(new String(body, StandardCharsets.UTF_8));
+        JSONObject payment = event.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
+        return payment.optString("order_id", null);
+    }
+
+    @Benchmark
+    public String streaming() throws IOException {
+        RazorpayWebhookEvent event = RazorpayWebhookParser.parse(body);
+        return event.payment().orderId();
+    }
+}
@@ -0,0 +1,70 @@
+package com.lemicare.payment.service.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the outcomes and latencies of one workload's requests.
+ * <p>
+ * Latencies are measured from when a request was scheduled to start, not from when it
+ * actually started, so a backed-up service shows up as higher latency rather than as a
+ * quietly lower request rate.
+ */
+final class LatencyRecorder {
+
+    /**
+     * The status recorded for a request that got no HTTP response (timeout, connection error).
+     */
+    static final int NO_RESPONSE = -1;
+
+    record Summary(String workload, long succeeded, long failed, Map<Integer, Long> failuresByStatus,
+                   double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        long total() {
+            return succeeded + failed;
+        }
+    }
+
+    private final String workload;
+    private long[] latencies = new long[4096];
+    private int count;
+    private long failed;
+    private final Map<Integer, Long> failuresByStatus = new TreeMap<>();
+
+    LatencyRecorder(String workload) {
+        this.workload = workload;
+    }
+
+    synchronized void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status / 100 != 2) {
+            failed++;
+            failuresByStatus.merge(status, 1L, Long::sum);
+        }
+    }
+
+    synchronized Summary summarize() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(workload, count - failed, failed, Map.copyOf(failuresByStatus),
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted.length > 0 ? millis(sorted[sorted.length - 1]) : 0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return millis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,428 @@
+package com.lemicare.payment.service.loadtest;
+
+import com.lemicare.payment.service.LemiCarePaymentServiceApplication;
+import com.lemicare.payment.service.simulator.RazorpaySimulator;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.json.JSONObject;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives create-order, verify and webhook traffic at a fixed request rate against the
+ * service, with Razorpay replaced by a {@link RazorpaySimulator}, and reports latency
+ * percentiles and throughput per workload.
+ * <p>
+ * By default the service is started in this JVM with the 'local' profile (in-memory
+ * repositories), so a run needs no network, Firebase or Razorpay account:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rps=200 --duration=60 --latency-ms=150"
+ * </pre>
+ * To load a separately started instance, pass {@code --target=http://host:port} and
+ * {@code --simulator-port}, start that instance with {@code razorpay.base-url} pointing
+ * at the simulator, and give the driver the instance's secrets ({@code --jwt-secret},
+ * {@code --key-id}, {@code --key-secret}, {@code --webhook-secret}).
+ * <p>
+ * Requests are issued open-loop: each is scheduled at its slot in the target rate whether
+ * or not earlier ones have finished, and its latency counts from that slot. Requests that
+ * would exceed {@code --max-in-flight} are dropped and reported.
+ */
+public final class LoadDriver {
+
+    enum Workload {
+        CREATE_ORDER("create-order"),
+        VERIFY("verify"),
+        WEBHOOK("webhook");
+
+        final String label;
+
+        Workload(String label) {
+            this.label = label;
+        }
+
+        static Workload of(String label) {
+            for (Workload workload : values()) {
+                if (workload.label.equals(label)) {
+                    return workload;
+                }
+            }
+            throw new IllegalArgumentException("Unknown workload: " + label);
+        }
+    }
+
+    private record PreparedOrder(int tenant, String razorpayOrderId) {}
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("mix", "create-order=4,verify=4,webhook=2"); // Relative weights of the workloads
+        DEFAULTS.put("rps", "100");
+        DEFAULTS.put("duration", "30"); // Seconds measured
+        DEFAULTS.put("warmup", "10"); // Seconds run before measuring
+        DEFAULTS.put("tenants", "4"); // Organizations the traffic is spread over
+        DEFAULTS.put("max-in-flight", "2000");
+        DEFAULTS.put("latency-ms", "100"); // Simulated Razorpay latency, plus up to jitter-ms
+        DEFAULTS.put("jitter-ms", "100");
+        DEFAULTS.put("error-rate", "0"); // Fraction of Razorpay calls failing with a 500
+        DEFAULTS.put("auto-webhooks", "false"); // Whether verified payments also send their webhook
+        DEFAULTS.put("target", ""); // Base URL of a running service; empty starts one in this JVM
+        DEFAULTS.put("simulator-port", "0");
+        DEFAULTS.put("jwt-secret", "LoadTestSecretKeyForHmacShaAlgorithmsAtLeast256BitsLong");
+        DEFAULTS.put("key-id", "rzp_test_loadtest");
+        DEFAULTS.put("key-secret", "loadtest_key_secret");
+        DEFAULTS.put("webhook-secret", "loadtest_webhook_secret");
+    }
+
+    private final Map<String, String> options;
+    private final HttpClient http;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Queue<PreparedOrder> preparedOrders = new ConcurrentLinkedQueue<>();
+    private final Map<Workload, LatencyRecorder> recorders = new HashMap<>();
+    private RazorpaySimulator simulator;
+    private URI service;
+    private List<String> tokens;
+
+    private LoadDriver(Map<String, String> options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        for (Workload workload : Workload.values()) {
+            recorders.put(workload, new LatencyRecorder(workload.label));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.equals("--help")) {
+                System.out.println("Options (--name=value):");
+                DEFAULTS.forEach((name, value) -> System.out.printf("  --%s (default: %s)%n", name, value));
+                return;
+            }
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (name == null || !DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option: " + arg + " (see --help)");
+            }
+            options.put(name, arg.substring(eq + 1));
+        }
+        new LoadDriver(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        simulator = RazorpaySimulator.start(option("key-id"), option("key-secret"), option("webhook-secret"),
+                intOption("simulator-port"));
+        simulator.setLatency(Duration.ofMillis(longOption("latency-ms")), Duration.ofMillis(longOption("jitter-ms")));
+        simulator.setAutoWebhooks(Boolean.parseBoolean(option("auto-webhooks")));
+        System.out.println("Razorpay simulator at " + simulator.baseUrl());
+
+        ConfigurableApplicationContext application = null;
+        if (option("target").isEmpty()) {
+            application = startService();
+            service = URI.create("http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort());
+        } else {
+            service = URI.create(option("target"));
+        }
+        simulator.setWebhookTarget(service.resolve("/api/webhooks/razorpay"));
+        tokens = new ArrayList<>();
+        for (int tenant = 0; tenant < intOption("tenants"); tenant++) {
+            tokens.add(token(tenant));
+        }
+
+        try {
+            Map<Workload, Integer> mix = mix();
+            int rps = intOption("rps");
+            int warmup = intOption("warmup");
+            int duration = intOption("duration");
+            prepareOrders(mix, rps, warmup + duration);
+
+            // Injected errors start with the run, so preparing orders does not fail.
+            simulator.setErrorRate(Double.parseDouble(option("error-rate")));
+            System.out.printf("Running %s at %d requests/s: %ds warm-up, %ds measured%n", option("mix"), rps, warmup, duration);
+            long dropped = drive(mix, rps, warmup, duration);
+            report(duration, dropped);
+        } finally {
+            executor.shutdownNow();
+            if (application != null) {
+                application.close();
+            }
+            simulator.close();
+        }
+    }
+
+    private ConfigurableApplicationContext startService() {
+        // As arguments, so they take precedence over application.yml.
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("razorpay.base-url", simulator.baseUrl().toString());
+        properties.put("razorpay.key-id", option("key-id"));
+        properties.put("razorpay.key-secret", option("key-secret"));
+        properties.put("razorpay.webhook-secret", option("webhook-secret"));
+        properties.put("spring.security.oauth2.resourceserver.jwt.secret-key", option("jwt-secret"));
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.lemicare", "WARN");
+        System.out.println("Starting the service with the 'local' profile");
+        return new SpringApplicationBuilder(LemiCarePaymentServiceApplication.class)
+                .profiles("local")
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    /**
+     * Creates, outside the measurement, the orders the verify and webhook requests will pay.
+     */
+    private void prepareOrders(Map<Workload, Integer> mix, int rps, int seconds) throws InterruptedException {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int payingWeight = mix.getOrDefault(Workload.VERIFY, 0) + mix.getOrDefault(Workload.WEBHOOK, 0);
+        long needed = (long) Math.ceil((double) rps * seconds * payingWeight / totalWeight * 1.05);
+        if (needed == 0) {
+            return;
+        }
+        System.out.printf("Preparing %d orders%n", needed);
+        Semaphore permits = new Semaphore(64);
+        AtomicLong failures = new AtomicLong();
+        long started = System.nanoTime();
+        for (long i = 0; i < needed; i++) {
+            permits.acquire();
+            executor.execute(() -> {
+                try {
+                    int tenant = (int) (sequence.get() % tokens.size());
+                    HttpResponse<String> response = createOrder(tenant);
+                    if (response.statusCode() == 200) {
+                        preparedOrders.add(new PreparedOrder(tenant, new JSONObject(response.body()).getString("razorpayOrderId")));
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        permits.acquire(64);
+        permits.release(64);
+        System.out.printf("Prepared %d orders in %.1fs (%d failed)%n", preparedOrders.size(),
+                (System.nanoTime() - started) / 1e9, failures.get());
+    }
+
+    /**
+     * Issues the requests open-loop at the target rate.
+     *
+     * @return The number of requests dropped because too many were in flight.
+     */
+    private long drive(Map<Workload, Integer> mix, int rps, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        // Spread the workloads evenly over each cycle of the weights.
+        List<Workload> cycle = new ArrayList<>();
+        mix.forEach((workload, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                cycle.add(workload);
+            }
+        });
+
+        int maxInFlight = intOption("max-in-flight");
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long dropped = 0;
+        long period = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * period;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped++;
+                }
+                continue;
+            }
+            Workload workload = cycle.get((int) (i % cycle.size()));
+            executor.execute(() -> {
+                try {
+                    int status = execute(workload);
+                    if (measured) {
+                        recorders.get(workload).record(System.nanoTime() - scheduled, status);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // Let the requests still in flight finish.
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            System.out.println("Some requests were still in flight after 60s; they are left out.");
+        }
+        return dropped;
+    }
+
+    private int execute(Workload workload) {
+        try {
+            return switch (workload) {
+                case CREATE_ORDER -> createOrder(sequence.get() % tokens.size()).statusCode();
+                case VERIFY -> verify();
+                case WEBHOOK -> webhook();
+            };
+        } catch (IOException e) {
+            return LatencyRecorder.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LatencyRecorder.NO_RESPONSE;
+        }
+    }
+
+    private HttpResponse<String> createOrder(int tenant) throws IOException, InterruptedException {
+        JSONObject body = new JSONObject()
+                .put("amount", 500 + sequence.incrementAndGet() % 4500)
+                .put("sourceInvoiceId", "inv_load_" + sequence.get() + "_" + System.nanoTime())
+                .put("sourceService", "LOADTEST")
+                .put("currency", "INR");
+        return http.send(post("/api/internal/payments/create-order", tenant, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int verify() throws IOException, InterruptedException {
+        PreparedOrder order = preparedOrders.poll();
+        if (order == null) {
+            return LatencyRecorder.NO_RESPONSE;
+        }
+        RazorpaySimulator.Checkout checkout = simulator.pay(order.razorpayOrderId());
+        JSONObject body = new JSONObject()
+                .put("razorpayOrderId", checkout.razorpayOrderId())
+                .put("razorpayPaymentId", checkout.razorpayPaymentId())
+                .put("razorpaySignature", checkout.signature());
+        HttpResponse<String> response = http.send(post("/api/internal/payments/verify-payment", order.tenant(), body),
+                HttpResponse.BodyHandlers.ofString());
+        return response.statusCode();
+    }
+
+    private int webhook() throws IOException, InterruptedException {
+        PreparedOrder order = preparedOrders.poll();
+        if (order == null) {
+            return LatencyRecorder.NO_RESPONSE;
+        }
+        String paymentId = simulator.pay(order.razorpayOrderId()).razorpayPaymentId();
+        return simulator.deliver(simulator.paymentWebhook("payment.captured", paymentId));
+    }
+
+    private HttpRequest post(String path, int tenant, JSONObject body) {
+        return HttpRequest.newBuilder(service.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + tokens.get(tenant))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    /**
+     * A token like the auth service issues, signed the way SecurityConfig.jwtDecoder() expects.
+     */
+    private String token(int tenant) throws JOSEException {
+        byte[] key = Base64.getEncoder().encode(option("jwt-secret").getBytes(StandardCharsets.UTF_8));
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+                .subject("loadtest-user-" + tenant)
+                .claim("organizationId", "org_load_" + tenant)
+                .claim("branchId", "br_load_" + tenant)
+                .claim("role", "ROLE_ADMIN")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofDays(1))))
+                .build());
+        jwt.sign(new MACSigner(key));
+        return jwt.serialize();
+    }
+
+    private void report(int durationSeconds, long dropped) {
+        System.out.println();
+        System.out.printf("%-13s %9s %8s %10s %9s %9s %9s %9s %9s%n",
+                "workload", "ok", "failed", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Workload workload : Workload.values()) {
+            LatencyRecorder.Summary summary = recorders.get(workload).summarize();
+            if (summary.total() == 0) {
+                continue;
+            }
+            total += summary.total();
+            System.out.printf(Locale.ROOT, "%-13s %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    summary.workload(), summary.succeeded(), summary.failed(),
+                    summary.total() / (double) durationSeconds,
+                    summary.p50Millis(), summary.p90Millis(), summary.p99Millis(), summary.p999Millis(), summary.maxMillis());
+            if (!summary.failuresByStatus().isEmpty()) {
+                System.out.println("              failures by HTTP status (-1: no response): " + summary.failuresByStatus());
+            }
+        }
+        System.out.printf(Locale.ROOT, "%nTotal %.1f requests/s, %d dropped at the in-flight limit%n", total / (double) durationSeconds, dropped);
+        System.out.printf("Simulator: %d API calls, %d injected errors, %d webhooks accepted, %d rejected%n",
+                simulator.requestCount(), simulator.injectedErrorCount(), simulator.webhooksSent(), simulator.webhooksFailed());
+    }
+
+    private Map<Workload, Integer> mix() {
+        Map<Workload, Integer> mix = new LinkedHashMap<>();
+        for (String part : option("mix").split(",")) {
+            String[] weighted = part.trim().split("=");
+            mix.put(Workload.of(weighted[0]), weighted.length > 1 ? Integer.parseInt(weighted[1]) : 1);
+        }
+        mix.values().removeIf(weight -> weight <= 0);
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix selects no workload");
+        }
+        return mix;
+    }
+
+    private String option(String name) {
+        return options.get(name);
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private long longOption(String name) {
+        return Long.parseLong(options.get(name));
+    }
+}
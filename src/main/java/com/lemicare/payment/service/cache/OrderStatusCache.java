@@ -0,0 +1,121 @@
+package com.lemicare.payment.service.cache;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A near cache for order status polling.
+ * <p>
+ * Entries are keyed by tenant and orderId. An order in a terminal state (PAID, CANCELLED,
+ * FAILED) will not change again, so its entry stays until evicted by size. Any other
+ * status (CREATED) may be changed by another instance, so it is only kept briefly.
+ * Every path that changes an order's status on this instance writes the new status
+ * through, so polls here see it immediately.
+ */
+@Component
+public class OrderStatusCache {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("PAID", "CANCELLED", "FAILED");
+
+    private record Key(String orgId, String branchId, String orderId) {}
+
+    private final Cache<Key, PaymentOrderStatusResponse> statuses;
+
+    @Autowired
+    public OrderStatusCache(
+            @Value("${app.cache.order-status.max-entries:50000}") long maxEntries,
+            @Value("${app.cache.order-status.pending-ttl-seconds:5}") long pendingTtlSeconds) {
+        this(maxEntries, pendingTtlSeconds, Ticker.systemTicker());
+    }
+
+    OrderStatusCache(long maxEntries, long pendingTtlSeconds, Ticker ticker) {
+        Duration pendingTtl = Duration.ofSeconds(pendingTtlSeconds);
+        Duration forever = Duration.ofNanos(Long.MAX_VALUE);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<Key, PaymentOrderStatusResponse>writing(
+                        (key, status) -> isTerminal(status.getStatus()) ? forever : pendingTtl))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Returns the cached status, or loads it and caches the result.
+     *
+     * @param loader Reads the order; an empty result is not cached.
+     */
+    public Optional<PaymentOrderStatusResponse> get(String orgId, String branchId, String orderId,
+                                                    Supplier<Optional<PaymentOrder>> loader) {
+        Key key = new Key(orgId, branchId, orderId);
+        PaymentOrderStatusResponse cached = statuses.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<PaymentOrderStatusResponse> loaded = loader.get().map(PaymentOrderStatusResponse::from);
+        loaded.ifPresent(status -> statuses.put(key, status));
+        return loaded;
+    }
+
+    /**
+     * Returns the statuses of several orders, loading all cache misses with one call.
+     *
+     * @param loader Reads the missing orders, keyed by orderId; unknown IDs are left out.
+     * @return The statuses found, keyed by orderId.
+     */
+    public Map<String, PaymentOrderStatusResponse> getAll(String orgId, String branchId, Collection<String> orderIds,
+                                                          Function<List<String>, Map<String, PaymentOrder>> loader) {
+        Map<String, PaymentOrderStatusResponse> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String orderId : new LinkedHashSet<>(orderIds)) {
+            PaymentOrderStatusResponse cached = statuses.getIfPresent(new Key(orgId, branchId, orderId));
+            if (cached != null) {
+                found.put(orderId, cached);
+            } else {
+                misses.add(orderId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            loader.apply(misses).forEach((orderId, order) -> {
+                PaymentOrderStatusResponse status = PaymentOrderStatusResponse.from(order);
+                statuses.put(new Key(orgId, branchId, orderId), status);
+                found.put(orderId, status);
+            });
+        }
+        return found;
+    }
+
+    /**
+     * Writes through the state of an order that has just been saved.
+     */
+    public void put(PaymentOrder order) {
+        statuses.put(new Key(order.getOrganizationId(), order.getBranchId(), order.getOrderId()),
+                PaymentOrderStatusResponse.from(order));
+    }
+
+    public void invalidate(String orgId, String branchId, String orderId) {
+        statuses.invalidate(new Key(orgId, branchId, orderId));
+    }
+
+    public static boolean isTerminal(String status) {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+}
@@ -0,0 +1,118 @@
+package com.lemicare.payment.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.lemicare.payment.service.util.RazorpayCall;
+import com.razorpay.Entity;
+import com.razorpay.Payment;
+import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded read-through cache for Razorpay payment and refund lookups.
+ * <p>
+ * Entries are keyed by the Razorpay ID and remember the organization that loaded them;
+ * a lookup from any other organization is treated as a miss, so one tenant is never
+ * served another tenant's cached copy. Entities in a terminal state are kept for a long
+ * time because the gateway will not change them, while in-flight entities expire quickly.
+ * A captured payment is not terminal: it can still be refunded.
+ * <p>
+ * Webhooks invalidate entries as the gateway reports changes. A load that started before
+ * an invalidation may have read the old state, so it is not written back.
+ */
+@Component
+public class RazorpayEntityCache {
+
+    private static final Set<String> TERMINAL_PAYMENT_STATUSES = Set.of("refunded", "failed");
+    private static final Set<String> TERMINAL_REFUND_STATUSES = Set.of("processed", "failed");
+
+    private record CachedEntity<T extends Entity>(String orgId, T entity) {}
+
+    private final Entities<Payment> payments;
+    private final Entities<Refund> refunds;
+
+    @Autowired
+    public RazorpayEntityCache(
+            @Value("${app.cache.razorpay.max-entries:10000}") long maxEntries,
+            @Value("${app.cache.razorpay.terminal-ttl-seconds:3600}") long terminalTtlSeconds,
+            @Value("${app.cache.razorpay.in-flight-ttl-seconds:15}") long inFlightTtlSeconds) {
+        this(maxEntries, terminalTtlSeconds, inFlightTtlSeconds, Ticker.systemTicker());
+    }
+
+    RazorpayEntityCache(long maxEntries, long terminalTtlSeconds, long inFlightTtlSeconds, Ticker ticker) {
+        Duration terminalTtl = Duration.ofSeconds(terminalTtlSeconds);
+        Duration inFlightTtl = Duration.ofSeconds(inFlightTtlSeconds);
+        this.payments = new Entities<>(maxEntries, TERMINAL_PAYMENT_STATUSES, terminalTtl, inFlightTtl, ticker);
+        this.refunds = new Entities<>(maxEntries, TERMINAL_REFUND_STATUSES, terminalTtl, inFlightTtl, ticker);
+    }
+
+    public Payment getPayment(String orgId, String paymentId, RazorpayCall<Payment> loader) throws RazorpayException {
+        return payments.get(orgId, paymentId, loader);
+    }
+
+    public Refund getRefund(String orgId, String refundId, RazorpayCall<Refund> loader) throws RazorpayException {
+        return refunds.get(orgId, refundId, loader);
+    }
+
+    public void invalidatePayment(String paymentId) {
+        payments.invalidate(paymentId);
+    }
+
+    public void invalidateRefund(String refundId) {
+        refunds.invalidate(refundId);
+    }
+
+    /**
+     * The cache of one entity type. Every invalidation bumps the generation inside the
+     * entry's compute, and a load writes back (also inside a compute) only if the generation
+     * it started from is still current, so a write-back cannot land after an invalidation.
+     */
+    private static final class Entities<T extends Entity> {
+
+        private final Cache<String, CachedEntity<T>> cache;
+        private final AtomicLong generation = new AtomicLong();
+
+        Entities(long maxEntries, Set<String> terminalStatuses, Duration terminalTtl, Duration inFlightTtl,
+                 Ticker ticker) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxEntries)
+                    .expireAfter(Expiry.<String, CachedEntity<T>>writing(
+                            (id, cached) -> isTerminal(cached.entity(), terminalStatuses) ? terminalTtl : inFlightTtl))
+                    .ticker(ticker)
+                    .build();
+        }
+
+        T get(String orgId, String id, RazorpayCall<T> loader) throws RazorpayException {
+            CachedEntity<T> cached = cache.getIfPresent(id);
+            if (cached != null && cached.orgId().equals(orgId)) {
+                return cached.entity();
+            }
+            long loadedAt = generation.get();
+            T entity = loader.call();
+            cache.asMap().compute(id, (key, current) ->
+                    generation.get() == loadedAt ? new CachedEntity<>(orgId, entity) : current);
+            return entity;
+        }
+
+        void invalidate(String id) {
+            cache.asMap().compute(id, (key, current) -> {
+                generation.incrementAndGet();
+                return null;
+            });
+        }
+
+        private static boolean isTerminal(Entity entity, Set<String> terminalStatuses) {
+            Object status = entity.has("status") ? entity.get("status") : null;
+            return status != null && terminalStatuses.contains(status.toString());
+        }
+    }
+}
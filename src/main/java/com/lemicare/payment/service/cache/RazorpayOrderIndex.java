@@ -0,0 +1,131 @@
+package com.lemicare.payment.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.repository.RazorpayOrderIndexRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves a Razorpay order ID to the tenant and PaymentOrder it belongs to.
+ * <p>
+ * The index is written when an order is created and read by payment verification and by
+ * webhooks, which have no tenant context. Lookups go through two in-process tiers before
+ * Firestore:
+ * <ul>
+ *     <li>an LRU of known entries, which never change once written;</li>
+ *     <li>a short-lived negative cache of IDs Firestore did not know, so repeated webhooks
+ *     for orders we never created are skipped without another read.</li>
+ * </ul>
+ * Negative entries expire quickly because an order created on another instance may be
+ * indexed moments after a miss here.
+ */
+@Component
+public class RazorpayOrderIndex {
+
+    private final RazorpayOrderIndexRepository razorpayOrderIndexRepository;
+    private final Cache<String, RazorpayOrderIndexEntry> known;
+    private final Cache<String, Boolean> unknown;
+
+    @Autowired
+    public RazorpayOrderIndex(
+            RazorpayOrderIndexRepository razorpayOrderIndexRepository,
+            @Value("${app.cache.razorpay-order-index.max-entries:50000}") long maxEntries,
+            @Value("${app.cache.razorpay-order-index.negative-max-entries:10000}") long negativeMaxEntries,
+            @Value("${app.cache.razorpay-order-index.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this(razorpayOrderIndexRepository, maxEntries, negativeMaxEntries, negativeTtlSeconds, Ticker.systemTicker());
+    }
+
+    RazorpayOrderIndex(RazorpayOrderIndexRepository razorpayOrderIndexRepository, long maxEntries,
+                       long negativeMaxEntries, long negativeTtlSeconds, Ticker ticker) {
+        this.razorpayOrderIndexRepository = razorpayOrderIndexRepository;
+        this.known = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(negativeMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Records a newly created order, in Firestore and locally.
+     */
+    public void register(RazorpayOrderIndexEntry entry) {
+        razorpayOrderIndexRepository.save(entry);
+        known.put(entry.getRazorpayOrderId(), entry);
+        unknown.invalidate(entry.getRazorpayOrderId());
+    }
+
+    /**
+     * Records several newly created orders with batched writes.
+     */
+    public void registerAll(List<RazorpayOrderIndexEntry> entries) {
+        razorpayOrderIndexRepository.saveAll(entries);
+        for (RazorpayOrderIndexEntry entry : entries) {
+            known.put(entry.getRazorpayOrderId(), entry);
+            unknown.invalidate(entry.getRazorpayOrderId());
+        }
+    }
+
+    public Optional<RazorpayOrderIndexEntry> resolve(String razorpayOrderId) {
+        RazorpayOrderIndexEntry entry = known.getIfPresent(razorpayOrderId);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        if (unknown.getIfPresent(razorpayOrderId) != null) {
+            return Optional.empty();
+        }
+
+        Optional<RazorpayOrderIndexEntry> loaded = razorpayOrderIndexRepository.findByRazorpayOrderId(razorpayOrderId);
+        loaded.ifPresentOrElse(
+                found -> known.put(razorpayOrderId, found),
+                () -> unknown.put(razorpayOrderId, Boolean.TRUE));
+        return loaded;
+    }
+
+    /**
+     * Resolves several IDs, reading all cache misses from Firestore in one round trip.
+     *
+     * @return The entries found, keyed by Razorpay order ID. Unknown IDs are absent.
+     */
+    public Map<String, RazorpayOrderIndexEntry> resolveAll(Collection<String> razorpayOrderIds) {
+        Map<String, RazorpayOrderIndexEntry> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(razorpayOrderIds)) {
+            RazorpayOrderIndexEntry entry = known.getIfPresent(id);
+            if (entry != null) {
+                resolved.put(id, entry);
+            } else if (unknown.getIfPresent(id) == null) {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, RazorpayOrderIndexEntry> loaded = razorpayOrderIndexRepository.findAllByRazorpayOrderIds(misses);
+            for (String id : misses) {
+                RazorpayOrderIndexEntry entry = loaded.get(id);
+                if (entry != null) {
+                    known.put(id, entry);
+                    resolved.put(id, entry);
+                } else {
+                    unknown.put(id, Boolean.TRUE);
+                }
+            }
+        }
+        return resolved;
+    }
+}
@@ -3,10 +3,31 @@ package com.lemicare.payment.service.config;
 import com.cosmicdoc.common.repository.PaymentOrderRepository;
 import com.cosmicdoc.common.repository.impl.PaymentOrderRepositoryImpl;
 import com.google.cloud.firestore.Firestore;
+import com.lemicare.payment.service.repository.IdempotencyRecordRepository;
+import com.lemicare.payment.service.repository.OutboxRepository;
+import com.lemicare.payment.service.repository.PaymentOrderBatchRepository;
+import com.lemicare.payment.service.repository.PaymentOrderStateRepository;
+import com.lemicare.payment.service.repository.PaymentTransactionRepository;
+import com.lemicare.payment.service.repository.RazorpayOrderIndexRepository;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
+import com.lemicare.payment.service.repository.impl.IdempotencyRecordRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.OutboxRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.PaymentOrderBatchRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.PaymentOrderDocuments;
+import com.lemicare.payment.service.repository.impl.PaymentOrderStateRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.PaymentTransactionRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.RazorpayOrderIndexRepositoryImpl;
+import com.lemicare.payment.service.repository.impl.RefundRecordRepositoryImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
+/**
+ * Firestore repositories. The 'local' profile uses {@link LocalEntityConfiguration} instead.
+ */
 @Configuration
+@Profile("!local")
 public class EntityConfiguration {
 
     @Bean
@@ -14,4 +35,46 @@ public class EntityConfiguration {
         return new PaymentOrderRepositoryImpl(firestore);
     }
 
+    @Bean
+    PaymentOrderDocuments paymentOrderDocuments(
+            Firestore firestore, PaymentOrderRepository paymentOrderRepository,
+            @Value("${app.firestore.payment-orders-path:organizations/{organizationId}/branches/{branchId}/payment_orders}") String paymentOrdersPath) {
+        return new PaymentOrderDocuments(firestore, paymentOrderRepository, paymentOrdersPath);
+    }
+
+    @Bean
+    PaymentOrderBatchRepository paymentOrderBatchRepository(PaymentOrderDocuments paymentOrderDocuments) {
+        return new PaymentOrderBatchRepositoryImpl(paymentOrderDocuments);
+    }
+
+    @Bean
+    PaymentOrderStateRepository paymentOrderStateRepository(PaymentOrderDocuments paymentOrderDocuments) {
+        return new PaymentOrderStateRepositoryImpl(paymentOrderDocuments);
+    }
+
+    @Bean
+    PaymentTransactionRepository paymentTransactionRepository(Firestore firestore) {
+        return new PaymentTransactionRepositoryImpl(firestore);
+    }
+
+    @Bean
+    OutboxRepository outboxRepository(Firestore firestore) {
+        return new OutboxRepositoryImpl(firestore);
+    }
+
+    @Bean
+    RefundRecordRepository refundRecordRepository(Firestore firestore) {
+        return new RefundRecordRepositoryImpl(firestore);
+    }
+
+    @Bean
+    IdempotencyRecordRepository idempotencyRecordRepository(Firestore firestore) {
+        return new IdempotencyRecordRepositoryImpl(firestore);
+    }
+
+    @Bean
+    RazorpayOrderIndexRepository razorpayOrderIndexRepository(Firestore firestore) {
+        return new RazorpayOrderIndexRepositoryImpl(firestore);
+    }
+
 }
@@ -23,6 +23,7 @@ import java.io.InputStream;
  * requiring a live Firebase connection or a 'google-services.json' file.
  */
 @Configuration
+@Profile("!local")
 public class FirebaseConfig {
 
     // Injects the path to the service account key from application.yml
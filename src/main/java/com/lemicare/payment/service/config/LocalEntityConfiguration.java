@@ -0,0 +1,57 @@
+package com.lemicare.payment.service.config;
+
+import com.lemicare.payment.service.repository.IdempotencyRecordRepository;
+import com.lemicare.payment.service.repository.RazorpayOrderIndexRepository;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentTransactionRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRazorpayOrderIndexRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRefundRecordRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * In-memory repositories for the 'local' profile, replacing {@link EntityConfiguration}
+ * and {@link FirebaseConfig}. The application then starts without Firebase credentials or
+ * network access, for local runs, tests and benchmarks; all data is lost on shutdown.
+ */
+@Configuration
+@Profile("local")
+public class LocalEntityConfiguration {
+
+    @Bean
+    InMemoryOutboxRepository outboxRepository() {
+        return new InMemoryOutboxRepository();
+    }
+
+    /**
+     * Also serves as the PaymentOrderBatchRepository and PaymentOrderStateRepository.
+     */
+    @Bean
+    InMemoryPaymentOrderRepository paymentOrderRepository(InMemoryOutboxRepository outboxRepository) {
+        return new InMemoryPaymentOrderRepository(outboxRepository);
+    }
+
+    @Bean
+    InMemoryPaymentTransactionRepository paymentTransactionRepository() {
+        return new InMemoryPaymentTransactionRepository();
+    }
+
+    @Bean
+    RefundRecordRepository refundRecordRepository(InMemoryPaymentTransactionRepository paymentTransactionRepository) {
+        return new InMemoryRefundRecordRepository(paymentTransactionRepository);
+    }
+
+    @Bean
+    IdempotencyRecordRepository idempotencyRecordRepository() {
+        return new InMemoryIdempotencyRecordRepository();
+    }
+
+    @Bean
+    RazorpayOrderIndexRepository razorpayOrderIndexRepository() {
+        return new InMemoryRazorpayOrderIndexRepository();
+    }
+}
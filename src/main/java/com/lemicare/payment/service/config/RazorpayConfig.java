@@ -1,16 +1,43 @@
 package com.lemicare.payment.service.config;
 
+import com.lemicare.payment.service.gateway.CircuitBreaker;
+import com.lemicare.payment.service.gateway.RazorpayBaseUrlInterceptor;
+import com.lemicare.payment.service.gateway.RazorpayConnectionMetrics;
+import com.lemicare.payment.service.gateway.RazorpayHttpTransport;
+import com.lemicare.payment.service.gateway.RazorpayOperation;
+import com.lemicare.payment.service.gateway.RazorpayTransportInterceptor;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class responsible for initializing the Razorpay client.
  * This class reads the API keys from the application properties and creates
  * the RazorpayClient object as a managed Spring Bean.
+ * <p>
+ * It also builds the HTTP transport used by the SDK: a pooled OkHttpClient with warm
+ * keep-alive connections, per-operation timeouts, a circuit breaker and latency metrics.
  */
+@Slf4j
 @Configuration
 public class RazorpayConfig {
 
@@ -22,6 +49,58 @@ public class RazorpayConfig {
     @Value("${razorpay.key-secret}")
     private String keySecret;
 
+    // The Razorpay API, or a stand-in such as the load-test simulator
+    @Value("${razorpay.base-url:https://api.razorpay.com}")
+    private String baseUrl;
+
+    @Value("${app.razorpay.http.max-idle-connections:10}")
+    private int maxIdleConnections;
+
+    @Value("${app.razorpay.http.keep-alive-seconds:300}")
+    private long keepAliveSeconds;
+
+    @Value("${app.razorpay.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${app.razorpay.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${app.razorpay.http.ping-interval-seconds:30}")
+    private long pingIntervalSeconds;
+
+    @Value("${app.razorpay.http.warmup-on-startup:true}")
+    private boolean warmupOnStartup;
+
+    @Value("${app.razorpay.http.timeouts.create-order-ms:8000}")
+    private int createOrderTimeoutMillis;
+
+    @Value("${app.razorpay.http.timeouts.capture-ms:15000}")
+    private int captureTimeoutMillis;
+
+    @Value("${app.razorpay.http.timeouts.refund-ms:15000}")
+    private int refundTimeoutMillis;
+
+    @Value("${app.razorpay.http.timeouts.fetch-ms:4000}")
+    private int fetchTimeoutMillis;
+
+    @Value("${app.razorpay.http.timeouts.other-ms:10000}")
+    private int otherTimeoutMillis;
+
+    @Value("${app.razorpay.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${app.razorpay.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${app.razorpay.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${app.razorpay.circuit-breaker.open-duration-seconds:30}")
+    private long openDurationSeconds;
+
+    @Value("${app.razorpay.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
     /**
      * Creates and configures the RazorpayClient as a Spring Bean.
      * <p>
@@ -29,11 +108,84 @@ public class RazorpayConfig {
      * and register the returned RazorpayClient object in the application context.
      * This makes it available for dependency injection into other services, like PaymentService.
      *
+     * @param razorpayHttpClient The transport to install into the SDK.
      * @return An initialized RazorpayClient instance.
      * @throws RazorpayException if the keys are invalid.
      */
     @Bean
-    public RazorpayClient razorpayClient() throws RazorpayException {
-        return new RazorpayClient(keyId, keySecret);
+    public RazorpayClient razorpayClient(OkHttpClient razorpayHttpClient) throws RazorpayException {
+        RazorpayClient client = new RazorpayClient(keyId, keySecret);
+        // The constructor resets the SDK's internal client, so ours is installed afterwards.
+        RazorpayHttpTransport.install(razorpayHttpClient);
+        return client;
+    }
+
+    @Bean
+    public CircuitBreaker razorpayCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(failureRateThreshold, slidingWindowSize, minimumCalls,
+                TimeUnit.SECONDS.toMillis(openDurationSeconds), halfOpenCalls);
+        Gauge.builder("razorpay.client.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the Razorpay circuit breaker is open or half-open")
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * The HTTP client used for every Razorpay API call.
+     */
+    @Bean
+    public OkHttpClient razorpayHttpClient(CircuitBreaker razorpayCircuitBreaker, MeterRegistry meterRegistry) {
+        Map<RazorpayOperation, Integer> timeouts = new EnumMap<>(RazorpayOperation.class);
+        timeouts.put(RazorpayOperation.CREATE_ORDER, createOrderTimeoutMillis);
+        timeouts.put(RazorpayOperation.CAPTURE, captureTimeoutMillis);
+        timeouts.put(RazorpayOperation.REFUND, refundTimeoutMillis);
+        timeouts.put(RazorpayOperation.FETCH, fetchTimeoutMillis);
+        timeouts.put(RazorpayOperation.OTHER, otherTimeoutMillis);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        HttpUrl razorpayUrl = HttpUrl.parse(baseUrl);
+        if (razorpayUrl == null) {
+            throw new IllegalArgumentException("razorpay.base-url is not an http(s) URL: " + baseUrl);
+        }
+        if (!razorpayUrl.host().equals(RazorpayBaseUrlInterceptor.DEFAULT_BASE_URL.host())) {
+            log.warn("Razorpay calls are redirected to {}", razorpayUrl);
+            builder.addInterceptor(new RazorpayBaseUrlInterceptor(razorpayUrl));
+        }
+        builder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(otherTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(otherTimeoutMillis, TimeUnit.MILLISECONDS)
+                .eventListenerFactory(new RazorpayConnectionMetrics(meterRegistry))
+                .addInterceptor(new RazorpayTransportInterceptor(razorpayCircuitBreaker, timeouts, meterRegistry))
+                .addNetworkInterceptor(RazorpayTransportInterceptor.REQUEST_SENT_MARKER);
+        if (http2Enabled) {
+            // HTTP/2 multiplexes concurrent calls over one connection; pings keep it from idling out.
+            builder.protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .pingInterval(pingIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            builder.protocols(List.of(Protocol.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Opens a connection to Razorpay once the application is up, so the first checkout
+     * does not pay for the TCP and TLS handshakes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpRazorpayConnection(ApplicationReadyEvent event) {
+        if (!warmupOnStartup) {
+            return;
+        }
+        OkHttpClient httpClient = event.getApplicationContext().getBean("razorpayHttpClient", OkHttpClient.class);
+        Thread.ofVirtual().name("razorpay-warmup").start(() -> {
+            Request request = new Request.Builder().url(baseUrl).head().build();
+            try (Response ignored = httpClient.newCall(request).execute()) {
+                log.debug("Razorpay connection warmed up");
+            } catch (IOException e) {
+                log.warn("Could not warm up the Razorpay connection: {}", e.getMessage());
+            }
+        });
     }
 }
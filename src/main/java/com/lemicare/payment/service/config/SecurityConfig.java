@@ -1,6 +1,9 @@
 package com.lemicare.payment.service.config;
 
 import com.lemicare.payment.service.filter.TenantFilter;
+import com.lemicare.payment.service.security.CachingJwtAuthoritiesConverter;
+import com.lemicare.payment.service.security.CachingJwtDecoder;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -24,6 +27,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Base64;
 
@@ -36,6 +40,15 @@ public class SecurityConfig {
     @Value("${spring.security.oauth2.resourceserver.jwt.secret-key}")
     private String jwtSecretKey;
 
+    @Value("${app.security.jwt-cache.max-entries:10000}")
+    private long jwtCacheMaxEntries;
+
+    @Value("${app.security.jwt-cache.expiry-margin-seconds:30}")
+    private long jwtCacheExpiryMarginSeconds;
+
+    @Value("${app.security.jwt-cache.max-ttl-seconds:300}")
+    private long jwtCacheMaxTtlSeconds;
+
     // --- THIS IS THE CRITICAL ADDITION ---
     private final TenantFilter tenantFilter;
 
@@ -50,6 +63,10 @@ public class SecurityConfig {
                         // Make Swagger and health checks public
                         .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
+                        // Razorpay webhooks carry no JWT; they are authenticated by their HMAC signature
+                        .requestMatchers("/api/webhooks/**").permitAll()
+                        // Async dispatches (status streams and long-polls) were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Secure all other endpoints
                         .anyRequest().authenticated()
                 )
@@ -84,7 +101,12 @@ public class SecurityConfig {
     public JwtDecoder jwtDecoder() {
         byte[] keyBytes = Base64.getEncoder().encode(jwtSecretKey.getBytes());
         SecretKeySpec secretKey = new SecretKeySpec(keyBytes, "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(secretKey).build();
+        JwtDecoder decoder = NimbusJwtDecoder.withSecretKey(secretKey).build();
+        if (jwtCacheMaxEntries <= 0) {
+            return decoder;
+        }
+        return new CachingJwtDecoder(decoder, jwtCacheMaxEntries,
+                Duration.ofSeconds(jwtCacheExpiryMarginSeconds), Duration.ofSeconds(jwtCacheMaxTtlSeconds));
     }
 
     @Bean
@@ -93,7 +115,9 @@ public class SecurityConfig {
         grantedAuthoritiesConverter.setAuthoritiesClaimName("role");
         grantedAuthoritiesConverter.setAuthorityPrefix("");
         JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
-        jwtConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        jwtConverter.setJwtGrantedAuthoritiesConverter(jwtCacheMaxEntries <= 0
+                ? grantedAuthoritiesConverter
+                : new CachingJwtAuthoritiesConverter(grantedAuthoritiesConverter, jwtCacheMaxEntries));
         return jwtConverter;
     }
 }
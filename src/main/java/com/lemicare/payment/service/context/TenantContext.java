@@ -1,32 +1,129 @@
 package com.lemicare.payment.service.context;
 
-public class TenantContext {
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
-    private static final ThreadLocal<String> organizationId = new ThreadLocal<>();
-    private static final ThreadLocal<String> branchId = new ThreadLocal<>();
-    private static final ThreadLocal<String> userId = new ThreadLocal<>();
+/**
+ * Holds the tenant of the current request as a single immutable snapshot.
+ * <p>
+ * The snapshot is bound to the request thread by TenantFilter. Work handed to another
+ * thread must carry it along explicitly: wrap the task with {@link #wrap(Runnable)} (or its
+ * Callable/Supplier variants), decorate the executor with {@link #propagating(Executor)},
+ * or use {@link #supplyAsync(Supplier, Executor)}. The wrapped task binds the captured
+ * tenant while it runs and restores whatever the worker thread had before.
+ */
+public final class TenantContext {
 
-    public static void setContext(String orgId, String branch, String user) {
-        organizationId.set(orgId);
-        branchId.set(branch);
-        userId.set(user);
+    /**
+     * The tenant a piece of work runs for.
+     */
+    public record Tenant(String organizationId, String branchId, String userId) {}
+
+    private static final ThreadLocal<Tenant> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {}
+
+    public static void set(Tenant tenant) {
+        bind(tenant);
+    }
+
+    /**
+     * The tenant bound to the current thread, or null outside a tenant-scoped request.
+     */
+    public static Tenant current() {
+        return CURRENT.get();
     }
 
     public static String getOrganizationId() {
-        return organizationId.get();
+        Tenant tenant = CURRENT.get();
+        return tenant != null ? tenant.organizationId() : null;
     }
 
     public static String getBranchId() {
-        return branchId.get();
+        Tenant tenant = CURRENT.get();
+        return tenant != null ? tenant.branchId() : null;
     }
 
     public static String getUserId() {
-        return userId.get();
+        Tenant tenant = CURRENT.get();
+        return tenant != null ? tenant.userId() : null;
     }
 
     public static void clear() {
-        organizationId.remove();
-        branchId.remove();
-        userId.remove();
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs the task with the given tenant bound, then restores the previous binding.
+     */
+    public static <T> T callWith(Tenant tenant, Callable<T> task) throws Exception {
+        Tenant previous = CURRENT.get();
+        bind(tenant);
+        try {
+            return task.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public static void runWith(Tenant tenant, Runnable task) {
+        Tenant previous = CURRENT.get();
+        bind(tenant);
+        try {
+            task.run();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Captures the current tenant so the returned task runs with it on any thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        Tenant captured = CURRENT.get();
+        return () -> runWith(captured, task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Tenant captured = CURRENT.get();
+        return () -> callWith(captured, task);
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Tenant captured = CURRENT.get();
+        return () -> {
+            Tenant previous = CURRENT.get();
+            bind(captured);
+            try {
+                return task.get();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * Decorates an executor so every task it runs sees the tenant of the submitting thread.
+     */
+    public static Executor propagating(Executor delegate) {
+        return command -> delegate.execute(wrap(command));
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(wrap(task), executor);
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+
+    private static void bind(Tenant tenant) {
+        if (tenant == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(tenant);
+        }
     }
 }
@@ -0,0 +1,19 @@
+package com.lemicare.payment.service.context;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates the TenantContext to tasks run by Spring-managed executors.
+ * <p>
+ * Spring Boot applies a TaskDecorator bean to its auto-configured task executor, which
+ * also serves @Async methods and asynchronous MVC handlers.
+ */
+@Component
+public class TenantTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContext.wrap(runnable);
+    }
+}
@@ -1,23 +1,34 @@
 package com.lemicare.payment.service.controller;
 
+import com.lemicare.payment.service.dto.request.BatchOrderStatusRequest;
+import com.lemicare.payment.service.dto.request.BulkCreateOrderRequest;
 import com.lemicare.payment.service.dto.request.CaptureRequestDto;
 import com.lemicare.payment.service.dto.request.CreateOrderRequest;
 import com.lemicare.payment.service.dto.request.VerifySignatureRequest;
+import com.lemicare.payment.service.dto.response.BatchOrderStatusResponse;
 import com.lemicare.payment.service.dto.response.CreateOrderResponse;
 import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import com.lemicare.payment.service.dto.response.TransactionPageResponse;
 import com.lemicare.payment.service.security.SecurityUtils;
+import com.lemicare.payment.service.service.BulkOrderService;
+import com.lemicare.payment.service.service.OrderStatusStreamService;
 import com.lemicare.payment.service.service.PaymentService;
 import com.razorpay.Payment;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.ZonedDateTime;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,13 +38,30 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final OrderStatusStreamService orderStatusStreamService;
+    private final BulkOrderService bulkOrderService;
 
     @PostMapping("/create-order")
-    public ResponseEntity<CreateOrderResponse> createPaymentOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<CreateOrderResponse> createPaymentOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         String orgId = SecurityUtils.getOrganizationId();
         String branchId = SecurityUtils.getBranchId();
         // The service returns the razorpayOrderId and your public key_id for the frontend
-        return ResponseEntity.ok(paymentService.createOrder(orgId,branchId, request));
+        return ResponseEntity.ok(paymentService.createOrder(orgId,branchId, request, idempotencyKey));
+    }
+
+    /**
+     * Creates many payment orders in one call, e.g. for subscription renewals.
+     * Results are streamed as newline-delimited JSON, one line per order as it completes.
+     */
+    @PostMapping(path = "/create-orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> createPaymentOrders(@Valid @RequestBody BulkCreateOrderRequest request) {
+        String orgId = SecurityUtils.getOrganizationId();
+        String branchId = SecurityUtils.getBranchId();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bulkOrderService.createOrders(orgId, branchId, request.getOrders()));
     }
 
     @PostMapping("/verify-payment")
@@ -50,18 +78,20 @@ public class PaymentController {
     }
 
     /**
-     * Fetches a list of all payments for the organization.
-     * Provides query parameters for filtering.
+     * Fetches a page of payments for the organization and branch from the local ledger.
+     * Provides query parameters for filtering and paging.
      */
     @GetMapping("/transactions")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUPER_ADMIN')")
-    public ResponseEntity<List<Payment>> listPayments(
+    public ResponseEntity<TransactionPageResponse> listPayments(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(required = false) String pageToken) {
         String orgId = SecurityUtils.getOrganizationId();
-        // In a real app, you would pass these filters to the service
-        List<Payment> payments = paymentService.listPaymentsForOrg(orgId, from, to);
-        return ResponseEntity.ok(payments);
+        String branchId = SecurityUtils.getBranchId();
+        TransactionPageResponse page = paymentService.listPaymentsForOrg(orgId, branchId, from, to, limit, pageToken);
+        return ResponseEntity.ok(page);
     }
 
     /**
@@ -101,6 +131,45 @@ public class PaymentController {
         return ResponseEntity.ok(statusResponse);
     }
 
+    /**
+     * Fetches the statuses of up to 500 internal payment orders in one call,
+     * e.g. for a source service reconciling its invoices.
+     */
+    @PostMapping("/status:batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BatchOrderStatusResponse> getOrderStatuses(@Valid @RequestBody BatchOrderStatusRequest request) {
+        String orgId = SecurityUtils.getOrganizationId();
+        String branchId = SecurityUtils.getBranchId();
+        return ResponseEntity.ok(paymentService.getOrderStatuses(orgId, branchId, request.getOrderIds()));
+    }
+
+    /**
+     * Streams the status of an internal payment order as Server-Sent Events.
+     * The current status is sent first, then each change; the stream ends once the
+     * order is paid, failed or cancelled. Replaces polling /status/{orderId}.
+     */
+    @GetMapping(path = "/status/{orderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamOrderStatus(@PathVariable String orderId) {
+        String orgId = SecurityUtils.getOrganizationId();
+        String branchId = SecurityUtils.getBranchId();
+        return orderStatusStreamService.stream(orgId, branchId, orderId);
+    }
+
+    /**
+     * Long-poll variant of /status/{orderId} for clients that cannot use SSE.
+     * Responds when the status differs from knownStatus, or with the unchanged status
+     * after a timeout.
+     */
+    @GetMapping("/status/{orderId}/await")
+    @PreAuthorize("isAuthenticated()")
+    public DeferredResult<PaymentOrderStatusResponse> awaitOrderStatus(@PathVariable String orderId,
+                                                                       @RequestParam(required = false) String knownStatus) {
+        String orgId = SecurityUtils.getOrganizationId();
+        String branchId = SecurityUtils.getBranchId();
+        return orderStatusStreamService.awaitChange(orgId, branchId, orderId, knownStatus);
+    }
+
     /**
      * Cancels an internal payment order to prevent it from being paid.
      * This is a status update in our system; it does not call Razorpay.
@@ -1,15 +1,20 @@
 package com.lemicare.payment.service.controller;
 
+import com.lemicare.payment.service.dto.request.BatchRefundRequest;
 import com.lemicare.payment.service.dto.request.CreateRefundRequestDto;
+import com.lemicare.payment.service.dto.response.RefundSummaryResponse;
 import com.lemicare.payment.service.security.SecurityUtils;
+import com.lemicare.payment.service.service.BatchRefundService;
 import com.lemicare.payment.service.service.RefundService;
 import com.razorpay.Refund;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RestController
 @RequestMapping("/api/internal/refunds")
@@ -18,18 +23,49 @@ import org.springframework.web.bind.annotation.*;
 public class RefundController {
 
     private final RefundService refundService;
+    private final BatchRefundService batchRefundService;
 
     /**
      * Initiates a refund for a successful payment.
+     * Retries of the same refund are safe; send distinct Idempotency-Key headers to make two
+     * identical partial refunds of one payment.
      */
     @PostMapping("/")
-    public ResponseEntity<Refund> initiateRefund(@Valid @RequestBody CreateRefundRequestDto request) {
+    public ResponseEntity<Refund> initiateRefund(
+            @Valid @RequestBody CreateRefundRequestDto request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         String orgId = SecurityUtils.getOrganizationId();
         String userId = SecurityUtils.getUserId();
-        Refund refund = refundService.createRefund(orgId, userId, request);
+        Refund refund = refundService.createRefund(orgId, userId, request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(refund);
     }
 
+    /**
+     * Initiates many refunds in one call, e.g. when an event is cancelled.
+     * The Idempotency-Key header is required, so the batch can be safely re-sent (with its
+     * refunds in the same order).
+     * Results are streamed as newline-delimited JSON, one line per refund as it completes.
+     */
+    @PostMapping(path = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> initiateRefunds(
+            @Valid @RequestBody BatchRefundRequest request,
+            @RequestHeader("Idempotency-Key") String idempotencyKey) {
+        String orgId = SecurityUtils.getOrganizationId();
+        String userId = SecurityUtils.getUserId();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(batchRefundService.createRefunds(orgId, userId, idempotencyKey, request.getRefunds()));
+    }
+
+    /**
+     * Fetches the refunded, pending and refundable amounts of a payment from the local ledger.
+     */
+    @GetMapping("/payments/{paymentId}/summary")
+    public ResponseEntity<RefundSummaryResponse> getRefundSummary(@PathVariable String paymentId) {
+        String orgId = SecurityUtils.getOrganizationId();
+        return ResponseEntity.ok(refundService.getRefundSummary(orgId, paymentId));
+    }
+
     /**
      * Fetches the status of a specific refund.
      */
@@ -1,7 +1,9 @@
 package com.lemicare.payment.service.controller;
 
-import com.lemicare.payment.service.service.PaymentService;
+import com.lemicare.payment.service.service.WebhookIngestionService;
+import com.razorpay.RazorpayException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,17 +12,28 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class WebhookController {
 
-    private final PaymentService paymentService;
+    private final WebhookIngestionService webhookIngestionService;
 
+    /**
+     * Receives a Razorpay webhook. The event is verified and queued here, and processed
+     * asynchronously, so Razorpay gets its acknowledgement without waiting on Firestore.
+     * The body is taken as raw bytes, which is what the signature covers.
+     */
     @PostMapping
     public ResponseEntity<String> handleRazorpayWebhook(
-            @RequestBody String payload,
+            @RequestBody byte[] payload,
             @RequestHeader("X-Razorpay-Event-Id") String eventId,
             @RequestHeader("X-Razorpay-Signature") String signature) {
 
-        // The service handles signature verification and processing
-        paymentService.processWebhook(payload, signature);
-
-        return ResponseEntity.ok("Webhook received.");
+        try {
+            return switch (webhookIngestionService.ingest(eventId, payload, signature)) {
+                case ACCEPTED -> ResponseEntity.ok("Webhook received.");
+                case DUPLICATE -> ResponseEntity.ok("Duplicate webhook ignored.");
+                // Razorpay retries non-2xx responses, which gives the queue time to drain.
+                case REJECTED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Webhook queue is full.");
+            };
+        } catch (RazorpayException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid webhook signature.");
+        }
     }
 }
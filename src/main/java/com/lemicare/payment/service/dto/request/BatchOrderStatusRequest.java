@@ -0,0 +1,23 @@
+package com.lemicare.payment.service.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A request for the statuses of several internal payment orders at once,
+ * e.g. when a source service reconciles its invoices.
+ */
+@Data
+public class BatchOrderStatusRequest {
+
+    /**
+     * The internal orderIds to look up, all in the caller's organization and branch.
+     */
+    @NotEmpty(message = "At least one orderId is required.")
+    @Size(max = 500, message = "At most 500 orderIds can be looked up at once.")
+    private List<@NotBlank String> orderIds;
+}
@@ -0,0 +1,23 @@
+package com.lemicare.payment.service.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A request to refund many payments at once, e.g. when an event or camp is cancelled.
+ */
+@Data
+public class BatchRefundRequest {
+
+    /**
+     * The refunds to initiate. Each payment is refunded at most once per batch
+     * Idempotency-Key; listing a payment twice replays the first refund.
+     */
+    @NotEmpty(message = "At least one refund is required.")
+    @Size(max = 500, message = "At most 500 refunds can be initiated at once.")
+    private List<@Valid CreateRefundRequestDto> refunds;
+}
@@ -0,0 +1,23 @@
+package com.lemicare.payment.service.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A request to create many payment orders at once, e.g. for subscription renewals.
+ */
+@Data
+public class BulkCreateOrderRequest {
+
+    /**
+     * The orders to create. Each one is handled like a single create-order request,
+     * including its idempotency by source invoice.
+     */
+    @NotEmpty(message = "At least one order is required.")
+    @Size(max = 500, message = "At most 500 orders can be created at once.")
+    private List<@Valid CreateOrderRequest> orders;
+}
@@ -0,0 +1,26 @@
+package com.lemicare.payment.service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The result of a batch status lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderStatusResponse {
+
+    /**
+     * The statuses of the orders that were found, in request order.
+     */
+    private List<PaymentOrderStatusResponse> orders;
+
+    /**
+     * The requested orderIds that do not exist in the caller's organization and branch.
+     */
+    private List<String> notFound;
+}
@@ -0,0 +1,45 @@
+package com.lemicare.payment.service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one refund in a batch refund request. Results are streamed as one
+ * JSON object per line, in completion order; {@code index} ties each back to the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRefundItemResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    /**
+     * The position of the refund in the request.
+     */
+    private int index;
+
+    private String paymentId;
+
+    /**
+     * CREATED or FAILED.
+     */
+    private String status;
+
+    /**
+     * The Razorpay refund ID, when the refund was created.
+     */
+    private String refundId;
+
+    /**
+     * The Razorpay refund status ("pending", "processed", ...), when the refund was created.
+     */
+    private String refundStatus;
+
+    /**
+     * Why the refund could not be initiated, when it failed.
+     */
+    private String error;
+}
@@ -0,0 +1,46 @@
+package com.lemicare.payment.service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one order in a bulk create-order request. Results are streamed as one
+ * JSON object per line, in completion order; {@code index} ties each back to the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateOrderItemResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    /**
+     * The position of the order in the request.
+     */
+    private int index;
+
+    private String sourceInvoiceId;
+
+    /**
+     * CREATED or FAILED.
+     */
+    private String status;
+
+    /**
+     * The checkout details, when the order was created.
+     */
+    private CreateOrderResponse order;
+
+    /**
+     * Why the order could not be created, when it failed.
+     */
+    private String error;
+
+    /**
+     * When the order failed after Razorpay had created it: the Razorpay order, which has no
+     * PaymentOrder here and must not be paid.
+     */
+    private String razorpayOrderId;
+}
@@ -0,0 +1,37 @@
+package com.lemicare.payment.service.dto.response;
+
+import com.lemicare.payment.service.model.PaymentTransaction;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class PaymentTransactionResponse {
+    private String paymentId;
+    private String orderId;
+    private String razorpayOrderId;
+    private String sourceService;
+    private String sourceInvoiceId;
+    private Double amount;
+    private String currency;
+    private String status; // Razorpay status, e.g. "captured", "failed"; null until the webhook arrives
+    private String method;
+    private Instant createdAt;
+
+    public static PaymentTransactionResponse from(PaymentTransaction transaction) {
+        return PaymentTransactionResponse.builder()
+                .paymentId(transaction.getPaymentId())
+                .orderId(transaction.getOrderId())
+                .razorpayOrderId(transaction.getRazorpayOrderId())
+                .sourceService(transaction.getSourceService())
+                .sourceInvoiceId(transaction.getSourceInvoiceId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .status(transaction.getStatus())
+                .method(transaction.getMethod())
+                .createdAt(transaction.getCreatedAt() != null ? transaction.getCreatedAt().toDate().toInstant() : null)
+                .build();
+    }
+}
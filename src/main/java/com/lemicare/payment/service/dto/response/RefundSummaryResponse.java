@@ -0,0 +1,34 @@
+package com.lemicare.payment.service.dto.response;
+
+import com.lemicare.payment.service.model.PaymentRefundSummary;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * The refund position of one payment, served from the local refund ledger.
+ */
+@Data
+@Builder
+public class RefundSummaryResponse {
+    private String paymentId;
+    private Double paymentAmount; // Null if the payment is not in the local ledger
+    private double refundedAmount;
+    private double pendingAmount;
+    private Double refundableAmount; // Null if the payment amount is unknown
+    private int refundCount;
+    private Map<String, String> refundStatuses; // refundId -> "pending", "processed", "failed"
+
+    public static RefundSummaryResponse from(PaymentRefundSummary summary) {
+        return RefundSummaryResponse.builder()
+                .paymentId(summary.getPaymentId())
+                .paymentAmount(summary.getPaymentAmount())
+                .refundedAmount(summary.getRefundedAmount())
+                .pendingAmount(summary.getPendingAmount())
+                .refundableAmount(summary.getRefundableAmount())
+                .refundCount(summary.getRefundCount())
+                .refundStatuses(Map.copyOf(summary.getRefundStatuses()))
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.lemicare.payment.service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the organization's payment ledger.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+
+    private List<PaymentTransactionResponse> transactions;
+
+    /**
+     * Pass this value as 'pageToken' to fetch the next page. Null when there are no more results.
+     */
+    private String nextPageToken;
+}
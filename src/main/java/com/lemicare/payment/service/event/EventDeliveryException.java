@@ -0,0 +1,15 @@
+package com.lemicare.payment.service.event;
+
+/**
+ * Thrown by a {@link PaymentEventTransport} when a destination did not accept a batch of events.
+ */
+public class EventDeliveryException extends RuntimeException {
+
+    public EventDeliveryException(String message) {
+        super(message);
+    }
+
+    public EventDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,73 @@
+package com.lemicare.payment.service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Delivers payment events by POSTing them, as a JSON array, to the destination service.
+ * <p>
+ * The URL comes from {@code app.events.http.url-template}, in which {destination} is
+ * replaced by the order's sourceService. Any 2xx response counts as delivered.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.transport", havingValue = "http", matchIfMissing = true)
+public class HttpPaymentEventTransport implements PaymentEventTransport {
+
+    private final ObjectMapper objectMapper;
+    private final String urlTemplate;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    public HttpPaymentEventTransport(
+            ObjectMapper objectMapper,
+            @Value("${app.events.http.url-template:http://{destination}/api/internal/payment-events}") String urlTemplate,
+            @Value("${app.events.http.connect-timeout-ms:2000}") long connectTimeoutMillis,
+            @Value("${app.events.http.request-timeout-ms:5000}") long requestTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.urlTemplate = urlTemplate;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+
+    @Override
+    public void deliver(String destination, List<PaymentEvent> events) {
+        URI uri;
+        byte[] body;
+        try {
+            uri = URI.create(urlTemplate.replace("{destination}", destination));
+            body = objectMapper.writeValueAsBytes(events);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new EventDeliveryException("Cannot build the event request for " + destination + ": " + e.getMessage(), e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new EventDeliveryException(destination + " answered " + response.statusCode());
+            }
+        } catch (IOException e) {
+            throw new EventDeliveryException("Failed to reach " + destination + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventDeliveryException("Interrupted while delivering events to " + destination, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.lemicare.payment.service.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps delivered payment events in memory, per destination, instead of sending them
+ * anywhere. For tests and local runs without the source services.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.transport", havingValue = "in-memory")
+public class InMemoryPaymentEventTransport implements PaymentEventTransport {
+
+    private final Map<String, List<PaymentEvent>> delivered = new ConcurrentHashMap<>();
+
+    @Override
+    public void deliver(String destination, List<PaymentEvent> events) {
+        delivered.computeIfAbsent(destination, key -> new CopyOnWriteArrayList<>()).addAll(events);
+    }
+
+    /**
+     * The events delivered to a destination so far, in delivery order.
+     */
+    public List<PaymentEvent> delivered(String destination) {
+        return List.copyOf(delivered.getOrDefault(destination, List.of()));
+    }
+
+    public void clear() {
+        delivered.clear();
+    }
+}
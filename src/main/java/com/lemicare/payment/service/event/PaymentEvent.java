@@ -0,0 +1,53 @@
+package com.lemicare.payment.service.event;
+
+import com.lemicare.payment.service.model.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A payment outcome as delivered to the service that requested the payment.
+ * The same event may be delivered more than once; consumers should deduplicate on eventId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEvent {
+
+    public static final String PAYMENT_SUCCESS = "PaymentSuccess";
+    public static final String PAYMENT_CANCELLED = "PaymentCancelled";
+
+    private String eventId;
+    private String eventType;
+    private String organizationId;
+    private String branchId;
+    private String orderId;
+    private String sourceService;
+    private String sourceInvoiceId;
+    private String razorpayPaymentId;
+    private Double amount;
+    private String currency;
+    private Instant occurredAt;
+
+    public static PaymentEvent from(OutboxEvent event) {
+        return PaymentEvent.builder()
+                .eventId(event.getEventId())
+                .eventType(event.getEventType())
+                .organizationId(event.getOrganizationId())
+                .branchId(event.getBranchId())
+                .orderId(event.getOrderId())
+                .sourceService(event.getDestination())
+                .sourceInvoiceId(event.getSourceInvoiceId())
+                .razorpayPaymentId(event.getRazorpayPaymentId())
+                .amount(event.getAmount())
+                .currency(event.getCurrency())
+                .occurredAt(event.getOccurredAt() != null
+                        ? Instant.ofEpochSecond(event.getOccurredAt().getSeconds(), event.getOccurredAt().getNanos())
+                        : null)
+                .build();
+    }
+}
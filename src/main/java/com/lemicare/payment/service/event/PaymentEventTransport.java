@@ -0,0 +1,21 @@
+package com.lemicare.payment.service.event;
+
+import java.util.List;
+
+/**
+ * Delivers payment events to the services that requested the payments.
+ * <p>
+ * The implementation is chosen with {@code app.events.transport}: "http" (the default) or
+ * "in-memory" for tests and local runs. Implementations are called concurrently, for
+ * different destinations and for several batches of the same one.
+ */
+public interface PaymentEventTransport {
+
+    /**
+     * Delivers a batch of events to one destination.
+     *
+     * @param destination The sourceService of the events' orders.
+     * @throws EventDeliveryException if the batch was not accepted; it is retried later.
+     */
+    void deliver(String destination, List<PaymentEvent> events);
+}
@@ -0,0 +1,21 @@
+package com.lemicare.payment.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an idempotency key is reused for a different request, or while the first
+ * request with that key is still being processed. Translated into an HTTP 409 Conflict response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new IdempotencyConflictException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.lemicare.payment.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the payment gateway could not answer a request (transport failure, timeout,
+ * gateway-side error or open circuit breaker), as opposed to answering that a resource
+ * does not exist. Translated into an HTTP 502 Bad Gateway response.
+ */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class PaymentGatewayException extends RuntimeException {
+
+    /**
+     * Constructs a new PaymentGatewayException with the specified detail message and cause.
+     *
+     * @param message The detail message.
+     * @param cause The original exception that caused this one.
+     */
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.lemicare.payment.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a tenant has exhausted its share of a limited resource, such as its
+ * concurrent Razorpay calls. Translated into an HTTP 429 Too Many Requests response.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Constructs a new TooManyRequestsException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
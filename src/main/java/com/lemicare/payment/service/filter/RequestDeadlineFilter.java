@@ -0,0 +1,58 @@
+package com.lemicare.payment.service.filter;
+
+import com.lemicare.payment.service.gateway.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the time budget of the request to its thread, so the gateway calls it makes give up
+ * once the caller has stopped waiting. Callers state their budget in the
+ * {@value #TIMEOUT_HEADER} header; requests without one get the configured default, and no
+ * request gets more than the configured maximum.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final long defaultMillis;
+    private final long maxMillis;
+
+    public RequestDeadlineFilter(@Value("${app.request-deadline.default-ms:25000}") long defaultMillis,
+                                 @Value("${app.request-deadline.max-ms:60000}") long maxMillis) {
+        this.defaultMillis = defaultMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline.set(Deadline.afterMillis(budgetMillis(request.getHeader(TIMEOUT_HEADER))));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    long budgetMillis(String header) {
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    return Math.min(requested, maxMillis);
+                }
+            } catch (NumberFormatException ignored) {
+                // Fall back to the default, as for a missing header.
+            }
+        }
+        return Math.min(defaultMillis, maxMillis);
+    }
+}
@@ -23,13 +23,12 @@ public class TenantFilter extends OncePerRequestFilter {
 
         var authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof Jwt) {
-            Jwt jwt = (Jwt) authentication.getPrincipal();
-            String orgId = jwt.getClaimAsString("organizationId");
-            String branchId = jwt.getClaimAsString("branchId");
-            String userId = jwt.getSubject();
-
-            TenantContext.setContext(orgId, branchId, userId);
+        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof Jwt jwt) {
+            // One immutable snapshot per request; async work captures it via TenantContext.wrap(...)
+            TenantContext.set(new TenantContext.Tenant(
+                    jwt.getClaimAsString("organizationId"),
+                    jwt.getClaimAsString("branchId"),
+                    jwt.getSubject()));
         }
 
         try {
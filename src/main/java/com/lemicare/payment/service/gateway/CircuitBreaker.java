@@ -0,0 +1,143 @@
+package com.lemicare.payment.service.gateway;
+
+import java.time.Clock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A count-based circuit breaker for calls to the payment gateway.
+ * <p>
+ * While CLOSED, the outcomes of the last {@code slidingWindowSize} calls are recorded; once at
+ * least {@code minimumCalls} have been seen and the failure rate reaches the threshold, the
+ * breaker OPENS and rejects calls for {@code openDurationMillis}. It then lets a limited number
+ * of trial calls through (HALF_OPEN): if they all succeed it closes again, otherwise it re-opens.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitsIssued;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                          long openDurationMillis, int halfOpenCalls) {
+        this(failureRateThreshold, slidingWindowSize, minimumCalls, openDurationMillis, halfOpenCalls, Clock.systemUTC());
+    }
+
+    CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                   long openDurationMillis, int halfOpenCalls, Clock clock) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks permission to make a call. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (clock.millis() - openedAt < openDurationMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermitsIssued = 0;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermitsIssued >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenPermitsIssued++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    reset();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recordedCalls >= minimumCalls && failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.millis();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+    }
+}
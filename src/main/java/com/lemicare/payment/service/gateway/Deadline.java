@@ -0,0 +1,57 @@
+package com.lemicare.payment.service.gateway;
+
+/**
+ * A point in time by which a gateway call, including all its retries, must finish.
+ * <p>
+ * The deadline of the current request is bound to its thread by RequestDeadlineFilter, and
+ * the retry engine binds the deadline of each gateway call while its attempts run, so the
+ * transport can bound every attempt by the time that is left.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000L);
+    }
+
+    /**
+     * The deadline bound to the current thread, or null when the work has none.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * This deadline or the other one, whichever comes first; a null other is no limit.
+     */
+    public Deadline earliest(Deadline other) {
+        return other != null && other.expiresAtNanos - expiresAtNanos < 0 ? other : this;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, (expiresAtNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.lemicare.payment.service.gateway;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent call latencies and estimates a percentile over them.
+ * The estimate is recomputed every {@code RECOMPUTE_EVERY} samples, so reading it is cheap.
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private long count;
+    private volatile long cachedPercentileMillis = -1;
+
+    public LatencyTracker(int capacity, double percentile) {
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+    }
+
+    public void record(long millis) {
+        long[] snapshot = null;
+        synchronized (this) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count++;
+            if (count % RECOMPUTE_EVERY == 0) {
+                snapshot = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            }
+        }
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            cachedPercentileMillis = snapshot[(int) Math.min(snapshot.length - 1, Math.ceil(percentile * snapshot.length) - 1)];
+        }
+    }
+
+    public synchronized long sampleCount() {
+        return count;
+    }
+
+    /**
+     * The estimated percentile latency, or -1 until enough samples have been recorded.
+     */
+    public long percentileMillis() {
+        return cachedPercentileMillis;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lemicare.payment.service.gateway;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * OkHttp interceptor that sends the SDK's requests to another Razorpay-compatible host,
+ * such as a local simulator for load tests.
+ * <p>
+ * razorpay-java 1.4.x builds every URL from a hard-coded "https://api.razorpay.com", so
+ * the scheme, host and port are rewritten here; the path and query are kept as they are.
+ */
+public class RazorpayBaseUrlInterceptor implements Interceptor {
+
+    public static final HttpUrl DEFAULT_BASE_URL = HttpUrl.parse("https://api.razorpay.com/");
+
+    private final HttpUrl baseUrl;
+
+    public RazorpayBaseUrlInterceptor(HttpUrl baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!DEFAULT_BASE_URL.host().equals(request.url().host())) {
+            return chain.proceed(request);
+        }
+        HttpUrl url = request.url().newBuilder()
+                .scheme(baseUrl.scheme())
+                .host(baseUrl.host())
+                .port(baseUrl.port())
+                .build();
+        return chain.proceed(request.newBuilder().url(url).build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.lemicare.payment.service.gateway;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long Razorpay calls spend opening connections and performing TLS handshakes,
+ * and how many calls had to open a new connection rather than reuse a pooled one.
+ * These are the costs the connection pool and keep-alive settings are meant to remove.
+ */
+public class RazorpayConnectionMetrics implements EventListener.Factory {
+
+    private final Timer connectTimer;
+    private final Timer handshakeTimer;
+    private final Counter newConnections;
+
+    public RazorpayConnectionMetrics(MeterRegistry meterRegistry) {
+        this.connectTimer = Timer.builder("razorpay.client.connect")
+                .description("Time to establish a new connection to Razorpay, including TLS")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.handshakeTimer = Timer.builder("razorpay.client.tls.handshake")
+                .description("Time spent in TLS handshakes with Razorpay")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.newConnections = Counter.builder("razorpay.client.connections.opened")
+                .description("Connections opened to Razorpay (calls that could not reuse a pooled connection)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new EventListener() {
+            private long connectStart;
+            private long secureConnectStart;
+
+            @Override
+            public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+                connectStart = System.nanoTime();
+                newConnections.increment();
+            }
+
+            @Override
+            public void secureConnectStart(Call call) {
+                secureConnectStart = System.nanoTime();
+            }
+
+            @Override
+            public void secureConnectEnd(Call call, Handshake handshake) {
+                handshakeTimer.record(System.nanoTime() - secureConnectStart, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+                connectTimer.record(System.nanoTime() - connectStart, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.lemicare.payment.service.gateway;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * Classifies a RazorpayException, which the SDK reduces to a message, by what it tells us
+ * about the request: whether it may be retried, and whether the resource simply does not exist.
+ */
+public enum RazorpayFailure {
+    /** The gateway answered that the request itself is wrong (e.g. "BAD_REQUEST_ERROR:..."). */
+    CLIENT_ERROR,
+    /** A client error saying the requested ID does not exist. */
+    NOT_FOUND,
+    /** The gateway failed to handle the request (5xx, "SERVER_ERROR:" or "GATEWAY_ERROR:"). */
+    SERVER_ERROR,
+    /** The connection failed before the request reached the gateway, so it had no effect. */
+    NOT_SENT,
+    /** The connection failed or timed out after the request may have reached the gateway. */
+    TRANSPORT,
+    /** Our circuit breaker rejected the call without trying. */
+    CIRCUIT_OPEN;
+
+    public static RazorpayFailure classify(RazorpayException e) {
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        if (message.equals(RazorpayTransportInterceptor.CIRCUIT_OPEN_MESSAGE)) {
+            return CIRCUIT_OPEN;
+        }
+        if (message.startsWith(RazorpayTransportInterceptor.NOT_SENT_PREFIX)) {
+            return NOT_SENT;
+        }
+        if (message.startsWith("Status Code: 5") || message.startsWith("SERVER_ERROR:") || message.startsWith("GATEWAY_ERROR:")) {
+            return SERVER_ERROR;
+        }
+        if (message.startsWith("BAD_REQUEST_ERROR:")) {
+            return message.contains("does not exist") ? NOT_FOUND : CLIENT_ERROR;
+        }
+        if (message.startsWith("Status Code: 4")) {
+            return message.startsWith("Status Code: 404") ? NOT_FOUND : CLIENT_ERROR;
+        }
+        return TRANSPORT;
+    }
+
+    /**
+     * Whether repeating the call could succeed without risking a duplicate side effect.
+     * Non-idempotent calls are only repeated when the first attempt provably never left us.
+     */
+    public boolean isRetryable(boolean idempotent) {
+        return switch (this) {
+            case NOT_SENT -> true;
+            case SERVER_ERROR, TRANSPORT -> idempotent;
+            case CLIENT_ERROR, NOT_FOUND, CIRCUIT_OPEN -> false;
+        };
+    }
+}
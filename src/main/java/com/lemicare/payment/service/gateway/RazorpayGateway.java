@@ -0,0 +1,47 @@
+package com.lemicare.payment.service.gateway;
+
+import com.razorpay.Order;
+import com.razorpay.Payment;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
+import lombok.RequiredArgsConstructor;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * The single entry point for outbound Razorpay calls.
+ * <p>
+ * Every call is attributed to the organization it is made for and runs inside that
+ * organization's {@link TenantBulkhead}, so no tenant can monopolise the gateway.
+ * Calls are retried (and reads optionally hedged) by the {@link RazorpayRetryExecutor};
+ * each attempt takes its own bulkhead permit.
+ */
+@Component
+@RequiredArgsConstructor
+public class RazorpayGateway {
+
+    private final RazorpayClient razorpayClient;
+    private final TenantBulkhead tenantBulkhead;
+    private final RazorpayRetryExecutor retryExecutor;
+
+    public Order createOrder(String orgId, JSONObject orderRequest) throws RazorpayException {
+        return retryExecutor.executeWrite(() -> tenantBulkhead.call(orgId, () -> razorpayClient.orders.create(orderRequest)));
+    }
+
+    public Payment fetchPayment(String orgId, String paymentId) throws RazorpayException {
+        return retryExecutor.executeRead(() -> tenantBulkhead.call(orgId, () -> razorpayClient.payments.fetch(paymentId)));
+    }
+
+    public Payment capturePayment(String orgId, String paymentId, JSONObject captureRequest) throws RazorpayException {
+        return retryExecutor.executeWrite(() -> tenantBulkhead.call(orgId, () -> razorpayClient.payments.capture(paymentId, captureRequest)));
+    }
+
+    public Refund refundPayment(String orgId, String paymentId, JSONObject refundRequest) throws RazorpayException {
+        return retryExecutor.executeWrite(() -> tenantBulkhead.call(orgId, () -> razorpayClient.payments.refund(paymentId, refundRequest)));
+    }
+
+    public Refund fetchRefund(String orgId, String refundId) throws RazorpayException {
+        return retryExecutor.executeRead(() -> tenantBulkhead.call(orgId, () -> razorpayClient.refunds.fetch(refundId)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.lemicare.payment.service.gateway;
+
+import okhttp3.OkHttpClient;
+
+import java.lang.reflect.Field;
+
+/**
+ * Installs our own OkHttpClient into the Razorpay SDK.
+ * <p>
+ * The SDK (razorpay-java 1.4.x) keeps a single static OkHttpClient in the package-private
+ * class com.razorpay.ApiUtils and offers no way to configure it, so it is replaced reflectively.
+ * The SDK (re)creates that client in the RazorpayClient constructor, so this must be called
+ * after the RazorpayClient has been constructed.
+ */
+public final class RazorpayHttpTransport {
+
+    private RazorpayHttpTransport() {}
+
+    public static void install(OkHttpClient httpClient) {
+        try {
+            Field clientField = Class.forName("com.razorpay.ApiUtils").getDeclaredField("client");
+            clientField.setAccessible(true);
+            clientField.set(null, httpClient);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to install the HTTP client into the Razorpay SDK. "
+                    + "Check that the razorpay-java version still keeps it in ApiUtils.client.", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.lemicare.payment.service.gateway;
+
+import okhttp3.Request;
+
+import java.util.List;
+
+/**
+ * The kinds of Razorpay API calls we make, used to pick per-operation timeouts
+ * and to tag latency metrics.
+ */
+public enum RazorpayOperation {
+    CREATE_ORDER("create-order"),
+    CAPTURE("capture"),
+    REFUND("refund"),
+    FETCH("fetch"),
+    OTHER("other");
+
+    private final String tag;
+
+    RazorpayOperation(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Classifies an outgoing SDK request by its method and path (e.g. "POST /v1/payments/{id}/capture").
+     */
+    public static RazorpayOperation of(Request request) {
+        if ("GET".equals(request.method())) {
+            return FETCH;
+        }
+        if (!"POST".equals(request.method())) {
+            return OTHER;
+        }
+        List<String> segments = request.url().pathSegments();
+        String last = segments.get(segments.size() - 1);
+        if (segments.size() == 2 && "orders".equals(last)) {
+            return CREATE_ORDER;
+        }
+        if ("capture".equals(last)) {
+            return CAPTURE;
+        }
+        if ("refund".equals(last)) {
+            return REFUND;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,216 @@
+package com.lemicare.payment.service.gateway;
+
+import com.lemicare.payment.service.context.TenantContext;
+import com.lemicare.payment.service.util.RazorpayCall;
+import com.razorpay.RazorpayException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retries Razorpay calls according to what they are and how they failed.
+ * <ul>
+ *     <li>Reads are retried on transport and gateway-side failures with exponential backoff and
+ *     full jitter, as long as the next attempt still fits in the read deadline. Optionally, a read
+ *     that is slower than the recent p95 gets a hedged second request, and whichever answers
+ *     first wins.</li>
+ *     <li>Writes (create order, capture, refund) are not idempotent at the gateway, so they are
+ *     only retried when the failed attempt provably never reached Razorpay
+ *     ({@link RazorpayFailure#NOT_SENT}).</li>
+ * </ul>
+ * Client errors and an open circuit breaker are never retried.
+ * <p>
+ * A call's deadline is the caller's (passed in, or the request's bound by
+ * RequestDeadlineFilter), capped by the configured read or write deadline. It is bound to
+ * the thread of every attempt, hedges included, so the transport gives each attempt no
+ * more than the time that is left.
+ */
+@Component
+public class RazorpayRetryExecutor {
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long readDeadlineMillis;
+    private final long writeDeadlineMillis;
+    private final boolean hedgingEnabled;
+    private final long hedgingMinSamples;
+
+    private final LatencyTracker readLatency;
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RazorpayRetryExecutor(
+            @Value("${app.razorpay.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.razorpay.retry.base-backoff-ms:100}") long baseBackoffMillis,
+            @Value("${app.razorpay.retry.max-backoff-ms:1000}") long maxBackoffMillis,
+            @Value("${app.razorpay.retry.read-deadline-ms:6000}") long readDeadlineMillis,
+            @Value("${app.razorpay.retry.write-deadline-ms:20000}") long writeDeadlineMillis,
+            @Value("${app.razorpay.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${app.razorpay.hedging.percentile:0.95}") double hedgingPercentile,
+            @Value("${app.razorpay.hedging.min-samples:100}") long hedgingMinSamples) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.readDeadlineMillis = readDeadlineMillis;
+        this.writeDeadlineMillis = writeDeadlineMillis;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingMinSamples = hedgingMinSamples;
+        this.readLatency = new LatencyTracker(512, hedgingPercentile);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    public <T> T executeRead(RazorpayCall<T> call) throws RazorpayException {
+        return executeRead(call, Deadline.current());
+    }
+
+    public <T> T executeRead(RazorpayCall<T> call, Deadline callerDeadline) throws RazorpayException {
+        return execute(call, true, Deadline.afterMillis(readDeadlineMillis).earliest(callerDeadline));
+    }
+
+    public <T> T executeWrite(RazorpayCall<T> call) throws RazorpayException {
+        return executeWrite(call, Deadline.current());
+    }
+
+    public <T> T executeWrite(RazorpayCall<T> call, Deadline callerDeadline) throws RazorpayException {
+        return execute(call, false, Deadline.afterMillis(writeDeadlineMillis).earliest(callerDeadline));
+    }
+
+    private <T> T execute(RazorpayCall<T> call, boolean idempotent, Deadline deadline) throws RazorpayException {
+        Deadline previous = Deadline.current();
+        Deadline.set(deadline);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (deadline.isExpired()) {
+                    throw new RazorpayException("Razorpay call did not complete within its deadline.");
+                }
+                try {
+                    return idempotent ? read(call, deadline) : call.call();
+                } catch (RazorpayException e) {
+                    if (attempt >= maxAttempts || !RazorpayFailure.classify(e).isRetryable(idempotent)) {
+                        throw e;
+                    }
+                    long backoff = backoffMillis(attempt);
+                    if (deadline.remainingMillis() <= backoff) {
+                        throw e;
+                    }
+                    sleep(backoff);
+                }
+            }
+        } finally {
+            Deadline.set(previous);
+        }
+    }
+
+    /**
+     * Full jitter: a uniformly random wait between 0 and the capped exponential backoff.
+     */
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private <T> T read(RazorpayCall<T> call, Deadline deadline) throws RazorpayException {
+        long hedgeAfter = readLatency.percentileMillis();
+        if (!hedgingEnabled || readLatency.sampleCount() < hedgingMinSamples || hedgeAfter < 0
+                || hedgeAfter >= deadline.remainingMillis()) {
+            return timed(call);
+        }
+
+        CompletableFuture<T> primary = start(call, deadline);
+        try {
+            return primary.get(hedgeAfter, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            // The primary is slower than usual; race it against a second request.
+            return firstSuccessful(primary, start(call, deadline), deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while waiting for Razorpay.", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private <T> T timed(RazorpayCall<T> call) throws RazorpayException {
+        long start = System.nanoTime();
+        T result = call.call();
+        readLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> start(RazorpayCall<T> call, Deadline deadline) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        hedgeExecutor.execute(TenantContext.wrap(() -> {
+            Deadline.set(deadline);
+            try {
+                future.complete(timed(call));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                Deadline.clear();
+            }
+        }));
+        return future;
+    }
+
+    private static <T> T firstSuccessful(CompletableFuture<T> primary, CompletableFuture<T> hedge, Deadline deadline)
+            throws RazorpayException {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> attempt : List.of(primary, hedge)) {
+            attempt.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(result);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return winner.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RazorpayException("Razorpay read did not complete within its deadline.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while waiting for Razorpay.", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RazorpayException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RazorpayException razorpayException) {
+            return razorpayException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new RazorpayException(cause);
+    }
+
+    private static void sleep(long millis) throws RazorpayException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while backing off from a Razorpay failure.", e);
+        }
+    }
+}
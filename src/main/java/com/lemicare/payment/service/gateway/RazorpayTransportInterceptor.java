@@ -0,0 +1,113 @@
+package com.lemicare.payment.service.gateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OkHttp interceptor applied to every Razorpay SDK request.
+ * <ul>
+ *     <li>Rejects the call up front while the {@link CircuitBreaker} is open.</li>
+ *     <li>Applies the read/write timeout configured for the call's {@link RazorpayOperation}, cut
+ *     down to what is left of the {@link Deadline} bound to the calling thread.</li>
+ *     <li>Records the latency in the "razorpay.client.requests" histogram, tagged by operation and outcome.</li>
+ * </ul>
+ * Only transport failures and 5xx responses count against the breaker; 4xx responses are
+ * business errors (e.g. an unknown payment ID) and show the gateway is healthy.
+ * <p>
+ * Transport failures that happen before the request reaches the network (as observed by
+ * {@link #REQUEST_SENT_MARKER}, which must be registered as a network interceptor) are
+ * re-thrown with the {@link #NOT_SENT_PREFIX}. The SDK keeps only the exception message,
+ * and the retry engine uses the prefix to know a non-idempotent call is safe to repeat.
+ */
+public class RazorpayTransportInterceptor implements Interceptor {
+
+    public static final String CIRCUIT_OPEN_MESSAGE = "Razorpay circuit breaker is open";
+    public static final String NOT_SENT_PREFIX = "[request not sent] ";
+
+    /**
+     * Network interceptor that flags the call's request as sent once a connection is in place.
+     */
+    public static final Interceptor REQUEST_SENT_MARKER = chain -> {
+        if (chain.request().tag() instanceof AtomicBoolean sent) {
+            sent.set(true);
+        }
+        return chain.proceed(chain.request());
+    };
+
+    private final CircuitBreaker circuitBreaker;
+    private final Map<RazorpayOperation, Integer> timeoutsMillis;
+    private final MeterRegistry meterRegistry;
+
+    public RazorpayTransportInterceptor(CircuitBreaker circuitBreaker, Map<RazorpayOperation, Integer> timeoutsMillis,
+                                        MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.timeoutsMillis = timeoutsMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RazorpayOperation operation = RazorpayOperation.of(request);
+
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw new IOException(NOT_SENT_PREFIX + "The call's deadline expired before the request was sent");
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            timer(operation, "REJECTED").record(0, TimeUnit.NANOSECONDS);
+            throw new IOException(CIRCUIT_OPEN_MESSAGE);
+        }
+
+        int timeout = timeoutsMillis.getOrDefault(operation, timeoutsMillis.get(RazorpayOperation.OTHER));
+        if (deadline != null) {
+            // At least 1ms: OkHttp reads a zero timeout as none at all.
+            timeout = (int) Math.max(1, Math.min(timeout, deadline.remainingMillis()));
+        }
+        AtomicBoolean sent = new AtomicBoolean();
+        long start = System.nanoTime();
+        try {
+            Response response = chain
+                    .withReadTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .withWriteTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .proceed(request.newBuilder().tag(sent).build());
+            if (response.code() >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            timer(operation, outcome(response.code())).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onFailure();
+            timer(operation, "IO_ERROR").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e instanceof IOException && !sent.get()) {
+                throw new IOException(NOT_SENT_PREFIX + e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    private Timer timer(RazorpayOperation operation, String outcome) {
+        return Timer.builder("razorpay.client.requests")
+                .description("Latency of Razorpay API calls")
+                .tag("operation", operation.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) return "SERVER_ERROR";
+        if (status >= 400) return "CLIENT_ERROR";
+        return "SUCCESS";
+    }
+}
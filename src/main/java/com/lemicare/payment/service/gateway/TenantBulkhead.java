@@ -0,0 +1,59 @@
+package com.lemicare.payment.service.gateway;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.lemicare.payment.service.exception.TooManyRequestsException;
+import com.lemicare.payment.service.util.RazorpayCall;
+import com.razorpay.RazorpayException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent Razorpay calls each organization may have in flight.
+ * <p>
+ * With virtual threads, request concurrency is no longer limited by the Tomcat pool,
+ * so one busy tenant could otherwise occupy all of our gateway capacity. Callers wait
+ * up to a short, configurable time for a permit and are then rejected with HTTP 429.
+ * The call runs on the caller's own thread, so TenantContext stays available to it.
+ */
+@Component
+public class TenantBulkhead {
+
+    private final LoadingCache<String, Semaphore> permits;
+    private final long maxWaitMillis;
+
+    public TenantBulkhead(
+            @Value("${app.razorpay.bulkhead.max-concurrent-calls-per-tenant:20}") int maxConcurrentCalls,
+            @Value("${app.razorpay.bulkhead.max-wait-ms:500}") long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+        // Idle tenants' semaphores are dropped. Calls are far shorter than the idle period,
+        // and releasing a permit on an evicted semaphore is harmless.
+        this.permits = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build(orgId -> new Semaphore(maxConcurrentCalls, true));
+    }
+
+    public <T> T call(String orgId, RazorpayCall<T> call) throws RazorpayException {
+        Semaphore semaphore = permits.get(orgId);
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while waiting for a Razorpay call slot.", e);
+        }
+        if (!acquired) {
+            throw new TooManyRequestsException("Too many concurrent payment gateway calls for organization " + orgId + ".");
+        }
+
+        try {
+            return call.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.lemicare.payment.service.model;
+
+import com.google.cloud.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The stored outcome of an idempotent request, kept in the 'idempotency_records' collection.
+ * <p>
+ * A record is created as IN_PROGRESS before the outbound call is made and completed with
+ * the serialized response afterwards, so a retry of the same request returns that
+ * response instead of calling Razorpay again.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    public static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * A hash of (organizationId, operation, client key). Also the document ID.
+     */
+    private String key;
+
+    private String organizationId;
+
+    /**
+     * The operation the key was used for (e.g. "create-order", "refund").
+     */
+    private String operation;
+
+    /**
+     * A hash of the request parameters, used to reject a key reused for a different request.
+     */
+    private String fingerprint;
+
+    private String status;
+
+    /**
+     * The JSON response returned to the first caller; null while IN_PROGRESS.
+     */
+    private String response;
+
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+
+    /**
+     * After this time the record is ignored; a Firestore TTL policy on this field deletes it.
+     */
+    private Timestamp expiresAt;
+
+    /**
+     * Whether the record still holds its key: it has not expired, and it is either completed
+     * or an in-progress claim made after {@code staleBefore}.
+     */
+    public boolean isLive(Timestamp now, Timestamp staleBefore) {
+        if (expiresAt != null && expiresAt.compareTo(now) <= 0) {
+            return false;
+        }
+        if (STATUS_COMPLETED.equals(status)) {
+            return true;
+        }
+        return updatedAt != null && updatedAt.compareTo(staleBefore) > 0;
+    }
+}
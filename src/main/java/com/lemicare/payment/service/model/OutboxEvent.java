@@ -0,0 +1,90 @@
+package com.lemicare.payment.service.model;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A payment outcome waiting to be delivered to the service that requested the payment,
+ * kept in the 'payment_event_outbox' collection.
+ * <p>
+ * Events are written in the same atomic write as the order status transition they
+ * describe, and delivered afterwards by the {@code OutboxDispatcher}. Delivery is at least
+ * once, so consumers should ignore event IDs they have already handled.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DELIVERED = "DELIVERED";
+    /**
+     * Delivery was given up after the maximum number of attempts.
+     */
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * orderId and event type, so an order emits each kind of event only once. Also the document ID.
+     */
+    private String eventId;
+
+    private String eventType; // e.g. "PaymentSuccess", "PaymentCancelled"
+
+    /**
+     * The order's sourceService, which the event is delivered to.
+     */
+    private String destination;
+
+    private String organizationId;
+    private String branchId;
+    private String orderId;
+    private String sourceInvoiceId;
+    private String razorpayPaymentId;
+    private Double amount;
+    private String currency;
+    private Timestamp occurredAt;
+
+    private String status;
+    private int attempts;
+
+    /**
+     * When the dispatcher may next pick the event up. Also moved forward while a dispatcher
+     * holds it, so other instances leave it alone.
+     */
+    private Timestamp nextAttemptAt;
+
+    private String lastError;
+    private Timestamp deliveredAt;
+
+    /**
+     * Set once the event is delivered or given up; a Firestore TTL policy on this field deletes it.
+     */
+    private Timestamp expiresAt;
+
+    /**
+     * A new pending event about the given order's current state.
+     */
+    public static OutboxEvent forOrder(String eventType, PaymentOrder order) {
+        Timestamp now = order.getUpdatedAt() != null ? order.getUpdatedAt() : Timestamp.now();
+        return OutboxEvent.builder()
+                .eventId(order.getOrderId() + ":" + eventType)
+                .eventType(eventType)
+                .destination(order.getSourceService())
+                .organizationId(order.getOrganizationId())
+                .branchId(order.getBranchId())
+                .orderId(order.getOrderId())
+                .sourceInvoiceId(order.getSourceInvoiceId())
+                .razorpayPaymentId(order.getRazorpayPaymentId())
+                .amount(order.getAmount())
+                .currency(order.getCurrency())
+                .occurredAt(now)
+                .status(STATUS_PENDING)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
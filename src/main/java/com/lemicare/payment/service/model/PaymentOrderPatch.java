@@ -0,0 +1,61 @@
+package com.lemicare.payment.service.model;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A partial update of a PaymentOrder, written as a field-masked Firestore update: only the
+ * non-null fields are sent, so the rest of the document is neither re-sent nor overwritten.
+ * Written by the order state machine, with a precondition on the order's update time.
+ */
+@Value
+@Builder
+public class PaymentOrderPatch {
+
+    String organizationId;
+    String branchId;
+    String orderId;
+
+    String status;
+    String razorpayPaymentId;
+    String razorpaySignature;
+    Timestamp updatedAt;
+
+    /**
+     * The fields a status transition changes, taken from the order after the transition.
+     */
+    public static PaymentOrderPatch statusOf(PaymentOrder order) {
+        return PaymentOrderPatch.builder()
+                .organizationId(order.getOrganizationId())
+                .branchId(order.getBranchId())
+                .orderId(order.getOrderId())
+                .status(order.getStatus())
+                .razorpayPaymentId(order.getRazorpayPaymentId())
+                .razorpaySignature(order.getRazorpaySignature())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * The field mask and values to write.
+     */
+    public Map<String, Object> toFields() {
+        Map<String, Object> fields = new HashMap<>();
+        putIfNotNull(fields, "status", status);
+        putIfNotNull(fields, "razorpayPaymentId", razorpayPaymentId);
+        putIfNotNull(fields, "razorpaySignature", razorpaySignature);
+        putIfNotNull(fields, "updatedAt", updatedAt);
+        return fields;
+    }
+
+    private static void putIfNotNull(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lemicare.payment.service.model;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.Exclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Running refund totals for one payment, stored in the 'payment_refund_summaries' collection.
+ * <p>
+ * The document ID is the Razorpay payment ID. The totals are derived from the per-refund
+ * amounts and statuses kept alongside them, so applying the same refund update twice, or
+ * updates out of order, always yields the same totals.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRefundSummary {
+
+    private static final Set<String> FINAL_STATUSES = Set.of("processed", "failed");
+
+    private String paymentId;
+    private String organizationId;
+
+    /**
+     * The captured amount of the payment, from the local payment ledger, when known.
+     */
+    private Double paymentAmount;
+
+    /**
+     * The total of processed refunds.
+     */
+    private double refundedAmount;
+
+    /**
+     * The total of refunds initiated but not yet processed or failed.
+     */
+    private double pendingAmount;
+
+    private int refundCount;
+
+    @Builder.Default
+    private Map<String, Double> refundAmounts = new HashMap<>();
+
+    @Builder.Default
+    private Map<String, String> refundStatuses = new HashMap<>();
+
+    private Timestamp updatedAt;
+
+    /**
+     * Records the latest known state of a refund and recomputes the totals.
+     * A final status (processed, failed) is never replaced by an earlier one.
+     *
+     * @return The status now recorded for the refund.
+     */
+    public String apply(String refundId, Double amount, String status) {
+        String current = refundStatuses.get(refundId);
+        String effective = current != null && FINAL_STATUSES.contains(current) ? current : status;
+        if (effective != null) {
+            refundStatuses.put(refundId, effective);
+        }
+        if (amount != null) {
+            refundAmounts.put(refundId, amount);
+        }
+        recompute();
+        return effective;
+    }
+
+    /**
+     * How much of the payment can still be refunded, or null if the payment amount is unknown.
+     */
+    @Exclude
+    public Double getRefundableAmount() {
+        return paymentAmount != null ? Math.max(0, paymentAmount - refundedAmount - pendingAmount) : null;
+    }
+
+    private void recompute() {
+        double refunded = 0;
+        double pending = 0;
+        for (Map.Entry<String, Double> refund : refundAmounts.entrySet()) {
+            String status = refundStatuses.get(refund.getKey());
+            if ("processed".equals(status)) {
+                refunded += refund.getValue();
+            } else if (!"failed".equals(status)) {
+                pending += refund.getValue();
+            }
+        }
+        refundedAmount = refunded;
+        pendingAmount = pending;
+        refundCount = refundAmounts.size();
+    }
+}
@@ -0,0 +1,54 @@
+package com.lemicare.payment.service.model;
+
+import com.google.cloud.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A local copy of a Razorpay payment, stored in the 'payment_transactions' collection.
+ * <p>
+ * The document ID is the Razorpay payment ID. Entries are written when a payment is
+ * verified by the checkout flow and when Razorpay webhooks arrive, so the admin
+ * transactions screen can be served from Firestore instead of the gateway.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTransaction {
+
+    /**
+     * The Razorpay payment ID (e.g., "pay_29QQoUBi66xm2f"). Also the document ID.
+     */
+    private String paymentId;
+
+    private String organizationId;
+    private String branchId;
+
+    /**
+     * Our internal PaymentOrder ID, if the payment could be linked to one.
+     */
+    private String orderId;
+    private String razorpayOrderId;
+    private String sourceService;
+    private String sourceInvoiceId;
+
+    /**
+     * The amount in the primary currency unit (e.g., 1500.00 for INR).
+     */
+    private Double amount;
+    private String currency;
+
+    /**
+     * The Razorpay payment status ("captured", "failed", ...). This is only set from
+     * webhooks, so it may be null for a payment that has been verified but whose
+     * gateway event has not arrived yet.
+     */
+    private String status;
+    private String method;
+
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.lemicare.payment.service.model;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Maps a Razorpay order ID to the PaymentOrder created for it, stored in the
+ * 'razorpay_order_index' collection.
+ * <p>
+ * The document ID is the Razorpay order ID, so the owning tenant and order can be found
+ * with a single document read, without a query and without knowing the tenant up front.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RazorpayOrderIndexEntry {
+
+    /**
+     * The Razorpay order ID (e.g., "order_9A33XWu170gUtm"). Also the document ID.
+     */
+    private String razorpayOrderId;
+
+    private String organizationId;
+    private String branchId;
+
+    /**
+     * Our internal PaymentOrder ID.
+     */
+    private String orderId;
+
+    private Timestamp createdAt;
+
+    public static RazorpayOrderIndexEntry from(PaymentOrder order) {
+        return RazorpayOrderIndexEntry.builder()
+                .razorpayOrderId(order.getRazorpayOrderId())
+                .organizationId(order.getOrganizationId())
+                .branchId(order.getBranchId())
+                .orderId(order.getOrderId())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+}
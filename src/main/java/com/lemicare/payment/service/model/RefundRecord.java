@@ -0,0 +1,92 @@
+package com.lemicare.payment.service.model;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.webhook.RazorpayWebhookEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.json.JSONObject;
+
+/**
+ * A local copy of a Razorpay refund, stored in the 'refunds' collection.
+ * <p>
+ * The document ID is the Razorpay refund ID. Records are written when a refund is
+ * initiated through this service and updated from refund webhooks; every write also
+ * updates the payment's {@link PaymentRefundSummary}.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundRecord {
+
+    /**
+     * The Razorpay refund ID (e.g., "rfnd_FP8QHiV938haTz"). Also the document ID.
+     */
+    private String refundId;
+
+    private String organizationId;
+
+    /**
+     * The Razorpay payment ID the refund was made against.
+     */
+    private String paymentId;
+
+    /**
+     * The refunded amount in the primary currency unit (e.g., 500.00 for INR).
+     */
+    private Double amount;
+    private String currency;
+
+    /**
+     * The Razorpay refund status ("pending", "processed", "failed").
+     */
+    private String status;
+    private String speed;
+    private String reason;
+
+    /**
+     * The user who initiated the refund.
+     */
+    private String initiatedBy;
+
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+
+    /**
+     * Maps a Razorpay refund entity (from the API or a webhook). The organization is taken
+     * from the notes attached when the refund was initiated, when present.
+     */
+    public static RefundRecord fromEntity(JSONObject entity) {
+        JSONObject notes = entity.optJSONObject("notes"); // Razorpay sends [] when empty
+        return RefundRecord.builder()
+                .refundId(entity.getString("id"))
+                .organizationId(notes != null ? notes.optString("organizationId", null) : null)
+                .paymentId(entity.optString("payment_id", null))
+                .amount(entity.has("amount") ? entity.getLong("amount") / 100.0 : null)
+                .currency(entity.optString("currency", null))
+                .status(entity.optString("status", null))
+                .speed(entity.optString("speed_requested", null))
+                .createdAt(entity.has("created_at") ? Timestamp.ofTimeSecondsAndNanos(entity.getLong("created_at"), 0) : null)
+                .updatedAt(Timestamp.now())
+                .build();
+    }
+
+    /**
+     * Maps the refund entity of a parsed webhook.
+     */
+    public static RefundRecord fromWebhook(RazorpayWebhookEvent.Entity entity) {
+        return RefundRecord.builder()
+                .refundId(entity.id())
+                .organizationId(entity.organizationId())
+                .paymentId(entity.paymentId())
+                .amount(entity.amount() != null ? entity.amount() / 100.0 : null)
+                .currency(entity.currency())
+                .status(entity.status())
+                .speed(entity.speedRequested())
+                .createdAt(entity.createdAt() != null ? Timestamp.ofTimeSecondsAndNanos(entity.createdAt(), 0) : null)
+                .updatedAt(Timestamp.now())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.lemicare.payment.service.repository;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.IdempotencyRecord;
+
+import java.util.Optional;
+
+/**
+ * Repository for idempotency records ('idempotency_records' collection).
+ */
+public interface IdempotencyRecordRepository {
+
+    /**
+     * Atomically stores the given IN_PROGRESS record unless a live record already exists
+     * for its key. A record is live if it has not expired and is either completed or was
+     * claimed after {@code staleBefore}; older IN_PROGRESS records belong to a caller that
+     * died mid-request and are taken over.
+     *
+     * @return Empty if the claim succeeded, otherwise the live record that prevented it.
+     */
+    Optional<IdempotencyRecord> claim(IdempotencyRecord record, Timestamp staleBefore);
+
+    /**
+     * Overwrites the record, typically to complete it with the response.
+     */
+    void save(IdempotencyRecord record);
+
+    void delete(String key);
+}
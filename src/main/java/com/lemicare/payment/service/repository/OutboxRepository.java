@@ -0,0 +1,24 @@
+package com.lemicare.payment.service.repository;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * The payment event outbox. Events are added together with the order status change they
+ * describe, see {@link PaymentOrderStateRepository#compareAndSetStatus}.
+ */
+public interface OutboxRepository {
+
+    /**
+     * Takes up to {@code limit} pending events that are due, oldest first, and moves their
+     * {@code nextAttemptAt} to {@code leaseUntil} so no other dispatcher takes them meanwhile.
+     */
+    List<OutboxEvent> claimDue(Timestamp now, Timestamp leaseUntil, int limit);
+
+    /**
+     * Saves the delivery state of several events using batched writes.
+     */
+    void saveAll(List<OutboxEvent> events);
+}
@@ -0,0 +1,26 @@
+package com.lemicare.payment.service.repository;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-document reads and writes of payment orders, which the shared PaymentOrderRepository
+ * does not offer.
+ */
+public interface PaymentOrderBatchRepository {
+
+    /**
+     * Reads several of a tenant's orders in one round trip.
+     *
+     * @return The orders found, keyed by orderId. Unknown IDs are absent.
+     */
+    Map<String, PaymentOrder> findAllById(String orgId, String branchId, Collection<String> orderIds);
+
+    /**
+     * Saves several orders, of any tenants, using batched writes.
+     */
+    void saveAll(List<PaymentOrder> orders);
+}
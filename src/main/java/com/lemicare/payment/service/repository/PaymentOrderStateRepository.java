@@ -0,0 +1,33 @@
+package com.lemicare.payment.service.repository;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+
+import java.util.Optional;
+
+/**
+ * Versioned reads and compare-and-set field-masked writes of payment orders, used by the
+ * order state machine.
+ */
+public interface PaymentOrderStateRepository {
+
+    /**
+     * An order together with the time its document was last written, which a
+     * compare-and-set must match.
+     */
+    record VersionedOrder(PaymentOrder order, Timestamp updateTime) {}
+
+    Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId);
+
+    /**
+     * Writes only the fields set in the patch, and adds the event to the outbox, in one
+     * atomic write, provided the order document has not been written since
+     * {@code expectedUpdateTime}.
+     *
+     * @param event The event to add, or null.
+     * @return false if the order was changed in the meantime; nothing is written then.
+     */
+    boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event);
+}
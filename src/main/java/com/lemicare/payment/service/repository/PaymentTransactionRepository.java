@@ -0,0 +1,37 @@
+package com.lemicare.payment.service.repository;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.PaymentTransaction;
+
+import java.util.List;
+
+/**
+ * Repository for the local payment ledger ('payment_transactions' collection).
+ */
+public interface PaymentTransactionRepository {
+
+    /**
+     * Creates or updates a ledger entry. Only the non-null fields of the given
+     * transaction are written, so partial updates (e.g. from a webhook that does not
+     * know the tenant) never erase data recorded by another path.
+     */
+    void save(PaymentTransaction transaction);
+
+    /**
+     * Merges several ledger entries using batched writes, with the same
+     * non-null-fields semantics as {@link #save(PaymentTransaction)}.
+     */
+    void saveAll(List<PaymentTransaction> transactions);
+
+    /**
+     * Lists a tenant's transactions, newest first.
+     *
+     * @param from             Inclusive lower bound on createdAt, or null.
+     * @param to               Inclusive upper bound on createdAt, or null.
+     * @param limit            The maximum number of entries to return.
+     * @param startAfterPaymentId The last paymentId of the previous page, or null for the first page. A
+     *                         paymentId of another organization or branch yields an empty page.
+     */
+    List<PaymentTransaction> findByOrganization(String orgId, String branchId, Timestamp from, Timestamp to,
+                                                int limit, String startAfterPaymentId);
+}
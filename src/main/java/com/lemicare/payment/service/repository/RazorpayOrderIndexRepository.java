@@ -0,0 +1,30 @@
+package com.lemicare.payment.service.repository;
+
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository for the Razorpay order reverse index ('razorpay_order_index' collection).
+ */
+public interface RazorpayOrderIndexRepository {
+
+    void save(RazorpayOrderIndexEntry entry);
+
+    /**
+     * Saves several entries using batched writes.
+     */
+    void saveAll(List<RazorpayOrderIndexEntry> entries);
+
+    Optional<RazorpayOrderIndexEntry> findByRazorpayOrderId(String razorpayOrderId);
+
+    /**
+     * Looks up several Razorpay order IDs in one round trip.
+     *
+     * @return The entries found, keyed by Razorpay order ID. Unknown IDs are absent.
+     */
+    Map<String, RazorpayOrderIndexEntry> findAllByRazorpayOrderIds(Collection<String> razorpayOrderIds);
+}
@@ -0,0 +1,28 @@
+package com.lemicare.payment.service.repository;
+
+import com.lemicare.payment.service.model.PaymentRefundSummary;
+import com.lemicare.payment.service.model.RefundRecord;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for local refund records ('refunds' collection) and the per-payment
+ * refund totals derived from them ('payment_refund_summaries' collection).
+ */
+public interface RefundRecordRepository {
+
+    /**
+     * Creates or updates a refund record and its payment's summary. Only the non-null
+     * fields of the record are written, and a final status is never downgraded.
+     */
+    void save(RefundRecord record);
+
+    /**
+     * Applies several refund records like {@link #save(RefundRecord)}, grouping the
+     * writes into as few transactions as possible.
+     */
+    void saveAll(List<RefundRecord> records);
+
+    Optional<PaymentRefundSummary> findSummaryByPaymentId(String paymentId);
+}
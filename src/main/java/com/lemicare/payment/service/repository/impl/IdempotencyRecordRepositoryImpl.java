@@ -0,0 +1,80 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.lemicare.payment.service.model.IdempotencyRecord;
+import com.lemicare.payment.service.repository.IdempotencyRecordRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of the idempotency store's durable tier.
+ * <p>
+ * Expired records are removed by a Firestore TTL policy on 'expiresAt'; until then they
+ * are ignored by {@link #claim}.
+ */
+public class IdempotencyRecordRepositoryImpl implements IdempotencyRecordRepository {
+
+    public static final String COLLECTION_NAME = "idempotency_records";
+
+    private final Firestore firestore;
+
+    public IdempotencyRecordRepositoryImpl(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(IdempotencyRecord record, Timestamp staleBefore) {
+        DocumentReference document = collection().document(record.getKey());
+        try {
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                if (snapshot.exists()) {
+                    IdempotencyRecord existing = snapshot.toObject(IdempotencyRecord.class);
+                    if (existing != null && existing.isLive(record.getCreatedAt(), staleBefore)) {
+                        return Optional.of(existing);
+                    }
+                }
+                transaction.set(document, record);
+                return Optional.<IdempotencyRecord>empty();
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to claim idempotency record " + record.getKey(), e);
+        }
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        try {
+            collection().document(record.getKey()).set(record).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save idempotency record " + record.getKey(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            collection().document(key).delete().get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to delete idempotency record " + key, e);
+        }
+    }
+}
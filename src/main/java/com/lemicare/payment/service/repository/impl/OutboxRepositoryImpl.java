@@ -0,0 +1,85 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.repository.OutboxRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of the payment event outbox.
+ * <p>
+ * Due events are found with a query on (status, nextAttemptAt), which needs the composite
+ * index in firestore.indexes.json.
+ */
+public class OutboxRepositoryImpl implements OutboxRepository {
+
+    public static final String COLLECTION_NAME = "payment_event_outbox";
+
+    // Firestore rejects batches with more than 500 writes.
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final Firestore firestore;
+
+    public OutboxRepositoryImpl(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+
+    @Override
+    public List<OutboxEvent> claimDue(Timestamp now, Timestamp leaseUntil, int limit) {
+        try {
+            return firestore.runTransaction(transaction -> {
+                List<QueryDocumentSnapshot> documents = transaction.get(collection()
+                        .whereEqualTo("status", OutboxEvent.STATUS_PENDING)
+                        .whereLessThanOrEqualTo("nextAttemptAt", now)
+                        .orderBy("nextAttemptAt")
+                        .limit(limit)).get().getDocuments();
+                List<OutboxEvent> claimed = new ArrayList<>(documents.size());
+                for (DocumentSnapshot document : documents) {
+                    OutboxEvent event = document.toObject(OutboxEvent.class);
+                    if (event == null) {
+                        continue;
+                    }
+                    event.setNextAttemptAt(leaseUntil);
+                    transaction.update(document.getReference(), "nextAttemptAt", leaseUntil);
+                    claimed.add(event);
+                }
+                return claimed;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to claim due payment events", e);
+        }
+    }
+
+    @Override
+    public void saveAll(List<OutboxEvent> events) {
+        try {
+            for (int start = 0; start < events.size(); start += MAX_BATCH_SIZE) {
+                WriteBatch batch = firestore.batch();
+                for (OutboxEvent event : events.subList(start, Math.min(start + MAX_BATCH_SIZE, events.size()))) {
+                    batch.set(collection().document(event.getEventId()), event);
+                }
+                batch.commit().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save a batch of " + events.size() + " payment events", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.repository.PaymentOrderBatchRepository;
+import com.lemicare.payment.service.util.FirestorePaths;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of batched payment order reads and writes: a single getAll per
+ * read, and WriteBatch sets of up to 500 orders per write, at the documents
+ * {@link PaymentOrderDocuments} addresses.
+ */
+public class PaymentOrderBatchRepositoryImpl implements PaymentOrderBatchRepository {
+
+    // Firestore rejects batches with more than 500 writes.
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final PaymentOrderDocuments paymentOrderDocuments;
+
+    public PaymentOrderBatchRepositoryImpl(PaymentOrderDocuments paymentOrderDocuments) {
+        this.paymentOrderDocuments = paymentOrderDocuments;
+    }
+
+    @Override
+    public void saveAll(List<PaymentOrder> orders) {
+        try {
+            for (int start = 0; start < orders.size(); start += MAX_BATCH_SIZE) {
+                WriteBatch batch = paymentOrderDocuments.firestore().batch();
+                for (PaymentOrder order : orders.subList(start, Math.min(start + MAX_BATCH_SIZE, orders.size()))) {
+                    batch.set(paymentOrderDocuments.document(order), order);
+                }
+                batch.commit().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save a batch of " + orders.size() + " payment orders", e);
+        }
+    }
+
+    @Override
+    public Map<String, PaymentOrder> findAllById(String orgId, String branchId, Collection<String> orderIds) {
+        Map<String, PaymentOrder> orders = new HashMap<>();
+        DocumentReference[] documents = orderIds.stream()
+                .distinct()
+                .filter(FirestorePaths::isValidDocumentId)
+                .map(orderId -> paymentOrderDocuments.document(orgId, branchId, orderId))
+                .toArray(DocumentReference[]::new);
+        if (documents.length == 0) {
+            return orders;
+        }
+
+        try {
+            for (DocumentSnapshot document : paymentOrderDocuments.firestore().getAll(documents).get()) {
+                if (!document.exists()) {
+                    continue;
+                }
+                PaymentOrder order = document.toObject(PaymentOrder.class);
+                if (PaymentOrderDocuments.belongsTo(order, orgId, branchId)) {
+                    orders.put(document.getId(), order);
+                }
+            }
+            return orders;
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to read " + documents.length + " payment orders for organization " + orgId, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.cosmicdoc.common.repository.PaymentOrderRepository;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.lemicare.payment.service.util.FirestorePaths;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Addresses the payment order documents of the shared PaymentOrderRepository, for the
+ * multi-document reads and preconditioned writes it does not offer.
+ * <p>
+ * The shared library does not expose its layout, so the collection path comes from a
+ * template such as "organizations/{organizationId}/branches/{branchId}/payment_orders".
+ * Because a wrong template would make every direct read miss, it is checked against the
+ * shared repository once the application is up: an existing order is sampled from the
+ * template's collection group and must sit at the templated path and be found by the
+ * shared repository. The outcome is this bean's health (DOWN on a mismatch, UNKNOWN while
+ * there is no order to compare).
+ */
+@Slf4j
+public class PaymentOrderDocuments implements HealthIndicator {
+
+    private final Firestore firestore;
+    private final PaymentOrderRepository paymentOrderRepository;
+    private final String collectionPathTemplate;
+    private volatile Health layout = Health.unknown().withDetail("reason", "Not checked yet").build();
+
+    public PaymentOrderDocuments(Firestore firestore, PaymentOrderRepository paymentOrderRepository,
+                                 String collectionPathTemplate) {
+        this.firestore = firestore;
+        this.paymentOrderRepository = paymentOrderRepository;
+        this.collectionPathTemplate = collectionPathTemplate;
+    }
+
+    public Firestore firestore() {
+        return firestore;
+    }
+
+    public CollectionReference collection(String orgId, String branchId) {
+        return firestore.collection(FirestorePaths.resolve(collectionPathTemplate, orgId, branchId));
+    }
+
+    public DocumentReference document(String orgId, String branchId, String orderId) {
+        return collection(orgId, branchId).document(orderId);
+    }
+
+    public DocumentReference document(PaymentOrder order) {
+        return document(order.getOrganizationId(), order.getBranchId(), order.getOrderId());
+    }
+
+    /**
+     * Whether a document read at one of these paths belongs to the tenant. Guards against a
+     * template that is not tenant-scoped.
+     */
+    public static boolean belongsTo(PaymentOrder order, String orgId, String branchId) {
+        return order != null && orgId.equals(order.getOrganizationId()) && branchId.equals(order.getBranchId());
+    }
+
+    @Override
+    public Health health() {
+        return layout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkLayout() {
+        layout = sampleLayout();
+        if (Status.DOWN.equals(layout.getStatus())) {
+            log.error("app.firestore.payment-orders-path does not match the shared PaymentOrderRepository: {}",
+                    layout.getDetails());
+        } else {
+            log.info("Payment order layout check: {} {}", layout.getStatus(), layout.getDetails());
+        }
+    }
+
+    private Health sampleLayout() {
+        String collectionId = collectionPathTemplate.substring(collectionPathTemplate.lastIndexOf('/') + 1);
+        List<QueryDocumentSnapshot> sample;
+        try {
+            sample = firestore.collectionGroup(collectionId).limit(1).get().get().getDocuments();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return Health.unknown().withDetail("reason", "Could not sample an order").withException(e).build();
+        }
+        if (sample.isEmpty()) {
+            return Health.unknown().withDetail("reason", "No order in collection group " + collectionId).build();
+        }
+
+        QueryDocumentSnapshot document = sample.get(0);
+        PaymentOrder order = document.toObject(PaymentOrder.class);
+        if (order == null || !FirestorePaths.isValidDocumentId(order.getOrganizationId())
+                || !FirestorePaths.isValidDocumentId(order.getBranchId())) {
+            return Health.down()
+                    .withDetail("sampledPath", document.getReference().getPath())
+                    .withDetail("reason", "The sampled document is not a tenant's payment order")
+                    .build();
+        }
+        String expectedPath = document(order.getOrganizationId(), order.getBranchId(), document.getId()).getPath();
+        if (!expectedPath.equals(document.getReference().getPath())) {
+            return Health.down()
+                    .withDetail("sampledPath", document.getReference().getPath())
+                    .withDetail("templatedPath", expectedPath)
+                    .build();
+        }
+        if (paymentOrderRepository.findById(order.getOrganizationId(), order.getBranchId(), document.getId()).isEmpty()) {
+            return Health.down()
+                    .withDetail("sampledPath", expectedPath)
+                    .withDetail("reason", "The shared PaymentOrderRepository does not find this order")
+                    .build();
+        }
+        return Health.up().withDetail("sampledPath", expectedPath).build();
+    }
+}
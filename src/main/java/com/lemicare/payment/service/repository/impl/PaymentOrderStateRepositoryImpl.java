@@ -0,0 +1,97 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+import com.lemicare.payment.service.repository.PaymentOrderStateRepository;
+import com.lemicare.payment.service.util.FirestorePaths;
+import io.grpc.Status;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of compare-and-set order updates, using update-time
+ * preconditions on the order document itself instead of transactions, so a lost race
+ * costs one failed write rather than a lock held across a read. Each write is a
+ * field-masked update that sends only the patched fields, committed in one batch with
+ * its outbox event.
+ * <p>
+ * Order documents are addressed through {@link PaymentOrderDocuments}, which checks its
+ * layout against the shared PaymentOrderRepository.
+ */
+public class PaymentOrderStateRepositoryImpl implements PaymentOrderStateRepository {
+
+    private final PaymentOrderDocuments paymentOrderDocuments;
+
+    public PaymentOrderStateRepositoryImpl(PaymentOrderDocuments paymentOrderDocuments) {
+        this.paymentOrderDocuments = paymentOrderDocuments;
+    }
+
+    @Override
+    public Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId) {
+        if (!FirestorePaths.isValidDocumentId(orderId)) {
+            return Optional.empty();
+        }
+        try {
+            DocumentSnapshot snapshot = paymentOrderDocuments.document(orgId, branchId, orderId).get().get();
+            if (!snapshot.exists()) {
+                return Optional.empty();
+            }
+            PaymentOrder order = snapshot.toObject(PaymentOrder.class);
+            if (!PaymentOrderDocuments.belongsTo(order, orgId, branchId)) {
+                return Optional.empty();
+            }
+            return Optional.of(new VersionedOrder(order, snapshot.getUpdateTime()));
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to read payment order " + orderId, e);
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event) {
+        WriteBatch batch = paymentOrderDocuments.firestore().batch();
+        batch.update(paymentOrderDocuments.document(patch.getOrganizationId(), patch.getBranchId(), patch.getOrderId()),
+                patch.toFields(), Precondition.updatedAt(expectedUpdateTime));
+        if (event != null) {
+            batch.set(paymentOrderDocuments.firestore().collection(OutboxRepositoryImpl.COLLECTION_NAME)
+                    .document(event.getEventId()), event);
+        }
+        try {
+            batch.commit().get();
+            return true;
+        } catch (ExecutionException e) {
+            if (isFailedPrecondition(e.getCause())) {
+                return false;
+            }
+            throw new RuntimeException("Failed to update payment order " + patch.getOrderId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to update payment order " + patch.getOrderId(), e);
+        }
+    }
+
+    private static boolean isFailedPrecondition(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirestoreException firestoreException && firestoreException.getStatus() != null
+                    && firestoreException.getStatus().getCode() == Status.Code.FAILED_PRECONDITION) {
+                return true;
+            }
+            if (cause instanceof ApiException apiException
+                    && apiException.getStatusCode().getCode() == StatusCode.Code.FAILED_PRECONDITION) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import com.lemicare.payment.service.repository.PaymentTransactionRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of the payment ledger.
+ * <p>
+ * Listing relies on the composite index (organizationId ASC, branchId ASC, createdAt DESC)
+ * declared in firestore.indexes.json.
+ */
+public class PaymentTransactionRepositoryImpl implements PaymentTransactionRepository {
+
+    public static final String COLLECTION_NAME = "payment_transactions";
+
+    // Firestore rejects batches with more than 500 writes.
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final Firestore firestore;
+
+    public PaymentTransactionRepositoryImpl(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+
+    @Override
+    public void save(PaymentTransaction transaction) {
+        try {
+            collection().document(transaction.getPaymentId())
+                    .set(toFields(transaction), SetOptions.merge())
+                    .get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save payment transaction " + transaction.getPaymentId(), e);
+        }
+    }
+
+    @Override
+    public void saveAll(List<PaymentTransaction> transactions) {
+        try {
+            for (int start = 0; start < transactions.size(); start += MAX_BATCH_SIZE) {
+                WriteBatch batch = firestore.batch();
+                for (PaymentTransaction transaction : transactions.subList(start, Math.min(start + MAX_BATCH_SIZE, transactions.size()))) {
+                    batch.set(collection().document(transaction.getPaymentId()), toFields(transaction), SetOptions.merge());
+                }
+                batch.commit().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save a batch of " + transactions.size() + " payment transactions", e);
+        }
+    }
+
+    @Override
+    public List<PaymentTransaction> findByOrganization(String orgId, String branchId, Timestamp from, Timestamp to,
+                                                       int limit, String startAfterPaymentId) {
+        try {
+            Query query = collection()
+                    .whereEqualTo("organizationId", orgId)
+                    .whereEqualTo("branchId", branchId);
+            if (from != null) query = query.whereGreaterThanOrEqualTo("createdAt", from);
+            if (to != null) query = query.whereLessThanOrEqualTo("createdAt", to);
+            query = query.orderBy("createdAt", Query.Direction.DESCENDING).limit(limit);
+
+            if (startAfterPaymentId != null) {
+                DocumentSnapshot cursor = collection().document(startAfterPaymentId).get().get();
+                // A cursor from another tenant (or branch) must not leak its position.
+                if (!cursor.exists() || !orgId.equals(cursor.getString("organizationId"))
+                        || !branchId.equals(cursor.getString("branchId"))) {
+                    return List.of();
+                }
+                query = query.startAfter(cursor);
+            }
+
+            List<PaymentTransaction> transactions = new ArrayList<>();
+            for (QueryDocumentSnapshot document : query.get().get().getDocuments()) {
+                transactions.add(document.toObject(PaymentTransaction.class));
+            }
+            return transactions;
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to list payment transactions for organization " + orgId, e);
+        }
+    }
+
+    /**
+     * Converts a transaction into a field map without null values, for merge writes.
+     */
+    static Map<String, Object> toFields(PaymentTransaction t) {
+        Map<String, Object> fields = new HashMap<>();
+        putIfNotNull(fields, "paymentId", t.getPaymentId());
+        putIfNotNull(fields, "organizationId", t.getOrganizationId());
+        putIfNotNull(fields, "branchId", t.getBranchId());
+        putIfNotNull(fields, "orderId", t.getOrderId());
+        putIfNotNull(fields, "razorpayOrderId", t.getRazorpayOrderId());
+        putIfNotNull(fields, "sourceService", t.getSourceService());
+        putIfNotNull(fields, "sourceInvoiceId", t.getSourceInvoiceId());
+        putIfNotNull(fields, "amount", t.getAmount());
+        putIfNotNull(fields, "currency", t.getCurrency());
+        putIfNotNull(fields, "status", t.getStatus());
+        putIfNotNull(fields, "method", t.getMethod());
+        putIfNotNull(fields, "createdAt", t.getCreatedAt());
+        putIfNotNull(fields, "updatedAt", t.getUpdatedAt());
+        return fields;
+    }
+
+    private static void putIfNotNull(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.repository.RazorpayOrderIndexRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of the Razorpay order reverse index.
+ */
+public class RazorpayOrderIndexRepositoryImpl implements RazorpayOrderIndexRepository {
+
+    public static final String COLLECTION_NAME = "razorpay_order_index";
+
+    // Firestore rejects batches with more than 500 writes.
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final Firestore firestore;
+
+    public RazorpayOrderIndexRepositoryImpl(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+
+    @Override
+    public void save(RazorpayOrderIndexEntry entry) {
+        try {
+            collection().document(entry.getRazorpayOrderId()).set(entry).get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to index Razorpay order " + entry.getRazorpayOrderId(), e);
+        }
+    }
+
+    @Override
+    public void saveAll(List<RazorpayOrderIndexEntry> entries) {
+        try {
+            for (int start = 0; start < entries.size(); start += MAX_BATCH_SIZE) {
+                WriteBatch batch = firestore.batch();
+                for (RazorpayOrderIndexEntry entry : entries.subList(start, Math.min(start + MAX_BATCH_SIZE, entries.size()))) {
+                    batch.set(collection().document(entry.getRazorpayOrderId()), entry);
+                }
+                batch.commit().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to index a batch of " + entries.size() + " Razorpay orders", e);
+        }
+    }
+
+    @Override
+    public Optional<RazorpayOrderIndexEntry> findByRazorpayOrderId(String razorpayOrderId) {
+        try {
+            DocumentSnapshot document = collection().document(razorpayOrderId).get().get();
+            return document.exists()
+                    ? Optional.ofNullable(document.toObject(RazorpayOrderIndexEntry.class))
+                    : Optional.empty();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to look up Razorpay order " + razorpayOrderId, e);
+        }
+    }
+
+    @Override
+    public Map<String, RazorpayOrderIndexEntry> findAllByRazorpayOrderIds(Collection<String> razorpayOrderIds) {
+        Map<String, RazorpayOrderIndexEntry> entries = new HashMap<>();
+        if (razorpayOrderIds.isEmpty()) {
+            return entries;
+        }
+        DocumentReference[] documents = razorpayOrderIds.stream()
+                .map(id -> collection().document(id))
+                .toArray(DocumentReference[]::new);
+        try {
+            for (DocumentSnapshot document : firestore.getAll(documents).get()) {
+                if (document.exists()) {
+                    entries.put(document.getId(), document.toObject(RazorpayOrderIndexEntry.class));
+                }
+            }
+            return entries;
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to look up " + razorpayOrderIds.size() + " Razorpay orders", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.lemicare.payment.service.model.PaymentRefundSummary;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore implementation of the refund records and per-payment refund summaries.
+ * <p>
+ * Records and summaries are written in the same transaction, so the totals always match
+ * the records. The payment amount is copied into a summary from the local payment ledger,
+ * so the refundable amount can be answered from the summary alone.
+ */
+public class RefundRecordRepositoryImpl implements RefundRecordRepository {
+
+    public static final String COLLECTION_NAME = "refunds";
+    public static final String SUMMARY_COLLECTION_NAME = "payment_refund_summaries";
+
+    // Each record takes up to two writes (record and summary); Firestore allows 500 per transaction.
+    private static final int MAX_RECORDS_PER_TRANSACTION = 200;
+
+    private final Firestore firestore;
+
+    public RefundRecordRepositoryImpl(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+
+    private CollectionReference summaries() {
+        return firestore.collection(SUMMARY_COLLECTION_NAME);
+    }
+
+    @Override
+    public void save(RefundRecord record) {
+        saveAll(List.of(record));
+    }
+
+    @Override
+    public void saveAll(List<RefundRecord> records) {
+        try {
+            for (int start = 0; start < records.size(); start += MAX_RECORDS_PER_TRANSACTION) {
+                List<RefundRecord> chunk = records.subList(start, Math.min(start + MAX_RECORDS_PER_TRANSACTION, records.size()));
+                firestore.runTransaction(transaction -> apply(transaction, chunk)).get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to save a batch of " + records.size() + " refund records", e);
+        }
+    }
+
+    @Override
+    public Optional<PaymentRefundSummary> findSummaryByPaymentId(String paymentId) {
+        try {
+            DocumentSnapshot document = summaries().document(paymentId).get().get();
+            return document.exists()
+                    ? Optional.ofNullable(document.toObject(PaymentRefundSummary.class))
+                    : Optional.empty();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to read the refund summary of payment " + paymentId, e);
+        }
+    }
+
+    private Void apply(Transaction transaction, List<RefundRecord> records) throws InterruptedException, ExecutionException {
+        Set<String> paymentIds = new LinkedHashSet<>();
+        for (RefundRecord record : records) {
+            if (record.getPaymentId() != null) {
+                paymentIds.add(record.getPaymentId());
+            }
+        }
+
+        // All reads must happen before the first write of a transaction.
+        Map<String, PaymentRefundSummary> summariesByPayment = new HashMap<>();
+        if (!paymentIds.isEmpty()) {
+            DocumentReference[] summaryRefs = paymentIds.stream().map(id -> summaries().document(id)).toArray(DocumentReference[]::new);
+            DocumentReference[] ledgerRefs = paymentIds.stream()
+                    .map(id -> firestore.collection(PaymentTransactionRepositoryImpl.COLLECTION_NAME).document(id))
+                    .toArray(DocumentReference[]::new);
+            List<DocumentSnapshot> summarySnapshots = transaction.getAll(summaryRefs).get();
+            List<DocumentSnapshot> ledgerSnapshots = transaction.getAll(ledgerRefs).get();
+            Map<String, DocumentSnapshot> ledgerById = new HashMap<>();
+            ledgerSnapshots.forEach(snapshot -> ledgerById.put(snapshot.getId(), snapshot));
+
+            for (DocumentSnapshot snapshot : summarySnapshots) {
+                PaymentRefundSummary summary = snapshot.exists()
+                        ? snapshot.toObject(PaymentRefundSummary.class)
+                        : PaymentRefundSummary.builder().paymentId(snapshot.getId()).build();
+                DocumentSnapshot ledger = ledgerById.get(snapshot.getId());
+                if (ledger != null && ledger.exists()) {
+                    if (summary.getPaymentAmount() == null) {
+                        summary.setPaymentAmount(ledger.getDouble("amount"));
+                    }
+                    if (summary.getOrganizationId() == null) {
+                        summary.setOrganizationId(ledger.getString("organizationId"));
+                    }
+                }
+                summariesByPayment.put(snapshot.getId(), summary);
+            }
+        }
+
+        Timestamp now = Timestamp.now();
+        for (RefundRecord record : records) {
+            PaymentRefundSummary summary = record.getPaymentId() != null ? summariesByPayment.get(record.getPaymentId()) : null;
+            if (summary != null) {
+                record.setStatus(summary.apply(record.getRefundId(), record.getAmount(), record.getStatus()));
+                if (summary.getOrganizationId() == null) {
+                    summary.setOrganizationId(record.getOrganizationId());
+                }
+                summary.setUpdatedAt(now);
+            }
+            transaction.set(collection().document(record.getRefundId()), toFields(record), SetOptions.merge());
+        }
+        for (PaymentRefundSummary summary : summariesByPayment.values()) {
+            transaction.set(summaries().document(summary.getPaymentId()), summary);
+        }
+        return null;
+    }
+
+    /**
+     * Converts a record into a field map without null values, for merge writes.
+     */
+    static Map<String, Object> toFields(RefundRecord r) {
+        Map<String, Object> fields = new HashMap<>();
+        putIfNotNull(fields, "refundId", r.getRefundId());
+        putIfNotNull(fields, "organizationId", r.getOrganizationId());
+        putIfNotNull(fields, "paymentId", r.getPaymentId());
+        putIfNotNull(fields, "amount", r.getAmount());
+        putIfNotNull(fields, "currency", r.getCurrency());
+        putIfNotNull(fields, "status", r.getStatus());
+        putIfNotNull(fields, "speed", r.getSpeed());
+        putIfNotNull(fields, "reason", r.getReason());
+        putIfNotNull(fields, "initiatedBy", r.getInitiatedBy());
+        putIfNotNull(fields, "createdAt", r.getCreatedAt());
+        putIfNotNull(fields, "updatedAt", r.getUpdatedAt());
+        return fields;
+    }
+
+    private static void putIfNotNull(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
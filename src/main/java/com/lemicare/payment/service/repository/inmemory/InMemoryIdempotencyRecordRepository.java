@@ -0,0 +1,40 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.IdempotencyRecord;
+import com.lemicare.payment.service.repository.IdempotencyRecordRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory idempotency records for the 'local' profile, tests and benchmarks.
+ */
+public class InMemoryIdempotencyRecordRepository implements IdempotencyRecordRepository {
+
+    private final ConcurrentMap<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<IdempotencyRecord> claim(IdempotencyRecord record, Timestamp staleBefore) {
+        IdempotencyRecord[] existing = {null};
+        records.compute(record.getKey(), (key, current) -> {
+            if (current != null && current.isLive(record.getCreatedAt(), staleBefore)) {
+                existing[0] = current.toBuilder().build();
+                return current;
+            }
+            return record.toBuilder().build();
+        });
+        return Optional.ofNullable(existing[0]);
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        records.put(record.getKey(), record.toBuilder().build());
+    }
+
+    @Override
+    public void delete(String key) {
+        records.remove(key);
+    }
+}
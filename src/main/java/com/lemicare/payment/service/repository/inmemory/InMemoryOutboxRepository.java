@@ -0,0 +1,44 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.repository.OutboxRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory payment event outbox for the 'local' profile, tests and benchmarks.
+ * Delivered and failed events are dropped once they expire, like the Firestore TTL policy.
+ */
+public class InMemoryOutboxRepository implements OutboxRepository {
+
+    // Guarded by this
+    private final Map<String, OutboxEvent> events = new HashMap<>();
+
+    @Override
+    public synchronized List<OutboxEvent> claimDue(Timestamp now, Timestamp leaseUntil, int limit) {
+        events.values().removeIf(event -> event.getExpiresAt() != null && event.getExpiresAt().compareTo(now) <= 0);
+        List<OutboxEvent> due = events.values().stream()
+                .filter(event -> OutboxEvent.STATUS_PENDING.equals(event.getStatus()))
+                .filter(event -> event.getNextAttemptAt().compareTo(now) <= 0)
+                .sorted(Comparator.comparing(OutboxEvent::getNextAttemptAt))
+                .limit(limit)
+                .toList();
+        due.forEach(event -> event.setNextAttemptAt(leaseUntil));
+        return due.stream().map(event -> event.toBuilder().build()).toList();
+    }
+
+    @Override
+    public synchronized void saveAll(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            this.events.put(event.getEventId(), event.toBuilder().build());
+        }
+    }
+
+    public synchronized List<OutboxEvent> findAll() {
+        return events.values().stream().map(event -> event.toBuilder().build()).toList();
+    }
+}
@@ -0,0 +1,161 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.cosmicdoc.common.repository.PaymentOrderRepository;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+import com.lemicare.payment.service.repository.PaymentOrderBatchRepository;
+import com.lemicare.payment.service.repository.PaymentOrderStateRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory payment orders for the 'local' profile, tests and benchmarks.
+ * <p>
+ * One store backs the shared PaymentOrderRepository and this service's batch and state
+ * repositories, so they see each other's writes as they would in Firestore. Orders are
+ * kept in a concurrent primary index by (organization, branch, orderId), with a secondary
+ * index from razorpayOrderId to the primary key. Orders are copied on the way in and out,
+ * so a caller changing an order object does not change the stored one, and every write
+ * stamps the order with a new update time for compare-and-set.
+ */
+public class InMemoryPaymentOrderRepository
+        implements PaymentOrderRepository, PaymentOrderBatchRepository, PaymentOrderStateRepository {
+
+    private record Key(String organizationId, String branchId, String orderId) {}
+
+    private record Stored(PaymentOrder order, Timestamp updateTime) {}
+
+    private final ConcurrentMap<Key, Stored> orders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Key> byRazorpayOrderId = new ConcurrentHashMap<>();
+    private final InMemoryOutboxRepository outboxRepository;
+    private final AtomicLong lastUpdateMicros = new AtomicLong();
+
+    public InMemoryPaymentOrderRepository(InMemoryOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Override
+    public PaymentOrder save(PaymentOrder order) {
+        Key key = new Key(order.getOrganizationId(), order.getBranchId(), order.getOrderId());
+        PaymentOrder stored = copy(order);
+        orders.compute(key, (k, previous) -> {
+            if (previous != null && previous.order().getRazorpayOrderId() != null) {
+                byRazorpayOrderId.remove(previous.order().getRazorpayOrderId(), k);
+            }
+            if (stored.getRazorpayOrderId() != null) {
+                byRazorpayOrderId.put(stored.getRazorpayOrderId(), k);
+            }
+            return new Stored(stored, nextUpdateTime());
+        });
+        return order;
+    }
+
+    @Override
+    public Optional<PaymentOrder> findById(String orgId, String branchId, String orderId) {
+        return Optional.ofNullable(orders.get(new Key(orgId, branchId, orderId))).map(stored -> copy(stored.order()));
+    }
+
+    @Override
+    public Optional<PaymentOrder> findByRazorpayOrderId(String orgId, String branchId, String razorpayOrderId) {
+        Key key = byRazorpayOrderId.get(razorpayOrderId);
+        if (key == null || !key.organizationId().equals(orgId) || !key.branchId().equals(branchId)) {
+            return Optional.empty();
+        }
+        return findById(orgId, branchId, key.orderId());
+    }
+
+    @Override
+    public Map<String, PaymentOrder> findAllById(String orgId, String branchId, Collection<String> orderIds) {
+        Map<String, PaymentOrder> found = new HashMap<>();
+        for (String orderId : orderIds) {
+            findById(orgId, branchId, orderId).ifPresent(order -> found.put(orderId, order));
+        }
+        return found;
+    }
+
+    @Override
+    public void saveAll(List<PaymentOrder> orders) {
+        orders.forEach(this::save);
+    }
+
+    @Override
+    public Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId) {
+        return Optional.ofNullable(orders.get(new Key(orgId, branchId, orderId)))
+                .map(stored -> new VersionedOrder(copy(stored.order()), stored.updateTime()));
+    }
+
+    @Override
+    public boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event) {
+        boolean[] written = {false};
+        orders.computeIfPresent(new Key(patch.getOrganizationId(), patch.getBranchId(), patch.getOrderId()), (key, current) -> {
+            if (!current.updateTime().equals(expectedUpdateTime)) {
+                return current;
+            }
+            if (event != null) {
+                outboxRepository.saveAll(List.of(event));
+            }
+            written[0] = true;
+            return new Stored(applied(current.order(), patch), nextUpdateTime());
+        });
+        return written[0];
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    public void clear() {
+        orders.clear();
+        byRazorpayOrderId.clear();
+    }
+
+    private static PaymentOrder applied(PaymentOrder current, PaymentOrderPatch patch) {
+        PaymentOrder updated = copy(current);
+        patch.toFields().forEach((field, value) -> {
+            switch (field) {
+                case "status" -> updated.setStatus((String) value);
+                case "razorpayPaymentId" -> updated.setRazorpayPaymentId((String) value);
+                case "razorpaySignature" -> updated.setRazorpaySignature((String) value);
+                case "updatedAt" -> updated.setUpdatedAt((Timestamp) value);
+                default -> throw new IllegalArgumentException("Unknown PaymentOrder field " + field);
+            }
+        });
+        return updated;
+    }
+
+    /**
+     * Like Firestore's update times: strictly increasing, so no two writes share one.
+     */
+    private Timestamp nextUpdateTime() {
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return Timestamp.ofTimeMicroseconds(lastUpdateMicros.updateAndGet(last -> Math.max(last + 1, now)));
+    }
+
+    private static PaymentOrder copy(PaymentOrder order) {
+        return PaymentOrder.builder()
+                .orderId(order.getOrderId())
+                .organizationId(order.getOrganizationId())
+                .branchId(order.getBranchId())
+                .sourceInvoiceId(order.getSourceInvoiceId())
+                .sourceService(order.getSourceService())
+                .razorpayOrderId(order.getRazorpayOrderId())
+                .razorpayPaymentId(order.getRazorpayPaymentId())
+                .razorpaySignature(order.getRazorpaySignature())
+                .amount(order.getAmount())
+                .currency(order.getCurrency())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+}
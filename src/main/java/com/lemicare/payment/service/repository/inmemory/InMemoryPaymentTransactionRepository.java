@@ -0,0 +1,86 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import com.lemicare.payment.service.repository.PaymentTransactionRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory payment ledger for the 'local' profile, tests and benchmarks. Saves merge the
+ * non-null fields into the stored entry, like the Firestore merge writes.
+ */
+public class InMemoryPaymentTransactionRepository implements PaymentTransactionRepository {
+
+    // Newest first, as listed by the Firestore implementation.
+    private static final Comparator<PaymentTransaction> NEWEST_FIRST = Comparator
+            .comparing(PaymentTransaction::getCreatedAt, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()))
+            .thenComparing(PaymentTransaction::getPaymentId)
+            .reversed();
+
+    private final ConcurrentMap<String, PaymentTransaction> transactions = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(PaymentTransaction transaction) {
+        transactions.merge(transaction.getPaymentId(), transaction.toBuilder().build(),
+                InMemoryPaymentTransactionRepository::merged);
+    }
+
+    @Override
+    public void saveAll(List<PaymentTransaction> transactions) {
+        transactions.forEach(this::save);
+    }
+
+    @Override
+    public List<PaymentTransaction> findByOrganization(String orgId, String branchId, Timestamp from, Timestamp to,
+                                                       int limit, String startAfterPaymentId) {
+        PaymentTransaction cursor = null;
+        if (startAfterPaymentId != null) {
+            cursor = transactions.get(startAfterPaymentId);
+            // A cursor from another tenant (or branch) must not leak its position.
+            if (cursor == null || !orgId.equals(cursor.getOrganizationId()) || !branchId.equals(cursor.getBranchId())) {
+                return List.of();
+            }
+        }
+        PaymentTransaction after = cursor;
+        return transactions.values().stream()
+                .filter(t -> orgId.equals(t.getOrganizationId()) && branchId.equals(t.getBranchId()))
+                .filter(t -> from == null || (t.getCreatedAt() != null && t.getCreatedAt().compareTo(from) >= 0))
+                .filter(t -> to == null || (t.getCreatedAt() != null && t.getCreatedAt().compareTo(to) <= 0))
+                .filter(t -> after == null || NEWEST_FIRST.compare(t, after) > 0)
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .map(t -> t.toBuilder().build())
+                .toList();
+    }
+
+    public Optional<PaymentTransaction> findByPaymentId(String paymentId) {
+        return Optional.ofNullable(transactions.get(paymentId)).map(t -> t.toBuilder().build());
+    }
+
+    private static PaymentTransaction merged(PaymentTransaction stored, PaymentTransaction update) {
+        return PaymentTransaction.builder()
+                .paymentId(stored.getPaymentId())
+                .organizationId(latest(stored.getOrganizationId(), update.getOrganizationId()))
+                .branchId(latest(stored.getBranchId(), update.getBranchId()))
+                .orderId(latest(stored.getOrderId(), update.getOrderId()))
+                .razorpayOrderId(latest(stored.getRazorpayOrderId(), update.getRazorpayOrderId()))
+                .sourceService(latest(stored.getSourceService(), update.getSourceService()))
+                .sourceInvoiceId(latest(stored.getSourceInvoiceId(), update.getSourceInvoiceId()))
+                .amount(latest(stored.getAmount(), update.getAmount()))
+                .currency(latest(stored.getCurrency(), update.getCurrency()))
+                .status(latest(stored.getStatus(), update.getStatus()))
+                .method(latest(stored.getMethod(), update.getMethod()))
+                .createdAt(latest(stored.getCreatedAt(), update.getCreatedAt()))
+                .updatedAt(latest(stored.getUpdatedAt(), update.getUpdatedAt()))
+                .build();
+    }
+
+    static <T> T latest(T stored, T update) {
+        return update != null ? update : stored;
+    }
+}
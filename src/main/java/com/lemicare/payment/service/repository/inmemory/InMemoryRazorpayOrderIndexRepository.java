@@ -0,0 +1,44 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.repository.RazorpayOrderIndexRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory razorpayOrderId index for the 'local' profile, tests and benchmarks.
+ */
+public class InMemoryRazorpayOrderIndexRepository implements RazorpayOrderIndexRepository {
+
+    private final ConcurrentMap<String, RazorpayOrderIndexEntry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(RazorpayOrderIndexEntry entry) {
+        entries.put(entry.getRazorpayOrderId(), entry.toBuilder().build());
+    }
+
+    @Override
+    public void saveAll(List<RazorpayOrderIndexEntry> entries) {
+        entries.forEach(this::save);
+    }
+
+    @Override
+    public Optional<RazorpayOrderIndexEntry> findByRazorpayOrderId(String razorpayOrderId) {
+        return Optional.ofNullable(entries.get(razorpayOrderId)).map(entry -> entry.toBuilder().build());
+    }
+
+    @Override
+    public Map<String, RazorpayOrderIndexEntry> findAllByRazorpayOrderIds(Collection<String> razorpayOrderIds) {
+        Map<String, RazorpayOrderIndexEntry> found = new HashMap<>();
+        for (String razorpayOrderId : razorpayOrderIds) {
+            findByRazorpayOrderId(razorpayOrderId).ifPresent(entry -> found.put(razorpayOrderId, entry));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,89 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.PaymentRefundSummary;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.lemicare.payment.service.repository.inmemory.InMemoryPaymentTransactionRepository.latest;
+
+/**
+ * In-memory refund records and per-payment refund summaries for the 'local' profile,
+ * tests and benchmarks. Records and summaries are updated together under one lock, as
+ * the Firestore implementation does in one transaction.
+ */
+public class InMemoryRefundRecordRepository implements RefundRecordRepository {
+
+    private final InMemoryPaymentTransactionRepository paymentTransactions;
+
+    // Guarded by this
+    private final Map<String, RefundRecord> records = new HashMap<>();
+    private final Map<String, PaymentRefundSummary> summaries = new HashMap<>();
+
+    public InMemoryRefundRecordRepository(InMemoryPaymentTransactionRepository paymentTransactions) {
+        this.paymentTransactions = paymentTransactions;
+    }
+
+    @Override
+    public void save(RefundRecord record) {
+        saveAll(List.of(record));
+    }
+
+    @Override
+    public synchronized void saveAll(List<RefundRecord> records) {
+        Timestamp now = Timestamp.now();
+        for (RefundRecord update : records) {
+            RefundRecord record = update.toBuilder().build();
+            if (record.getPaymentId() != null) {
+                PaymentRefundSummary summary = summaries.computeIfAbsent(record.getPaymentId(),
+                        paymentId -> PaymentRefundSummary.builder().paymentId(paymentId).build());
+                copyFromLedger(summary);
+                record.setStatus(summary.apply(record.getRefundId(), record.getAmount(), record.getStatus()));
+                if (summary.getOrganizationId() == null) {
+                    summary.setOrganizationId(record.getOrganizationId());
+                }
+                summary.setUpdatedAt(now);
+            }
+            this.records.merge(record.getRefundId(), record, InMemoryRefundRecordRepository::merged);
+        }
+    }
+
+    @Override
+    public synchronized Optional<PaymentRefundSummary> findSummaryByPaymentId(String paymentId) {
+        return Optional.ofNullable(summaries.get(paymentId)).map(summary -> summary.toBuilder()
+                .refundAmounts(new HashMap<>(summary.getRefundAmounts()))
+                .refundStatuses(new HashMap<>(summary.getRefundStatuses()))
+                .build());
+    }
+
+    private void copyFromLedger(PaymentRefundSummary summary) {
+        if (summary.getPaymentAmount() != null && summary.getOrganizationId() != null) {
+            return;
+        }
+        paymentTransactions.findByPaymentId(summary.getPaymentId()).ifPresent(payment -> {
+            summary.setPaymentAmount(latest(payment.getAmount(), summary.getPaymentAmount()));
+            summary.setOrganizationId(latest(payment.getOrganizationId(), summary.getOrganizationId()));
+        });
+    }
+
+    private static RefundRecord merged(RefundRecord stored, RefundRecord update) {
+        return RefundRecord.builder()
+                .refundId(stored.getRefundId())
+                .organizationId(latest(stored.getOrganizationId(), update.getOrganizationId()))
+                .paymentId(latest(stored.getPaymentId(), update.getPaymentId()))
+                .amount(latest(stored.getAmount(), update.getAmount()))
+                .currency(latest(stored.getCurrency(), update.getCurrency()))
+                .status(latest(stored.getStatus(), update.getStatus()))
+                .speed(latest(stored.getSpeed(), update.getSpeed()))
+                .reason(latest(stored.getReason(), update.getReason()))
+                .initiatedBy(latest(stored.getInitiatedBy(), update.getInitiatedBy()))
+                .createdAt(latest(stored.getCreatedAt(), update.getCreatedAt()))
+                .updatedAt(latest(stored.getUpdatedAt(), update.getUpdatedAt()))
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.lemicare.payment.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Converts the claims of each {@link Jwt} instance to authorities only once.
+ * <p>
+ * {@link CachingJwtDecoder} hands out the same {@code Jwt} for every request that carries
+ * the same token, so the authorities are remembered per instance (by identity, with weak
+ * keys) and dropped once the decoder has evicted that {@code Jwt}. Only the authorities are
+ * cached, not the authentication token: Spring Security sets per-request details on it.
+ */
+public class CachingJwtAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> delegate;
+    private final Cache<Jwt, Collection<GrantedAuthority>> authorities;
+
+    public CachingJwtAuthoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> delegate, long maxEntries) {
+        this.delegate = delegate;
+        this.authorities = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return authorities.get(jwt, key -> {
+            Collection<GrantedAuthority> converted = delegate.convert(key);
+            return converted == null ? List.of() : List.copyOf(converted);
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.lemicare.payment.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.lemicare.payment.service.util.ObjectPool;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens that have already been decoded and validated.
+ * <p>
+ * Calling services reuse the same bearer token for many requests, and each one would
+ * otherwise be parsed, HMAC-verified and converted to claims again. Verified tokens are
+ * kept under the SHA-256 of the token, so the cache does not hold the bearer tokens
+ * themselves, and only until {@code expiryMargin} before their {@code exp} (at most
+ * {@code maxTtl}). A token that is that close to expiry, or that fails validation, is never
+ * cached and goes to the delegate every time.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private record TokenHash(long a, long b, long c, long d) {}
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final JwtDecoder delegate;
+    private final Duration expiryMargin;
+    private final Duration maxTtl;
+    private final Cache<TokenHash, Jwt> verified;
+    // Pooled rather than per thread, which would create a digest per request on virtual threads.
+    private final ObjectPool<MessageDigest> sha256;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxEntries, Duration expiryMargin, Duration maxTtl) {
+        this.delegate = delegate;
+        this.expiryMargin = expiryMargin;
+        this.maxTtl = maxTtl;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<TokenHash, Jwt>writing((key, jwt) -> timeToLive(jwt)))
+                .build();
+        MessageDigest prototype = newSha256();
+        this.sha256 = new ObjectPool<>(ObjectPool.defaultCapacity(), () -> cloneOrCreate(prototype));
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            return delegate.decode(null);
+        }
+        TokenHash key = hash(token);
+        Jwt jwt = verified.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        if (timeToLive(jwt).isPositive()) {
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    private Duration timeToLive(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtl;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt.minus(expiryMargin));
+        return remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+    }
+
+    private TokenHash hash(String token) {
+        MessageDigest md = sha256.acquire();
+        byte[] digest = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        sha256.release(md); // digest() has reset it.
+        return new TokenHash((long) LONGS.get(digest, 0), (long) LONGS.get(digest, 8),
+                (long) LONGS.get(digest, 16), (long) LONGS.get(digest, 24));
+    }
+
+    private static MessageDigest cloneOrCreate(MessageDigest prototype) {
+        try {
+            return (MessageDigest) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newSha256();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -6,6 +6,17 @@ public final class SecurityUtils {
 
     private SecurityUtils() {}
 
+    /**
+     * Returns the whole tenant snapshot, e.g. to hand it to work running on another thread.
+     */
+    public static TenantContext.Tenant getTenant() {
+        TenantContext.Tenant tenant = TenantContext.current();
+        if (tenant == null) {
+            throw new SecurityException("Tenant not found in security context.");
+        }
+        return tenant;
+    }
+
     public static String getOrganizationId() {
         String orgId = TenantContext.getOrganizationId();
         if (orgId == null) {
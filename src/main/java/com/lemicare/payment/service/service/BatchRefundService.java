@@ -0,0 +1,141 @@
+package com.lemicare.payment.service.service;
+
+import com.lemicare.payment.service.context.TenantContext;
+import com.lemicare.payment.service.dto.request.CreateRefundRequestDto;
+import com.lemicare.payment.service.dto.response.BatchRefundItemResult;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
+import com.lemicare.payment.service.util.BatchingWriter;
+import com.lemicare.payment.service.util.NdjsonStream;
+import com.lemicare.payment.service.util.RateLimiter;
+import com.razorpay.Refund;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Initiates many refunds in one request.
+ * <p>
+ * Every refund goes through the same path as a single refund, guarded by an idempotency
+ * key derived from the batch's Idempotency-Key and the item's position, so re-sending a
+ * batch never repeats a refund, while one batch may hold several partial refunds of the
+ * same payment. A re-sent batch must list its items in the same order; an item that moved
+ * no longer matches its key's fingerprint and is reported as failed rather than refunded. Refund calls run in parallel on virtual threads, bounded
+ * both by a per-batch concurrency limit and by a rate limit shared by all batches, since
+ * Razorpay's rate limit applies to the whole account. Refund records are saved with
+ * batched Firestore writes, and each result is streamed back as a line of JSON.
+ */
+@Slf4j
+@Service
+public class BatchRefundService {
+
+    private final RefundService refundService;
+    private final RefundRecordRepository refundRecordRepository;
+    private final RateLimiter rateLimiter;
+    private final int concurrency;
+    private final int writeBatchSize;
+    private final long writeLingerMillis;
+    private final long timeoutSeconds;
+
+    public BatchRefundService(
+            RefundService refundService,
+            RefundRecordRepository refundRecordRepository,
+            @Value("${app.refunds.batch.rate-per-second:10}") double ratePerSecond,
+            @Value("${app.refunds.batch.concurrency:4}") int concurrency,
+            @Value("${app.refunds.batch.write-batch-size:100}") int writeBatchSize,
+            @Value("${app.refunds.batch.write-linger-ms:20}") long writeLingerMillis,
+            @Value("${app.refunds.batch.timeout-seconds:900}") long timeoutSeconds) {
+        this.refundService = refundService;
+        this.refundRecordRepository = refundRecordRepository;
+        this.rateLimiter = new RateLimiter(ratePerSecond);
+        this.concurrency = concurrency;
+        this.writeBatchSize = writeBatchSize;
+        this.writeLingerMillis = writeLingerMillis;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Starts initiating the refunds and returns the stream their results are written to.
+     *
+     * @param batchKey The batch's Idempotency-Key.
+     */
+    public ResponseBodyEmitter createRefunds(String orgId, String userId, String batchKey,
+                                             List<CreateRefundRequestDto> requests) {
+        NdjsonStream results = new NdjsonStream(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        Thread.ofVirtual().name("batch-refunds").start(TenantContext.wrap(() -> {
+            try {
+                run(orgId, userId, batchKey, requests, results::send);
+                results.complete();
+            } catch (RuntimeException e) {
+                log.error("Batch refund {} for organization {} failed", batchKey, orgId, e);
+                results.completeWithError(e);
+            }
+        }));
+        return results.emitter();
+    }
+
+    /**
+     * Initiates the refunds, handing each result to the sink as it completes, and returns
+     * once all are done and their records written.
+     */
+    void run(String orgId, String userId, String batchKey, List<CreateRefundRequestDto> requests,
+             Consumer<BatchRefundItemResult> results) {
+        Semaphore gatewayPermits = new Semaphore(concurrency);
+        try (BatchingWriter<RefundRecord> writer = new BatchingWriter<>("refund-record-writer", writeBatchSize,
+                writeLingerMillis, refundRecordRepository::saveAll);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Executor tenantExecutor = TenantContext.propagating(executor);
+            for (int i = 0; i < requests.size(); i++) {
+                int index = i;
+                CreateRefundRequestDto request = requests.get(i);
+                tenantExecutor.execute(() -> results.accept(refundOne(orgId, userId, batchKey, index, request, gatewayPermits, writer)));
+            }
+        }
+    }
+
+    private BatchRefundItemResult refundOne(String orgId, String userId, String batchKey, int index,
+                                            CreateRefundRequestDto request, Semaphore gatewayPermits,
+                                            BatchingWriter<RefundRecord> writer) {
+        boolean[] holdingPermit = {false};
+        try {
+            gatewayPermits.acquire();
+            holdingPermit[0] = true;
+            rateLimiter.acquire();
+            Refund refund = refundService.createRefund(orgId, userId, request, itemKey(batchKey, index), record -> {
+                // The Razorpay call is done; let the next refund start while this one waits for its batch.
+                gatewayPermits.release();
+                holdingPermit[0] = false;
+                writer.write(record);
+            });
+            return new BatchRefundItemResult(index, request.getPaymentId(), BatchRefundItemResult.CREATED,
+                    refund.get("id"), refund.has("status") ? refund.get("status") : null, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(index, request, "Interrupted before the refund was initiated.");
+        } catch (RuntimeException e) {
+            log.warn("Batch refund {} item {} for payment {} failed: {}", batchKey, index, request.getPaymentId(), e.getMessage());
+            return failed(index, request, e.getMessage());
+        } finally {
+            if (holdingPermit[0]) {
+                gatewayPermits.release();
+            }
+        }
+    }
+
+    private static String itemKey(String batchKey, int index) {
+        return batchKey + ":" + index;
+    }
+
+    private static BatchRefundItemResult failed(int index, CreateRefundRequestDto request, String error) {
+        return new BatchRefundItemResult(index, request.getPaymentId(), BatchRefundItemResult.FAILED, null, null, error);
+    }
+}
@@ -0,0 +1,166 @@
+package com.lemicare.payment.service.service;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.lemicare.payment.service.cache.RazorpayOrderIndex;
+import com.lemicare.payment.service.context.TenantContext;
+import com.lemicare.payment.service.dto.request.CreateOrderRequest;
+import com.lemicare.payment.service.dto.response.BulkCreateOrderItemResult;
+import com.lemicare.payment.service.dto.response.CreateOrderResponse;
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.repository.PaymentOrderBatchRepository;
+import com.lemicare.payment.service.util.BatchingWriter;
+import com.lemicare.payment.service.util.NdjsonStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Creates many payment orders in one request.
+ * <p>
+ * Every order goes through the same idempotent path as a single create-order, but:
+ * <ul>
+ *     <li>Razorpay calls fan out on virtual threads, with at most a configurable number in
+ *     flight per bulk request (on top of the tenant's bulkhead);</li>
+ *     <li>orders that finish close together are persisted as one group, the PaymentOrders
+ *     and their index entries each with a Firestore WriteBatch, retried with backoff;</li>
+ *     <li>each order's result is streamed back as a line of JSON as soon as it is persisted.</li>
+ * </ul>
+ * An order whose Razorpay order was created but whose PaymentOrder could not be saved is
+ * reported FAILED with that razorpayOrderId, and logged, so it can be reconciled.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkOrderService {
+
+    private final PaymentService paymentService;
+    private final PaymentOrderBatchRepository paymentOrderBatchRepository;
+    private final RazorpayOrderIndex razorpayOrderIndex;
+
+    @Value("${app.bulk-orders.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.bulk-orders.write-batch-size:100}")
+    private int writeBatchSize;
+
+    @Value("${app.bulk-orders.write-linger-ms:20}")
+    private long writeLingerMillis;
+
+    @Value("${app.bulk-orders.persist-attempts:3}")
+    private int persistAttempts;
+
+    @Value("${app.bulk-orders.persist-backoff-ms:200}")
+    private long persistBackoffMillis;
+
+    @Value("${app.bulk-orders.timeout-seconds:600}")
+    private long timeoutSeconds;
+
+    /**
+     * Starts creating the orders and returns the stream their results are written to.
+     */
+    public ResponseBodyEmitter createOrders(String orgId, String branchId, List<CreateOrderRequest> requests) {
+        NdjsonStream results = new NdjsonStream(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        Thread.ofVirtual().name("bulk-create-orders").start(TenantContext.wrap(() -> {
+            try {
+                run(orgId, branchId, requests, results::send);
+                results.complete();
+            } catch (RuntimeException e) {
+                log.error("Bulk order creation for organization {} failed", orgId, e);
+                results.completeWithError(e);
+            }
+        }));
+        return results.emitter();
+    }
+
+    void run(String orgId, String branchId, List<CreateOrderRequest> requests, Consumer<BulkCreateOrderItemResult> results) {
+        Semaphore gatewayPermits = new Semaphore(concurrency);
+        try (BatchingWriter<PaymentOrder> writer = new BatchingWriter<>("bulk-order-writer", writeBatchSize, writeLingerMillis, this::persist);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Executor tenantExecutor = TenantContext.propagating(executor);
+            for (int i = 0; i < requests.size(); i++) {
+                int index = i;
+                CreateOrderRequest request = requests.get(i);
+                tenantExecutor.execute(() -> results.accept(createOne(orgId, branchId, index, request, gatewayPermits, writer)));
+            }
+            // Closing the executor waits for every order; the writer is closed after it.
+        }
+    }
+
+    private BulkCreateOrderItemResult createOne(String orgId, String branchId, int index, CreateOrderRequest request,
+                                                Semaphore gatewayPermits, BatchingWriter<PaymentOrder> writer) {
+        boolean[] holdingPermit = {false};
+        // Set once Razorpay created the order, cleared once its PaymentOrder is saved.
+        PaymentOrder[] unsaved = {null};
+        try {
+            gatewayPermits.acquire();
+            holdingPermit[0] = true;
+            CreateOrderResponse response = paymentService.createOrder(orgId, branchId, request, null, order -> {
+                // The Razorpay call is done; let the next order start while this one waits for its batch.
+                gatewayPermits.release();
+                holdingPermit[0] = false;
+                unsaved[0] = order;
+                writer.write(order);
+                unsaved[0] = null;
+            });
+            return new BulkCreateOrderItemResult(index, request.getSourceInvoiceId(), BulkCreateOrderItemResult.CREATED,
+                    response, null, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(index, request, "Interrupted before the order was created.", null);
+        } catch (RuntimeException e) {
+            if (unsaved[0] != null) {
+                log.error("Bulk order {} for invoice {}: Razorpay order {} was created but PaymentOrder {} could not be saved",
+                        index, request.getSourceInvoiceId(), unsaved[0].getRazorpayOrderId(), unsaved[0].getOrderId(), e);
+                return failed(index, request, "The order could not be saved: " + e.getMessage(), unsaved[0].getRazorpayOrderId());
+            }
+            log.warn("Bulk order {} for invoice {} failed: {}", index, request.getSourceInvoiceId(), e.getMessage());
+            return failed(index, request, e.getMessage(), null);
+        } finally {
+            if (holdingPermit[0]) {
+                gatewayPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Saves a batch of orders with their index entries. Both writes are idempotent sets, so a
+     * failed attempt is simply repeated, with exponential backoff.
+     */
+    private void persist(List<PaymentOrder> orders) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                paymentOrderBatchRepository.saveAll(orders);
+                razorpayOrderIndex.registerAll(orders.stream().map(RazorpayOrderIndexEntry::from).toList());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= persistAttempts) {
+                    throw e;
+                }
+                log.warn("Saving {} bulk orders failed (attempt {} of {}): {}", orders.size(), attempt, persistAttempts,
+                        e.getMessage());
+                try {
+                    Thread.sleep(persistBackoffMillis << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static BulkCreateOrderItemResult failed(int index, CreateOrderRequest request, String error,
+                                                    String razorpayOrderId) {
+        return new BulkCreateOrderItemResult(index, request.getSourceInvoiceId(), BulkCreateOrderItemResult.FAILED,
+                null, error, razorpayOrderId);
+    }
+}
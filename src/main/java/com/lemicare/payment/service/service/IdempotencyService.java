@@ -0,0 +1,239 @@
+package com.lemicare.payment.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.exception.IdempotencyConflictException;
+import com.lemicare.payment.service.model.IdempotencyRecord;
+import com.lemicare.payment.service.repository.IdempotencyRecordRepository;
+import com.lemicare.payment.service.util.StripedLocks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes create-order and refund requests safe to retry.
+ * <p>
+ * A request is identified by its tenant, its operation and a client key. The first request
+ * with a key runs; later requests with the same key receive the stored response without
+ * another Razorpay call or Firestore write. Records live in two tiers:
+ * <ul>
+ *     <li>a hot in-memory tier of completed responses, checked and claimed under striped
+ *     locks so that concurrent retries on this instance make one claim between them;</li>
+ *     <li>a durable Firestore tier, whose transactional claim keeps instances from
+ *     running the same request twice.</li>
+ * </ul>
+ * The hot tier only absorbs bursts of retries: its entries live for a short TTL, far below
+ * the retention window, after which a retry is answered from Firestore again. That TTL
+ * also bounds how long another instance may go on replaying a key after {@link #forget}.
+ * A key reused with different request parameters, or retried while the first request is
+ * still running on this or another instance, is rejected with {@link IdempotencyConflictException}.
+ * If the request fails, its claim is released so the client can retry it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${app.idempotency.in-progress-timeout-seconds:60}")
+    private long inProgressTimeoutSeconds;
+
+    @Value("${app.idempotency.hot-max-entries:10000}")
+    private long hotMaxEntries;
+
+    @Value("${app.idempotency.hot-ttl-seconds:60}")
+    private long hotTtlSeconds;
+
+    @Value("${app.idempotency.lock-stripes:1024}")
+    private int lockStripes;
+
+    private Cache<String, IdempotencyRecord> completed;
+    private StripedLocks locks;
+    Ticker ticker = Ticker.systemTicker();
+
+    @PostConstruct
+    void init() {
+        completed = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.min(hotTtlSeconds, Duration.ofHours(retentionHours).toSeconds())))
+                .maximumSize(hotMaxEntries)
+                .ticker(ticker)
+                .build();
+        locks = new StripedLocks(lockStripes);
+    }
+
+    /**
+     * Runs the action once per key, serializing its response as JSON.
+     *
+     * @param fingerprint A hash of the request parameters, see {@link #fingerprint(Object...)}.
+     */
+    public <T> T execute(String orgId, String operation, String clientKey, String fingerprint,
+                         Class<T> responseType, Supplier<T> action) {
+        return execute(orgId, operation, clientKey, fingerprint, this::toJson, json -> fromJson(json, responseType), action);
+    }
+
+    /**
+     * Runs the action once per key, using the given functions to store and replay its response.
+     */
+    public <T> T execute(String orgId, String operation, String clientKey, String fingerprint,
+                         Function<T, String> serializer, Function<String, T> deserializer, Supplier<T> action) {
+        String key = recordKey(orgId, operation, clientKey);
+
+        IdempotencyRecord hit = completed.getIfPresent(key);
+        if (hit != null) {
+            return replay(hit, fingerprint, deserializer);
+        }
+
+        IdempotencyRecord record;
+        // The lock covers the hot-tier check and the claim only, never the action: a retry
+        // that arrives while the first request runs finds its claim and gets a conflict,
+        // as it would on another instance, instead of parking a thread on the lock.
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            hit = completed.getIfPresent(key);
+            if (hit != null) {
+                return replay(hit, fingerprint, deserializer);
+            }
+
+            Timestamp now = Timestamp.now();
+            record = IdempotencyRecord.builder()
+                    .key(key)
+                    .organizationId(orgId)
+                    .operation(operation)
+                    .fingerprint(fingerprint)
+                    .status(IdempotencyRecord.STATUS_IN_PROGRESS)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .expiresAt(plusSeconds(now, Duration.ofHours(retentionHours).toSeconds()))
+                    .build();
+            Optional<IdempotencyRecord> existing =
+                    idempotencyRecordRepository.claim(record, plusSeconds(now, -inProgressTimeoutSeconds));
+            if (existing.isPresent()) {
+                IdempotencyRecord other = existing.get();
+                if (!IdempotencyRecord.STATUS_COMPLETED.equals(other.getStatus())) {
+                    throw new IdempotencyConflictException("A request with this idempotency key is still being processed.");
+                }
+                completed.put(key, other);
+                return replay(other, fingerprint, deserializer);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+
+        record.setStatus(IdempotencyRecord.STATUS_COMPLETED);
+        record.setResponse(serializer.apply(result));
+        record.setUpdatedAt(Timestamp.now());
+        completed.put(key, record);
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (RuntimeException e) {
+            // The outbound call has already succeeded, so the caller gets its response.
+            // Retries reaching this instance are still covered by the hot tier.
+            log.error("Failed to persist idempotency record for {} {}", operation, key, e);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the stored response for a key, so the next request with it runs again
+     * (e.g. after the order it created was cancelled). Other instances may still replay
+     * it from their hot tier for up to its TTL.
+     */
+    public void forget(String orgId, String operation, String clientKey) {
+        String key = recordKey(orgId, operation, clientKey);
+        completed.invalidate(key);
+        idempotencyRecordRepository.delete(key);
+    }
+
+    /**
+     * Hashes request parameters into a fingerprint that changes when any of them does.
+     */
+    public static String fingerprint(Object... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (Object part : parts) {
+            // A separator that cannot appear in the parts keeps ("a", "bc") apart from ("ab", "c").
+            joined.append(Objects.toString(part, "")).append('\u0000');
+        }
+        return sha256(joined.toString());
+    }
+
+    private <T> T replay(IdempotencyRecord record, String fingerprint, Function<String, T> deserializer) {
+        if (!Objects.equals(record.getFingerprint(), fingerprint)) {
+            throw new IdempotencyConflictException("The idempotency key was already used for a different request.");
+        }
+        return deserializer.apply(record.getResponse());
+    }
+
+    private void release(String key) {
+        try {
+            idempotencyRecordRepository.delete(key);
+        } catch (RuntimeException e) {
+            // The claim goes stale after the in-progress timeout and is then taken over.
+            log.warn("Failed to release idempotency record {}", key, e);
+        }
+    }
+
+    private static String recordKey(String orgId, String operation, String clientKey) {
+        // Client keys may contain '/', which Firestore does not allow in document IDs.
+        return sha256(orgId + '\u0000' + operation + '\u0000' + clientKey);
+    }
+
+    private static Timestamp plusSeconds(Timestamp timestamp, long seconds) {
+        return Timestamp.ofTimeSecondsAndNanos(timestamp.getSeconds() + seconds, timestamp.getNanos());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize an idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read a stored idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.lemicare.payment.service.service;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+import com.lemicare.payment.service.repository.PaymentOrderStateRepository;
+import com.lemicare.payment.service.util.StripedLocks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies payment order status transitions: CREATED, then PAID, FAILED or CANCELLED.
+ * <p>
+ * The verify call, webhooks and cancellation may race on one order. Each transition reads
+ * the order with its document's update time and writes the new status only if the document
+ * is unchanged (a Firestore precondition), together with the outbox event, re-reading and
+ * re-checking on a lost race, so the last write no longer wins blindly. Within this
+ * instance, transitions of the same order are serialized by striped locks, so they do not
+ * race each other into failed preconditions.
+ * A transition to the status the order already has, or one the state machine does not
+ * allow, changes nothing and writes nothing. Every write is a field-masked
+ * {@link PaymentOrderPatch} of the fields the transition changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    public static final String CREATED = "CREATED";
+    public static final String PAID = "PAID";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private static final Map<String, Set<String>> ALLOWED = Map.of(
+            CREATED, Set.of(PAID, FAILED, CANCELLED),
+            PAID, Set.of(),
+            FAILED, Set.of(),
+            CANCELLED, Set.of());
+
+    public enum Outcome {
+        /** The order moved to the new status. */
+        APPLIED,
+        /** The order already had the new status. */
+        DUPLICATE,
+        /** The state machine does not allow the transition from the order's status. */
+        ILLEGAL,
+        NOT_FOUND
+    }
+
+    /**
+     * @param order The order after the transition, or as found if it was not applied; null if NOT_FOUND.
+     */
+    public record Result(Outcome outcome, PaymentOrder order) {
+
+        public boolean applied() {
+            return outcome == Outcome.APPLIED;
+        }
+    }
+
+    private final PaymentOrderStateRepository paymentOrderStateRepository;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Value("${app.order-state.lock-stripes:1024}")
+    private int lockStripes;
+
+    @Value("${app.order-state.max-attempts:5}")
+    private int maxAttempts;
+
+    private StripedLocks locks;
+
+    @PostConstruct
+    void init() {
+        locks = new StripedLocks(lockStripes);
+    }
+
+    public static boolean isAllowed(String from, String to) {
+        return ALLOWED.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    /**
+     * Moves an order to a new status.
+     *
+     * @param changes   Further changes to make with the transition (e.g. the payment ID), or null.
+     * @param eventType The event to add to the outbox with the transition, or null for none.
+     *                  Orders without a sourceService emit no events.
+     * @throws IllegalStateException if the order keeps changing under every attempt.
+     */
+    public Result transition(String orgId, String branchId, String orderId, String targetStatus,
+                             Consumer<PaymentOrder> changes, String eventType) {
+        Lock lock = locks.get(orgId + '/' + branchId + '/' + orderId);
+        lock.lock();
+        try {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                Optional<PaymentOrderStateRepository.VersionedOrder> current =
+                        paymentOrderStateRepository.findVersionedById(orgId, branchId, orderId);
+                if (current.isEmpty()) {
+                    return new Result(Outcome.NOT_FOUND, null);
+                }
+                PaymentOrder order = current.get().order();
+                if (targetStatus.equals(order.getStatus())) {
+                    return new Result(Outcome.DUPLICATE, order);
+                }
+                if (!isAllowed(order.getStatus(), targetStatus)) {
+                    return new Result(Outcome.ILLEGAL, order);
+                }
+
+                order.setStatus(targetStatus);
+                order.setUpdatedAt(Timestamp.now());
+                if (changes != null) {
+                    changes.accept(order);
+                }
+                OutboxEvent event = eventType != null && order.getSourceService() != null
+                        ? OutboxEvent.forOrder(eventType, order)
+                        : null;
+                if (paymentOrderStateRepository.compareAndSet(PaymentOrderPatch.statusOf(order), current.get().updateTime(), event)) {
+                    if (event != null) {
+                        outboxDispatcher.wake();
+                    }
+                    return new Result(Outcome.APPLIED, order);
+                }
+                // Another instance wrote the order since we read it; look again.
+                log.debug("Order {} changed during transition to {}, attempt {}", orderId, targetStatus, attempt);
+            }
+            throw new IllegalStateException("Order " + orderId + " kept changing during its transition to " + targetStatus + ".");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes further fields of an order without changing its status, with the same
+     * precondition and locking as transitions, so it cannot overwrite one.
+     *
+     * @param patchFor Decides from the current order what to write; returns null to write nothing.
+     * @return Whether a patch was written; false if the order does not exist or needed none.
+     * @throws IllegalStateException if the order keeps changing under every attempt.
+     */
+    public boolean amend(String orgId, String branchId, String orderId, Function<PaymentOrder, PaymentOrderPatch> patchFor) {
+        Lock lock = locks.get(orgId + '/' + branchId + '/' + orderId);
+        lock.lock();
+        try {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                Optional<PaymentOrderStateRepository.VersionedOrder> current =
+                        paymentOrderStateRepository.findVersionedById(orgId, branchId, orderId);
+                if (current.isEmpty()) {
+                    return false;
+                }
+                PaymentOrderPatch patch = patchFor.apply(current.get().order());
+                if (patch == null) {
+                    return false;
+                }
+                if (patch.getStatus() != null) {
+                    throw new IllegalArgumentException("Status changes of order " + orderId + " are transitions.");
+                }
+                if (paymentOrderStateRepository.compareAndSet(patch, current.get().updateTime(), null)) {
+                    return true;
+                }
+                log.debug("Order {} changed during an update, attempt {}", orderId, attempt);
+            }
+            throw new IllegalStateException("Order " + orderId + " kept changing during an update.");
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.lemicare.payment.service.service;
+
+import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe of order status changes.
+ * <p>
+ * Subscribers are plain callbacks held in a map, so an idle subscriber costs a map entry
+ * rather than a thread. Listeners run on the publishing thread and must not block.
+ */
+@Slf4j
+@Component
+public class OrderStatusHub {
+
+    public record OrderKey(String orgId, String branchId, String orderId) {}
+
+    /**
+     * Cancels a subscription. Calling it more than once is harmless.
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final ConcurrentMap<OrderKey, Set<Consumer<PaymentOrderStatusResponse>>> listeners = new ConcurrentHashMap<>();
+
+    public Subscription subscribe(OrderKey key, Consumer<PaymentOrderStatusResponse> listener) {
+        // compute() rather than computeIfAbsent().add(), so a concurrent cancel that empties
+        // and removes the set cannot drop this listener.
+        listeners.compute(key, (k, set) -> {
+            Set<Consumer<PaymentOrderStatusResponse>> subscribers = set != null ? set : new CopyOnWriteArraySet<>();
+            subscribers.add(listener);
+            return subscribers;
+        });
+        return () -> listeners.computeIfPresent(key, (k, set) -> {
+            set.remove(listener);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public void publish(OrderKey key, PaymentOrderStatusResponse status) {
+        Set<Consumer<PaymentOrderStatusResponse>> subscribers = listeners.get(key);
+        if (subscribers == null) {
+            return;
+        }
+        for (Consumer<PaymentOrderStatusResponse> listener : subscribers) {
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.warn("Order status listener for {} failed", key.orderId(), e);
+            }
+        }
+    }
+
+    /**
+     * The orders that currently have at least one subscriber.
+     */
+    public Set<OrderKey> subscribedOrders() {
+        return Set.copyOf(listeners.keySet());
+    }
+
+    public int subscriberCount() {
+        return listeners.values().stream().mapToInt(Set::size).sum();
+    }
+}
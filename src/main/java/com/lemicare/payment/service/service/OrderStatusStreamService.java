@@ -0,0 +1,216 @@
+package com.lemicare.payment.service.service;
+
+import com.lemicare.payment.service.cache.OrderStatusCache;
+import com.lemicare.payment.service.dto.response.BatchOrderStatusResponse;
+import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import com.lemicare.payment.service.service.OrderStatusHub.OrderKey;
+import com.lemicare.payment.service.service.OrderStatusHub.Subscription;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes order status changes to checkout pages, instead of having them poll.
+ * <p>
+ * Both the Server-Sent Events stream and the long-poll use asynchronous servlet requests,
+ * so a waiting client holds a connection and an {@link OrderStatusHub} subscription but no
+ * thread. Status changes made on this instance are pushed immediately, each stream sending
+ * on its own virtual thread so that a slow client never holds up the publisher. Changes made on
+ * another instance are picked up by a single background re-check of the subscribed orders,
+ * which looks them up in batches per organization and branch through the order status
+ * cache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStatusStreamService {
+
+    // The most orders one status batch lookup accepts.
+    private static final int RECHECK_BATCH_SIZE = 500;
+
+    private final PaymentService paymentService;
+    private final OrderStatusHub orderStatusHub;
+
+    @Value("${app.order-status.push.stream-timeout-seconds:300}")
+    private long streamTimeoutSeconds;
+
+    @Value("${app.order-status.push.long-poll-timeout-seconds:30}")
+    private long longPollTimeoutSeconds;
+
+    @Value("${app.order-status.push.recheck-seconds:5}")
+    private long recheckSeconds;
+
+    private ScheduledExecutorService recheckExecutor;
+
+    @PostConstruct
+    void start() {
+        recheckExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("order-status-recheck").factory());
+        recheckExecutor.scheduleWithFixedDelay(this::recheckSubscribedOrders, recheckSeconds, recheckSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        recheckExecutor.shutdownNow();
+    }
+
+    /**
+     * Opens an SSE stream that sends the current status, then every change, and completes
+     * once the order reaches a terminal state.
+     */
+    public SseEmitter stream(String orgId, String branchId, String orderId) {
+        return open(new OrderKey(orgId, branchId, orderId), new SseEmitter(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds)));
+    }
+
+    SseEmitter open(OrderKey key, SseEmitter emitter) {
+        StatusStream stream = new StatusStream(emitter);
+
+        // Subscribe before reading, so a change in between is not missed.
+        Subscription subscription = orderStatusHub.subscribe(key, stream::offer);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscription.cancel());
+        try {
+            stream.offer(paymentService.getOrderStatus(key.orgId(), key.branchId(), key.orderId()));
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Long-poll: answers as soon as the order's status differs from {@code knownStatus}
+     * (immediately if it already does, or if no status is given), or with the unchanged
+     * status once the timeout elapses.
+     */
+    public DeferredResult<PaymentOrderStatusResponse> awaitChange(String orgId, String branchId, String orderId,
+                                                                  String knownStatus) {
+        OrderKey key = new OrderKey(orgId, branchId, orderId);
+        DeferredResult<PaymentOrderStatusResponse> result = new DeferredResult<>(TimeUnit.SECONDS.toMillis(longPollTimeoutSeconds));
+
+        Subscription subscription = orderStatusHub.subscribe(key, status -> {
+            if (!Objects.equals(status.getStatus(), knownStatus)) {
+                result.setResult(status);
+            }
+        });
+        result.onCompletion(subscription::cancel);
+
+        PaymentOrderStatusResponse current;
+        try {
+            current = paymentService.getOrderStatus(orgId, branchId, orderId);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        if (knownStatus == null || !knownStatus.equals(current.getStatus())) {
+            result.setResult(current);
+        } else {
+            result.onTimeout(() -> result.setResult(current));
+        }
+        return result;
+    }
+
+    /**
+     * Re-reads the subscribed orders with one batch lookup per organization and branch,
+     * rather than one lookup per order.
+     */
+    void recheckSubscribedOrders() {
+        Map<Tenant, List<String>> orderIdsByTenant = orderStatusHub.subscribedOrders().stream()
+                .collect(Collectors.groupingBy(key -> new Tenant(key.orgId(), key.branchId()),
+                        Collectors.mapping(OrderKey::orderId, Collectors.toList())));
+        orderIdsByTenant.forEach((tenant, orderIds) -> {
+            for (int from = 0; from < orderIds.size(); from += RECHECK_BATCH_SIZE) {
+                List<String> batch = orderIds.subList(from, Math.min(from + RECHECK_BATCH_SIZE, orderIds.size()));
+                try {
+                    BatchOrderStatusResponse statuses = paymentService.getOrderStatuses(tenant.orgId(), tenant.branchId(), batch);
+                    for (PaymentOrderStatusResponse status : statuses.getOrders()) {
+                        orderStatusHub.publish(new OrderKey(tenant.orgId(), tenant.branchId(), status.getOrderId()), status);
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Could not re-check status of {} orders of organization {}: {}",
+                            batch.size(), tenant.orgId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private record Tenant(String orgId, String branchId) {}
+
+    /**
+     * Sends each distinct status once and closes the stream on a terminal status.
+     * <p>
+     * {@link #offer} never blocks: it leaves the status in a single pending slot and the
+     * sending happens on a virtual thread, started while there is something to send. A
+     * status offered while an earlier one is still pending replaces it, except that a
+     * terminal status is never replaced, so a client that reads slowly gets the latest
+     * status rather than a growing backlog.
+     */
+    private static final class StatusStream {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<PaymentOrderStatusResponse> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Only touched by the sending thread; the sending flag orders successive senders.
+        private String lastStatus;
+        private boolean closed;
+
+        StatusStream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(PaymentOrderStatusResponse status) {
+            pending.accumulateAndGet(status, (current, next) ->
+                    current != null && OrderStatusCache.isTerminal(current.getStatus()) ? current : next);
+            if (sending.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("order-status-sse").start(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                PaymentOrderStatusResponse status;
+                while ((status = pending.getAndSet(null)) != null) {
+                    send(status);
+                }
+                sending.set(false);
+                // An offer between the last poll and the reset found sending still set; pick it up.
+            } while (pending.get() != null && sending.compareAndSet(false, true));
+        }
+
+        private void send(PaymentOrderStatusResponse status) {
+            if (closed || Objects.equals(lastStatus, status.getStatus())) {
+                return;
+            }
+            lastStatus = status.getStatus();
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON));
+                if (OrderStatusCache.isTerminal(status.getStatus())) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the emitter already timed out.
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.lemicare.payment.service.service;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.event.PaymentEvent;
+import com.lemicare.payment.service.event.PaymentEventTransport;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.repository.OutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the payment events in the outbox to the services that requested the payments.
+ * <p>
+ * One dispatcher thread claims due events in batches, leasing them so other instances
+ * leave them alone, groups them by destination and hands each group to the
+ * {@link PaymentEventTransport} on a virtual thread. Each destination has its own
+ * backpressure:
+ * <ul>
+ *     <li>at most a configurable number of batches are in flight to it; events beyond
+ *     that are put back for the next round;</li>
+ *     <li>after a failed delivery it is paused with exponential backoff, so one service
+ *     being down does not slow delivery to the others.</li>
+ * </ul>
+ * Failed events are retried with backoff and given up (FAILED) after the maximum number
+ * of attempts. New events wake the dispatcher up, so delivery does not wait for the poll.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    private final OutboxRepository outboxRepository;
+    private final PaymentEventTransport transport;
+
+    @Value("${app.events.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.events.dispatcher.poll-interval-ms:2000}")
+    private long pollIntervalMillis;
+
+    @Value("${app.events.dispatcher.claim-batch-size:200}")
+    private int claimBatchSize;
+
+    @Value("${app.events.dispatcher.delivery-batch-size:50}")
+    private int deliveryBatchSize;
+
+    @Value("${app.events.dispatcher.max-in-flight-per-destination:2}")
+    private int maxInFlightPerDestination;
+
+    @Value("${app.events.dispatcher.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.events.dispatcher.max-attempts:12}")
+    private int maxAttempts;
+
+    @Value("${app.events.dispatcher.base-backoff-ms:1000}")
+    private long baseBackoffMillis;
+
+    @Value("${app.events.dispatcher.max-backoff-ms:300000}")
+    private long maxBackoffMillis;
+
+    @Value("${app.events.dispatcher.retention-hours:72}")
+    private long retentionHours;
+
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    /**
+     * Delivery state of one destination service.
+     */
+    private static final class Destination {
+        final String name;
+        final Semaphore inFlight;
+        private int consecutiveFailures;
+        private long pausedUntilMillis;
+
+        Destination(String name, int maxInFlight) {
+            this.name = name;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        synchronized long pausedUntil() {
+            return pausedUntilMillis;
+        }
+
+        synchronized void succeeded() {
+            consecutiveFailures = 0;
+            pausedUntilMillis = 0;
+        }
+
+        /**
+         * @return The number of failures in a row, including this one.
+         */
+        synchronized int failed() {
+            return ++consecutiveFailures;
+        }
+
+        synchronized void pauseUntil(long millis) {
+            pausedUntilMillis = millis;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        dispatcher = Thread.ofPlatform().daemon().name("outbox-dispatcher").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wake();
+        if (dispatcher != null) {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        deliveries.shutdown();
+        if (!deliveries.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Their leases run out and another instance delivers them.
+            log.warn("Shutting down with payment event deliveries still in flight");
+        }
+    }
+
+    /**
+     * Asks the dispatcher to look for due events now instead of at the next poll.
+     */
+    public void wake() {
+        wakeUps.release();
+    }
+
+    private void run() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchDue();
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch payment events", e);
+            }
+            if (claimed >= claimBatchSize) {
+                continue; // There may be more due right away.
+            }
+            try {
+                wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int dispatchDue() {
+        long now = System.currentTimeMillis();
+        List<OutboxEvent> due = outboxRepository.claimDue(timestamp(now),
+                timestamp(now + TimeUnit.SECONDS.toMillis(leaseSeconds)), claimBatchSize);
+
+        Map<String, List<OutboxEvent>> byDestination = new LinkedHashMap<>();
+        for (OutboxEvent event : due) {
+            byDestination.computeIfAbsent(event.getDestination(), key -> new ArrayList<>()).add(event);
+        }
+
+        List<OutboxEvent> deferred = new ArrayList<>();
+        for (Map.Entry<String, List<OutboxEvent>> group : byDestination.entrySet()) {
+            Destination destination = destinations.computeIfAbsent(group.getKey(),
+                    name -> new Destination(name, maxInFlightPerDestination));
+            long pausedUntil = destination.pausedUntil();
+            if (pausedUntil > now) {
+                deferred.addAll(reschedule(group.getValue(), pausedUntil));
+                continue;
+            }
+            List<OutboxEvent> events = group.getValue();
+            for (int start = 0; start < events.size(); start += deliveryBatchSize) {
+                List<OutboxEvent> batch = events.subList(start, Math.min(start + deliveryBatchSize, events.size()));
+                if (!destination.inFlight.tryAcquire()) {
+                    deferred.addAll(reschedule(batch, now + pollIntervalMillis));
+                    continue;
+                }
+                deliveries.execute(() -> deliver(destination, batch));
+            }
+        }
+        if (!deferred.isEmpty()) {
+            outboxRepository.saveAll(deferred);
+        }
+        return due.size();
+    }
+
+    private void deliver(Destination destination, List<OutboxEvent> batch) {
+        try {
+            long now = System.currentTimeMillis();
+            try {
+                transport.deliver(destination.name, batch.stream().map(PaymentEvent::from).toList());
+                destination.succeeded();
+                for (OutboxEvent event : batch) {
+                    event.setAttempts(event.getAttempts() + 1);
+                    event.setStatus(OutboxEvent.STATUS_DELIVERED);
+                    event.setDeliveredAt(timestamp(now));
+                    event.setLastError(null);
+                    event.setExpiresAt(timestamp(now + TimeUnit.HOURS.toMillis(retentionHours)));
+                }
+            } catch (RuntimeException e) {
+                destination.pauseUntil(now + backoffMillis(destination.failed()));
+                log.warn("Failed to deliver {} payment events to {}: {}", batch.size(), destination.name, e.getMessage());
+                for (OutboxEvent event : batch) {
+                    retryOrGiveUp(event, e.getMessage(), now);
+                }
+            }
+            outboxRepository.saveAll(batch);
+        } catch (RuntimeException e) {
+            // The lease runs out and the batch is delivered again.
+            log.error("Failed to record the delivery state of {} payment events to {}", batch.size(), destination.name, e);
+        } finally {
+            destination.inFlight.release();
+        }
+    }
+
+    private void retryOrGiveUp(OutboxEvent event, String error, long now) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(OutboxEvent.STATUS_FAILED);
+            event.setExpiresAt(timestamp(now + TimeUnit.HOURS.toMillis(retentionHours)));
+            log.error("Giving up on {} event {} for {} after {} attempts", event.getEventType(), event.getEventId(),
+                    event.getDestination(), event.getAttempts());
+        } else {
+            event.setNextAttemptAt(timestamp(now + backoffMillis(event.getAttempts())));
+        }
+    }
+
+    private static List<OutboxEvent> reschedule(List<OutboxEvent> events, long atMillis) {
+        events.forEach(event -> event.setNextAttemptAt(timestamp(atMillis)));
+        return events;
+    }
+
+    /**
+     * Exponential backoff with jitter: between half and all of the capped exponential delay.
+     */
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    private static Timestamp timestamp(long epochMillis) {
+        return Timestamp.ofTimeMicroseconds(TimeUnit.MILLISECONDS.toMicros(epochMillis));
+    }
+}
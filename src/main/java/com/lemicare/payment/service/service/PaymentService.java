@@ -5,18 +5,38 @@ import com.cosmicdoc.common.model.PaymentOrder;
 import com.cosmicdoc.common.repository.PaymentOrderRepository;
 import com.cosmicdoc.common.util.IdGenerator;
 import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.cache.OrderStatusCache;
+import com.lemicare.payment.service.cache.RazorpayEntityCache;
+import com.lemicare.payment.service.cache.RazorpayOrderIndex;
 import com.lemicare.payment.service.dto.request.CreateOrderRequest;
 import com.lemicare.payment.service.dto.request.VerifySignatureRequest;
+import com.lemicare.payment.service.dto.response.BatchOrderStatusResponse;
 import com.lemicare.payment.service.dto.response.CreateOrderResponse;
 import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import com.lemicare.payment.service.dto.response.PaymentTransactionResponse;
+import com.lemicare.payment.service.dto.response.TransactionPageResponse;
+import com.lemicare.payment.service.event.PaymentEvent;
+import com.lemicare.payment.service.exception.PaymentGatewayException;
 import com.lemicare.payment.service.exception.ResourceNotFoundException;
+import com.lemicare.payment.service.gateway.RazorpayFailure;
+import com.lemicare.payment.service.gateway.RazorpayGateway;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.PaymentOrderBatchRepository;
+import com.lemicare.payment.service.repository.PaymentTransactionRepository;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
 import com.lemicare.payment.service.util.SignatureVerifier;
+import com.lemicare.payment.service.util.SingleFlight;
+import com.lemicare.payment.service.webhook.RazorpayWebhookEvent;
 import com.razorpay.Order;
 import com.razorpay.Payment;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,35 +44,89 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
-    private final RazorpayClient razorpayClient;
+    static final String CREATE_ORDER_OPERATION = "create-order";
+
+    private final RazorpayGateway razorpayGateway;
     @Value("${razorpay.key-id}")
     private String keyId;
     @Value("${razorpay.key-secret}")
     private String keySecret;
-    @Value("${razorpay.webhook-secret}")
-    private String webhookSecret;
 
     private final PaymentOrderRepository paymentOrderRepository;
-    // private final PaymentEventPublisher eventPublisher; // For Kafka/RabbitMQ
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final PaymentOrderBatchRepository paymentOrderBatchRepository;
+    private final RefundRecordRepository refundRecordRepository;
+    private final OrderStateMachine orderStateMachine;
+    private final RazorpayEntityCache razorpayEntityCache;
+    private final RazorpayOrderIndex razorpayOrderIndex;
+    private final OrderStatusCache orderStatusCache;
+    private final OrderStatusHub orderStatusHub;
+    private final IdempotencyService idempotencyService;
+    // Concurrent fetches of the same payment share a single Razorpay call. Keyed by organization
+    // and payment ID, so one tenant never receives a payment fetched with another's credentials.
+    private final SingleFlight<String, Payment> paymentFetches = new SingleFlight<>();
+
+    /**
+     * Creates a Razorpay order and our PaymentOrder for it.
+     * <p>
+     * Retries are idempotent: requests with the same Idempotency-Key header, or without one
+     * but for the same source invoice, return the first response without another Razorpay call.
+     *
+     * @param idempotencyKey The client's Idempotency-Key header, or null.
+     */
+    public CreateOrderResponse createOrder(String orgId, String branchId, @Valid CreateOrderRequest request,
+                                           String idempotencyKey) {
+        return createOrder(orgId, branchId, request, idempotencyKey, this::persistOrder);
+    }
+
+    /**
+     * Creates an order, handing the new PaymentOrder to the given persister instead of
+     * saving it directly. Used by {@link BulkOrderService} to group the writes of many orders.
+     * The persister must also index the order, see {@link RazorpayOrderIndexEntry#from}.
+     */
+    CreateOrderResponse createOrder(String orgId, String branchId, CreateOrderRequest request, String idempotencyKey,
+                                    Consumer<PaymentOrder> persister) {
+        String clientKey = idempotencyKey != null ? idempotencyKey : invoiceKey(request.getSourceService(), request.getSourceInvoiceId());
+        String fingerprint = IdempotencyService.fingerprint(branchId, request.getSourceService(),
+                request.getSourceInvoiceId(), request.getAmount(), request.getCurrency());
+        return idempotencyService.execute(orgId, CREATE_ORDER_OPERATION, clientKey, fingerprint,
+                CreateOrderResponse.class, () -> doCreateOrder(orgId, branchId, request, persister));
+    }
 
-    public CreateOrderResponse createOrder(String orgId,String branchId, @Valid CreateOrderRequest request) {
+    private CreateOrderResponse doCreateOrder(String orgId, String branchId, CreateOrderRequest request,
+                                              Consumer<PaymentOrder> persister) {
         try {
             JSONObject orderRequest = new JSONObject();
             orderRequest.put("amount", (int) (request.getAmount() * 100)); // Amount in paise
             orderRequest.put("currency", "INR");
             orderRequest.put("receipt", request.getSourceInvoiceId());
 
-            Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+            // Tag the Razorpay order with the tenant so webhooks can be attributed without a lookup.
+            String orderId = IdGenerator.newId("ord");
+            JSONObject notes = new JSONObject();
+            notes.put("organizationId", orgId);
+            notes.put("branchId", branchId);
+            notes.put("orderId", orderId);
+            orderRequest.put("notes", notes);
+
+            Order razorpayOrder = razorpayGateway.createOrder(orgId, orderRequest);
             String razorpayOrderId = razorpayOrder.get("id");
 
             PaymentOrder order = PaymentOrder.builder()
-                    .orderId(IdGenerator.newId("ord"))
+                    .orderId(orderId)
                     .organizationId(orgId)
                     .branchId(branchId)
                     .sourceInvoiceId(request.getSourceInvoiceId())
@@ -60,10 +134,11 @@ public class PaymentService {
                     .razorpayOrderId(razorpayOrderId)
                     .amount(request.getAmount())
                     .currency("INR")
-                    .status("CREATED")
+                    .status(OrderStateMachine.CREATED)
                     .createdAt(Timestamp.now())
                     .build();
-            paymentOrderRepository.save(order);
+            persister.accept(order);
+            statusChanged(order);
 
             return new CreateOrderResponse(razorpayOrderId, this.keyId, request.getAmount(), "CosmicDoc Clinic");
         } catch (RazorpayException e) {
@@ -82,24 +157,37 @@ public class PaymentService {
             );
 
             // 2. Find our internal order record by the Razorpay Order ID.
-            PaymentOrder order = paymentOrderRepository
-                    .findByRazorpayOrderId(orgId,branchId,request.getRazorpayOrderId())
+            PaymentOrder found = findByRazorpayOrderId(orgId, branchId, request.getRazorpayOrderId())
                     .orElseThrow(() -> new ResourceNotFoundException("Payment order not found."));
 
-            // 3. Update our order status (Idempotency check)
-            if ("PAID".equals(order.getStatus())) {
+            // 3. Mark the order paid, unless the webhook already did. The PaymentSuccess
+            // event for the source service (e.g., OPD) is saved with the order.
+            OrderStateMachine.Result result = orderStateMachine.transition(orgId, branchId, found.getOrderId(),
+                    OrderStateMachine.PAID, order -> {
+                        order.setRazorpayPaymentId(request.getRazorpayPaymentId());
+                        order.setRazorpaySignature(request.getRazorpaySignature());
+                    }, PaymentEvent.PAYMENT_SUCCESS);
+            if (result.outcome() == OrderStateMachine.Outcome.DUPLICATE) {
+                keepSignature(result.order(), request);
+                // The webhook may have recorded the payment first, without the invoice it pays.
+                if (request.getRazorpayPaymentId().equals(result.order().getRazorpayPaymentId())) {
+                    paymentTransactionRepository.save(ledgerEntry(result.order()).build());
+                }
                 return true; // Already processed
             }
-            order.setStatus("PAID");
-            order.setRazorpayPaymentId(request.getRazorpayPaymentId());
-            order.setRazorpaySignature(request.getRazorpaySignature());
-            order.setUpdatedAt(Timestamp.now());
-            paymentOrderRepository.save(order);
+            if (!result.applied()) {
+                log.warn("Payment {} verified for order {} in status {}", request.getRazorpayPaymentId(),
+                        found.getOrderId(), result.order() != null ? result.order().getStatus() : null);
+                return false;
+            }
+            PaymentOrder order = result.order();
+            statusChanged(order);
 
-            // 4. Publish an event to notify the source service (e.g., OPD)
-            // eventPublisher.publishPaymentSuccess(
-            //     new PaymentSuccessEvent(orgId, order.getSourceService(), order.getSourceInvoiceId(), order.getAmount())
-            // );
+            // 4. Record the payment in our local ledger. The gateway status is filled in by the webhook.
+            paymentTransactionRepository.save(ledgerEntry(order)
+                    .createdAt(order.getUpdatedAt())
+                    .updatedAt(order.getUpdatedAt())
+                    .build());
 
             return true;
         } catch (Exception e) {
@@ -108,53 +196,98 @@ public class PaymentService {
         }
     }
 
-    public void processWebhook(String payload, String signature) {
-        try {
-            // 1. Verify the webhook signature to ensure it's from Razorpay
-            SignatureVerifier.verifyWebhookSignature(payload, signature, this.webhookSecret);
-
-            // 2. Parse the event payload
-            JSONObject event = new JSONObject(payload);
-            String eventType = event.getString("event");
+    /**
+     * Applies a batch of already-verified webhook events.
+     * <p>
+     * Called by the {@link WebhookIngestionService} workers. The orders of all payment events
+     * in the batch are resolved through the {@link RazorpayOrderIndex} in one lookup, and the
+     * resulting ledger updates are written with a single batched Firestore write. Payments for
+     * orders this service did not create are skipped. Refund events update the refund ledger
+     * and its per-payment totals. Cached copies of the payments and refunds involved are
+     * dropped, so the next lookup fetches the gateway's current state.
+     */
+    public void processWebhookEvents(List<RazorpayWebhookEvent> events) {
+        List<RazorpayWebhookEvent.Entity> paymentEntities = new ArrayList<>();
+        List<RefundRecord> refundUpdates = new ArrayList<>();
+
+        for (RazorpayWebhookEvent event : events) {
+            if (event.isPaymentEvent()) {
+                paymentEntities.add(event.payment());
+                razorpayEntityCache.invalidatePayment(event.payment().id());
+            } else if (event.isRefundEvent()) {
+                RazorpayWebhookEvent.Entity refundEntity = event.refund();
+                razorpayEntityCache.invalidateRefund(refundEntity.id());
+                // The refunded amount and status of the parent payment have changed too.
+                if (refundEntity.paymentId() != null) {
+                    razorpayEntityCache.invalidatePayment(refundEntity.paymentId());
+                }
+                refundUpdates.add(RefundRecord.fromWebhook(refundEntity));
+            }
+        }
+        if (!refundUpdates.isEmpty()) {
+            refundRecordRepository.saveAll(refundUpdates);
+        }
+        if (paymentEntities.isEmpty()) {
+            return;
+        }
 
-            if ("payment.captured".equals(eventType)) {
-                JSONObject paymentEntity = event.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
-                String razorpayOrderId = paymentEntity.getString("order_id");
+        Map<String, RazorpayOrderIndexEntry> orders = razorpayOrderIndex.resolveAll(paymentEntities.stream()
+                .map(RazorpayWebhookEvent.Entity::orderId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        List<PaymentTransaction> ledgerUpdates = new ArrayList<>();
+        for (RazorpayWebhookEvent.Entity paymentEntity : paymentEntities) {
+            RazorpayOrderIndexEntry order = paymentEntity.orderId() != null ? orders.get(paymentEntity.orderId()) : null;
+            PaymentTransaction transaction = toTransaction(paymentEntity, order);
+            if (transaction.getOrganizationId() == null) {
+                log.debug("Skipping webhook for payment {} of an order we did not create", transaction.getPaymentId());
+                continue;
+            }
+            ledgerUpdates.add(transaction);
 
-                // Find our order and process it (same logic as verifyAndProcessPayment)
-                // This is a crucial backup for cases where the user closes the browser
-                // before the frontend can call our verification API.
+            // This is a crucial backup for cases where the user closes the browser
+            // before the frontend can call our verification API.
+            if (order != null && "captured".equals(transaction.getStatus())) {
+                markOrderPaid(order, transaction.getPaymentId());
             }
-            // Handle other events like payment.failed, refund.processed, etc.
+        }
 
-        } catch (Exception e) {
-            // Log the error
+        if (!ledgerUpdates.isEmpty()) {
+            paymentTransactionRepository.saveAll(ledgerUpdates);
         }
     }
 
-    public List<Payment> listPaymentsForOrg(String orgId, ZonedDateTime from, ZonedDateTime to) {
-        try {
-            JSONObject params = new JSONObject();
-            // Razorpay uses Unix timestamps (seconds)
-            if (from != null) params.put("from", from.toEpochSecond());
-            if (to != null) params.put("to", to.toEpochSecond());
-            params.put("count", 100); // Add pagination for a real app
-
-            // NOTE: This fetches directly from Razorpay.
-            // A more scalable approach is to store a copy of the payment
-            // object in your own DB and query that instead.
-            return razorpayClient.payments.fetchAll(params);
-        } catch (RazorpayException e) {
-            throw new RuntimeException("Failed to fetch payments from Razorpay.", e);
-        }
+    /**
+     * Lists the tenant's payments from the local ledger, newest first.
+     * Pages are chained through the returned nextPageToken.
+     */
+    public TransactionPageResponse listPaymentsForOrg(String orgId, String branchId, ZonedDateTime from, ZonedDateTime to,
+                                                      int limit, String pageToken) {
+        List<PaymentTransaction> transactions = paymentTransactionRepository.findByOrganization(
+                orgId, branchId,
+                from != null ? Timestamp.ofTimeSecondsAndNanos(from.toEpochSecond(), from.getNano()) : null,
+                to != null ? Timestamp.ofTimeSecondsAndNanos(to.toEpochSecond(), to.getNano()) : null,
+                limit, pageToken);
+
+        String nextPageToken = transactions.size() == limit
+                ? transactions.get(transactions.size() - 1).getPaymentId()
+                : null;
+        return new TransactionPageResponse(
+                transactions.stream().map(PaymentTransactionResponse::from).toList(),
+                nextPageToken);
     }
 
     public Payment fetchPayment(String orgId, String paymentId) {
         try {
-            // This is a direct API call to get the latest status of a payment.
-            return razorpayClient.payments.fetch(paymentId);
+            // Served from the cache when possible; misses go to the Razorpay API.
+            return razorpayEntityCache.getPayment(orgId, paymentId,
+                    () -> paymentFetches.execute(orgId + ":" + paymentId, () -> razorpayGateway.fetchPayment(orgId, paymentId)));
         } catch (RazorpayException e) {
-            throw new ResourceNotFoundException("Payment with ID " + paymentId + " not found on Razorpay.", e);
+            if (RazorpayFailure.classify(e) == RazorpayFailure.NOT_FOUND) {
+                throw new ResourceNotFoundException("Payment with ID " + paymentId + " not found on Razorpay.", e);
+            }
+            throw new PaymentGatewayException("Failed to fetch payment " + paymentId + " from Razorpay.", e);
         }
     }
 
@@ -163,40 +296,172 @@ public class PaymentService {
             JSONObject captureRequest = new JSONObject();
             captureRequest.put("amount", (int) (amount * 100));
             captureRequest.put("currency", "INR");
-            return razorpayClient.payments.capture(paymentId, captureRequest);
+            return razorpayGateway.capturePayment(orgId, paymentId, captureRequest);
         } catch (RazorpayException e) {
             throw new RuntimeException("Failed to capture payment " + paymentId, e);
         }
     }
 
     public PaymentOrderStatusResponse getOrderStatus(String orgId, String branchId, String orderId) {
-        // Find the order in your own database, scoped by tenant.
-        PaymentOrder order = paymentOrderRepository.findById(orgId, branchId, orderId)
+        // Find the order in your own database, scoped by tenant. Polls are mostly served
+        // from the near cache; settled orders never need another read.
+        return orderStatusCache.get(orgId, branchId, orderId, () -> paymentOrderRepository.findById(orgId, branchId, orderId))
                 .orElseThrow(() -> new ResourceNotFoundException("Payment order with ID " + orderId + " not found."));
+    }
 
-        // Map the internal model to a clean response DTO.
-        return PaymentOrderStatusResponse.from(order);
+    /**
+     * Looks up many orders of one tenant at once: cached statuses first, then a single
+     * Firestore getAll for the rest.
+     */
+    public BatchOrderStatusResponse getOrderStatuses(String orgId, String branchId, List<String> orderIds) {
+        Map<String, PaymentOrderStatusResponse> found = orderStatusCache.getAll(orgId, branchId, orderIds,
+                misses -> paymentOrderBatchRepository.findAllById(orgId, branchId, misses));
+
+        List<PaymentOrderStatusResponse> orders = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        for (String orderId : new LinkedHashSet<>(orderIds)) {
+            PaymentOrderStatusResponse status = found.get(orderId);
+            if (status != null) {
+                orders.add(status);
+            } else {
+                notFound.add(orderId);
+            }
+        }
+        return new BatchOrderStatusResponse(orders, notFound);
     }
 
     public void cancelOrder(String orgId, String branchId, String orderId) {
-        // Find the order in your database.
-        PaymentOrder order = paymentOrderRepository.findById(orgId, branchId, orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment order with ID " + orderId + " not found."));
+        // Only an unpaid order can be cancelled. The PaymentCancelled event lets the
+        // originating service react (e.g., to unlock a reserved item).
+        OrderStateMachine.Result result = orderStateMachine.transition(orgId, branchId, orderId,
+                OrderStateMachine.CANCELLED, null, PaymentEvent.PAYMENT_CANCELLED);
+        switch (result.outcome()) {
+            case NOT_FOUND -> throw new ResourceNotFoundException("Payment order with ID " + orderId + " not found.");
+            case ILLEGAL -> throw new IllegalStateException(OrderStateMachine.PAID.equals(result.order().getStatus())
+                    ? "Cannot cancel an order that has already been paid."
+                    : "Cannot cancel an order in status " + result.order().getStatus() + ".");
+            case APPLIED -> statusChanged(result.order());
+            case DUPLICATE -> { } // Already cancelled
+        }
 
-        // Business logic check: You should only be able to cancel an order that hasn't been paid.
-        if ("PAID".equals(order.getStatus())) {
-            throw new IllegalStateException("Cannot cancel an order that has already been paid.");
+        // A new create-order for the same invoice should produce a fresh order, not replay this one.
+        PaymentOrder order = result.order();
+        idempotencyService.forget(orgId, CREATE_ORDER_OPERATION, invoiceKey(order.getSourceService(), order.getSourceInvoiceId()));
+    }
+
+    /**
+     * Finds a tenant's order by its Razorpay order ID with a direct document read through
+     * the reverse index. Orders created before the index existed fall back to the query.
+     */
+    private Optional<PaymentOrder> findByRazorpayOrderId(String orgId, String branchId, String razorpayOrderId) {
+        Optional<RazorpayOrderIndexEntry> entry = razorpayOrderIndex.resolve(razorpayOrderId);
+        if (entry.isEmpty()) {
+            return paymentOrderRepository.findByRazorpayOrderId(orgId, branchId, razorpayOrderId);
+        }
+        // The index is global, so an order of another tenant must look like a missing one.
+        RazorpayOrderIndexEntry order = entry.get();
+        if (!orgId.equals(order.getOrganizationId()) || !branchId.equals(order.getBranchId())) {
+            return Optional.empty();
         }
+        return paymentOrderRepository.findById(orgId, branchId, order.getOrderId());
+    }
 
-        // Update the status to CANCELLED.
-        order.setStatus("CANCELLED");
-        order.setUpdatedAt(Timestamp.now());
+    private void markOrderPaid(RazorpayOrderIndexEntry entry, String razorpayPaymentId) {
+        try {
+            OrderStateMachine.Result result = orderStateMachine.transition(entry.getOrganizationId(), entry.getBranchId(),
+                    entry.getOrderId(), OrderStateMachine.PAID, order -> order.setRazorpayPaymentId(razorpayPaymentId),
+                    PaymentEvent.PAYMENT_SUCCESS);
+            if (result.applied()) {
+                statusChanged(result.order());
+            } else if (result.outcome() == OrderStateMachine.Outcome.ILLEGAL) {
+                // The money was taken anyway; the ledger entry is the record for reconciliation.
+                log.warn("Payment {} captured for order {} in status {}", razorpayPaymentId, entry.getOrderId(),
+                        result.order().getStatus());
+            }
+        } catch (RuntimeException e) {
+            // The ledger update for this payment is still written; the order can be
+            // reconciled from it or from Razorpay's webhook retry.
+            log.error("Failed to mark order {} as paid for payment {}", entry.getOrderId(), razorpayPaymentId, e);
+        }
+    }
 
-        // Save the change back to the database.
+    /**
+     * When the webhook marked the order paid before the verify call arrived, the order
+     * lacks the checkout signature; it is added with a field-masked update.
+     */
+    private void keepSignature(PaymentOrder paidOrder, VerifySignatureRequest request) {
+        orderStateMachine.amend(paidOrder.getOrganizationId(), paidOrder.getBranchId(), paidOrder.getOrderId(), order ->
+                order.getRazorpaySignature() == null && request.getRazorpayPaymentId().equals(order.getRazorpayPaymentId())
+                        ? PaymentOrderPatch.builder()
+                                .organizationId(order.getOrganizationId())
+                                .branchId(order.getBranchId())
+                                .orderId(order.getOrderId())
+                                .razorpaySignature(request.getRazorpaySignature())
+                                .updatedAt(Timestamp.now())
+                                .build()
+                        : null);
+    }
+
+    private void persistOrder(PaymentOrder order) {
         paymentOrderRepository.save(order);
+        razorpayOrderIndex.register(RazorpayOrderIndexEntry.from(order));
+    }
+
+    /**
+     * Writes an order's new status through the near cache and notifies its subscribers.
+     */
+    private void statusChanged(PaymentOrder order) {
+        orderStatusCache.put(order);
+        orderStatusHub.publish(new OrderStatusHub.OrderKey(order.getOrganizationId(), order.getBranchId(), order.getOrderId()),
+                PaymentOrderStatusResponse.from(order));
+    }
 
-        // Optional: You could publish a "PAYMENT_CANCELLED" event here
-        // if the originating service needs to know (e.g., to unlock a reserved item).
+    private static String invoiceKey(String sourceService, String sourceInvoiceId) {
+        return "invoice:" + sourceService + ":" + sourceInvoiceId;
+    }
+
+    /**
+     * Maps a Razorpay payment entity (from a webhook payload) to a ledger entry.
+     * The tenant is taken from the order index, or else from the notes we attach in
+     * createOrder, when present.
+     */
+    /**
+     * The ledger fields known from a paid order. Timestamps are left to the caller, so a
+     * merge does not move an entry the webhook already recorded.
+     */
+    private static PaymentTransaction.PaymentTransactionBuilder ledgerEntry(PaymentOrder order) {
+        return PaymentTransaction.builder()
+                .paymentId(order.getRazorpayPaymentId())
+                .organizationId(order.getOrganizationId())
+                .branchId(order.getBranchId())
+                .orderId(order.getOrderId())
+                .razorpayOrderId(order.getRazorpayOrderId())
+                .sourceService(order.getSourceService())
+                .sourceInvoiceId(order.getSourceInvoiceId())
+                .amount(order.getAmount())
+                .currency(order.getCurrency());
+    }
+
+    private PaymentTransaction toTransaction(RazorpayWebhookEvent.Entity paymentEntity, RazorpayOrderIndexEntry order) {
+        PaymentTransaction.PaymentTransactionBuilder transaction = PaymentTransaction.builder()
+                .paymentId(paymentEntity.id())
+                .razorpayOrderId(paymentEntity.orderId())
+                .amount(paymentEntity.amount() / 100.0)
+                .currency(paymentEntity.currency())
+                .status(paymentEntity.status())
+                .method(paymentEntity.method())
+                .createdAt(Timestamp.ofTimeSecondsAndNanos(paymentEntity.createdAt(), 0))
+                .updatedAt(Timestamp.now());
+        if (order != null) {
+            transaction.organizationId(order.getOrganizationId())
+                    .branchId(order.getBranchId())
+                    .orderId(order.getOrderId());
+        } else {
+            transaction.organizationId(paymentEntity.organizationId())
+                    .branchId(paymentEntity.noteBranchId())
+                    .orderId(paymentEntity.noteOrderId());
+        }
+        return transaction.build();
     }
 
 }
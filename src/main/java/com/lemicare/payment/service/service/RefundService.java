@@ -1,22 +1,69 @@
 package com.lemicare.payment.service.service;
 
+import com.lemicare.payment.service.cache.RazorpayEntityCache;
+import com.lemicare.payment.service.exception.PaymentGatewayException;
 import com.lemicare.payment.service.exception.ResourceNotFoundException;
+import com.lemicare.payment.service.gateway.RazorpayFailure;
+import com.lemicare.payment.service.gateway.RazorpayGateway;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.RefundRecordRepository;
 import com.razorpay.Refund;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import com.lemicare.payment.service.dto.request.CreateRefundRequestDto;
+import com.lemicare.payment.service.dto.response.RefundSummaryResponse;
+import com.lemicare.payment.service.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Consumer;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefundService {
 
-    private final RazorpayClient razorpayClient;
-    // Inject repositories for your internal refund records
+    static final String REFUND_OPERATION = "refund";
+
+    private final RazorpayGateway razorpayGateway;
+    private final RazorpayEntityCache razorpayEntityCache;
+    private final IdempotencyService idempotencyService;
+    private final RefundRecordRepository refundRecordRepository;
+    // Concurrent fetches of the same refund share a single Razorpay call. Keyed by organization
+    // and refund ID, so one tenant never receives a refund fetched with another's credentials.
+    private final SingleFlight<String, Refund> refundFetches = new SingleFlight<>();
+
+    /**
+     * Initiates a refund on Razorpay.
+     * <p>
+     * Retries are idempotent: requests with the same Idempotency-Key header, or without one
+     * but with the same payment, amount, reason and speed, return the first refund instead
+     * of refunding again. Two identical partial refunds of one payment that are both meant
+     * need distinct Idempotency-Keys.
+     *
+     * @param idempotencyKey The client's Idempotency-Key header, or null.
+     */
+    public Refund createRefund(String orgId, String userId, CreateRefundRequestDto request, String idempotencyKey) {
+        return createRefund(orgId, userId, request, idempotencyKey, refundRecordRepository::save);
+    }
 
-    public Refund createRefund(String orgId, String userId, CreateRefundRequestDto request) {
+    /**
+     * Initiates a refund, handing its RefundRecord to the given persister instead of saving
+     * it directly. Used by {@link BatchRefundService} to group the writes of many refunds.
+     */
+    Refund createRefund(String orgId, String userId, CreateRefundRequestDto request, String idempotencyKey,
+                        Consumer<RefundRecord> persister) {
+        String fingerprint = IdempotencyService.fingerprint(request.getPaymentId(), request.getAmount(),
+                request.getReason(), request.isImmediate());
+        String clientKey = idempotencyKey != null ? idempotencyKey : "payment:" + request.getPaymentId() + ":" + fingerprint;
+        return idempotencyService.execute(orgId, REFUND_OPERATION, clientKey, fingerprint,
+                Refund::toString, json -> new Refund(new JSONObject(json)),
+                () -> doCreateRefund(orgId, userId, request, persister));
+    }
+
+    private Refund doCreateRefund(String orgId, String userId, CreateRefundRequestDto request,
+                                  Consumer<RefundRecord> persister) {
         try {
             JSONObject refundRequest = new JSONObject();
             // Refund amount can be partial
@@ -26,25 +73,64 @@ public class RefundService {
             JSONObject notes = new JSONObject();
             notes.put("reason", request.getReason());
             notes.put("initiated_by", userId);
+            // Lets refund webhooks be attributed to the tenant.
+            notes.put("organizationId", orgId);
             refundRequest.put("notes", notes);
 
             // Initiate the refund against the original paymentId
-            Refund refund = razorpayClient.payments.refund(request.getPaymentId(), refundRequest);
-
-            // TODO: Create a 'refunds' record in your own database to track this.
+            Refund refund = razorpayGateway.refundPayment(orgId, request.getPaymentId(), refundRequest);
 
+            try {
+                persister.accept(toRecord(orgId, userId, request, refund));
+            } catch (RuntimeException e) {
+                // The money has moved, so the refund must not look failed (and be retried).
+                log.error("Refund {} was created but its record could not be saved", refund.get("id"), e);
+            }
             return refund;
         } catch (RazorpayException e) {
             throw new RuntimeException("Failed to initiate refund for payment " + request.getPaymentId(), e);
         }
     }
 
+    private static RefundRecord toRecord(String orgId, String userId, CreateRefundRequestDto request, Refund refund) {
+        RefundRecord record = RefundRecord.fromEntity(refund.toJson());
+        record.setOrganizationId(orgId);
+        if (record.getPaymentId() == null) {
+            record.setPaymentId(request.getPaymentId());
+        }
+        if (record.getAmount() == null) {
+            record.setAmount(request.getAmount());
+        }
+        if (record.getCreatedAt() == null) {
+            record.setCreatedAt(record.getUpdatedAt());
+        }
+        record.setReason(request.getReason());
+        record.setInitiatedBy(userId);
+        return record;
+    }
+
+    /**
+     * Returns how much of a payment has been refunded and how much is left, from the
+     * local refund ledger, without calling Razorpay. A payment without refunds has no summary.
+     */
+    public RefundSummaryResponse getRefundSummary(String orgId, String paymentId) {
+        return refundRecordRepository.findSummaryByPaymentId(paymentId)
+                // The summary's organization comes from the ledger or the refund notes.
+                .filter(summary -> orgId.equals(summary.getOrganizationId()))
+                .map(RefundSummaryResponse::from)
+                .orElseThrow(() -> new ResourceNotFoundException("No refunds recorded for payment " + paymentId + "."));
+    }
+
     public Refund fetchRefund(String orgId, String refundId) {
         try {
-            // This is a direct API call to get the latest status of a refund.
-            return razorpayClient.refunds.fetch(refundId);
+            // Served from the cache when possible; misses go to the Razorpay API.
+            return razorpayEntityCache.getRefund(orgId, refundId,
+                    () -> refundFetches.execute(orgId + ":" + refundId, () -> razorpayGateway.fetchRefund(orgId, refundId)));
         } catch (RazorpayException e) {
-            throw new ResourceNotFoundException("Refund with ID " + refundId + " not found on Razorpay.", e);
+            if (RazorpayFailure.classify(e) == RazorpayFailure.NOT_FOUND) {
+                throw new ResourceNotFoundException("Refund with ID " + refundId + " not found on Razorpay.", e);
+            }
+            throw new PaymentGatewayException("Failed to fetch refund " + refundId + " from Razorpay.", e);
         }
     }
 }
@@ -0,0 +1,178 @@
+package com.lemicare.payment.service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lemicare.payment.service.util.SignatureVerifier;
+import com.lemicare.payment.service.webhook.RazorpayWebhookEvent;
+import com.lemicare.payment.service.webhook.RazorpayWebhookParser;
+import com.razorpay.RazorpayException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts Razorpay webhooks on the request thread and processes them in the background.
+ * <p>
+ * The request thread only verifies the signature, drops event IDs already seen within the
+ * dedup window, and enqueues the event on a bounded queue. A small pool of worker threads
+ * drains the queue in batches, parses the bodies with {@link RazorpayWebhookParser} and hands
+ * each batch to {@link PaymentService#processWebhookEvents}, which groups the resulting
+ * Firestore writes. This keeps webhook responses fast during
+ * Razorpay's settlement bursts, so slow responses no longer trigger gateway retries.
+ * <p>
+ * An event ID counts as seen from the moment it is queued, so a retry cannot be queued
+ * twice. If its batch then fails, the IDs are forgotten again, so replaying the events
+ * from the Razorpay dashboard processes them instead of dropping them as duplicates.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookIngestionService {
+
+    public enum Outcome {
+        /** The event was queued for processing. */
+        ACCEPTED,
+        /** The event ID was already received within the dedup window. */
+        DUPLICATE,
+        /** The queue is full; the caller should ask Razorpay to retry later. */
+        REJECTED
+    }
+
+    private record WebhookEvent(String eventId, byte[] payload) {}
+
+    private final PaymentService paymentService;
+
+    @Value("${razorpay.webhook-secret}")
+    private String webhookSecret;
+
+    @Value("${app.webhooks.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.webhooks.workers:2}")
+    private int workerCount;
+
+    @Value("${app.webhooks.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.webhooks.dedup-window-seconds:86400}")
+    private long dedupWindowSeconds;
+
+    @Value("${app.webhooks.dedup-max-entries:200000}")
+    private long dedupMaxEntries;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    private BlockingQueue<WebhookEvent> queue;
+    private Cache<String, Boolean> recentEventIds;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        recentEventIds = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(dedupWindowSeconds))
+                .maximumSize(dedupMaxEntries)
+                .build();
+
+        running = true;
+        // Workers spend most of their time waiting on Firestore, so they follow the
+        // application's virtual-thread setting.
+        Thread.Builder builder = virtualThreadsEnabled
+                ? Thread.ofVirtual().name("webhook-worker-", 0)
+                : Thread.ofPlatform().daemon().name("webhook-worker-", 0);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(builder.start(this::runWorker));
+        }
+    }
+
+    /**
+     * Stops accepting work and gives the workers a short grace period to drain the queue.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutting down with {} unprocessed webhook events", queue.size());
+        }
+    }
+
+    /**
+     * Verifies and enqueues a webhook.
+     *
+     * @param payload The raw request body.
+     * @throws RazorpayException if the signature does not match the payload.
+     */
+    public Outcome ingest(String eventId, byte[] payload, String signature) throws RazorpayException {
+        SignatureVerifier.verifyWebhookSignature(payload, signature, webhookSecret);
+
+        if (recentEventIds.asMap().putIfAbsent(eventId, Boolean.TRUE) != null) {
+            return Outcome.DUPLICATE;
+        }
+        if (!running || !queue.offer(new WebhookEvent(eventId, payload))) {
+            // Forget the ID so Razorpay's retry of this event is not mistaken for a duplicate.
+            recentEventIds.invalidate(eventId);
+            return Outcome.REJECTED;
+        }
+        return Outcome.ACCEPTED;
+    }
+
+    private void runWorker() {
+        List<WebhookEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                WebhookEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<WebhookEvent> batch) {
+        List<RazorpayWebhookEvent> events = new ArrayList<>(batch.size());
+        for (WebhookEvent event : batch) {
+            try {
+                events.add(RazorpayWebhookParser.parse(event.payload()));
+            } catch (IOException e) {
+                // Logged and skipped so it cannot hold up the rest of the batch.
+                log.warn("Skipping malformed webhook {}: {}", event.eventId(), e.getMessage());
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            paymentService.processWebhookEvents(events);
+        } catch (RuntimeException e) {
+            // Razorpay has already been acknowledged, so the failure is logged with the
+            // event IDs for replay from the Razorpay dashboard.
+            List<String> eventIds = batch.stream().map(WebhookEvent::eventId).toList();
+            recentEventIds.invalidateAll(eventIds);
+            log.error("Failed to process webhook batch {}", eventIds, e);
+        }
+    }
+}
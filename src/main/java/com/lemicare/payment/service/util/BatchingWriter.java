@@ -0,0 +1,104 @@
+package com.lemicare.payment.service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Groups writes from many threads into batches handled by one writer thread.
+ * <p>
+ * A batch is flushed when it is full or when no further item has arrived within the linger
+ * time. {@link #write} blocks until the item's batch has been flushed, and rethrows the
+ * flush failure if there was one, so callers can report per-item results that are durable.
+ *
+ * @param <T> The item type, e.g. a Firestore document.
+ */
+public final class BatchingWriter<T> implements AutoCloseable {
+
+    private record Pending<T>(T item, CompletableFuture<Void> flushed) {}
+
+    private final BlockingQueue<Pending<T>> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Consumer<List<T>> flusher;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public BatchingWriter(String name, int batchSize, long lingerMillis, Consumer<List<T>> flusher) {
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.flusher = flusher;
+        this.thread = Thread.ofVirtual().name(name).start(this::run);
+    }
+
+    /**
+     * Queues the item and waits until its batch has been flushed.
+     */
+    public void write(T item) {
+        Pending<T> pending = new Pending<>(item, new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            pending.flushed().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException("Batched write failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long lingerUntil = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    Pending<T> next = queue.poll(Math.max(0, lingerUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.addAll(queue);
+                batch.forEach(pending -> pending.flushed().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending<T>> batch) {
+        try {
+            flusher.accept(batch.stream().map(Pending::item).toList());
+            batch.forEach(pending -> pending.flushed().complete(null));
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.flushed().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Flushes what is queued and stops the writer thread. Call once no more writes will be made.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.lemicare.payment.service.util;
+
+/**
+ * Resolves tenant-scoped Firestore collection paths from templates such as
+ * "organizations/{organizationId}/branches/{branchId}/payment_orders".
+ */
+public final class FirestorePaths {
+
+    private FirestorePaths() {}
+
+    public static String resolve(String template, String organizationId, String branchId) {
+        return template
+                .replace("{organizationId}", requireSegment(organizationId))
+                .replace("{branchId}", requireSegment(branchId));
+    }
+
+    /**
+     * Whether the value can be used as a single document ID, i.e. cannot address another path.
+     */
+    public static boolean isValidDocumentId(String id) {
+        return id != null && !id.isBlank() && id.indexOf('/') < 0 && !".".equals(id) && !"..".equals(id);
+    }
+
+    private static String requireSegment(String value) {
+        if (!isValidDocumentId(value)) {
+            throw new IllegalArgumentException("Invalid Firestore path segment: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,155 @@
+package com.lemicare.payment.service.util;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Checks hex-encoded HMAC-SHA256 signatures against one secret.
+ * <p>
+ * Initialized {@link Mac}s and their scratch buffers are reused from a small
+ * {@link ObjectPool}, rather than kept per thread, which would set them up again for every
+ * request on virtual threads. New ones are cloned from a prototype that already holds the
+ * key, so a check costs no Mac lookup or key setup, and allocates nothing beyond the JDK's
+ * internal digest array once the pool is warm.
+ * The signature is compared as decoded bytes, in constant time, without hex-encoding the
+ * expected digest.
+ */
+public final class HmacSha256Verifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DIGEST_LENGTH = 32;
+
+    /**
+     * Pooled state: a Mac initialized with the secret, and scratch buffers.
+     */
+    private static final class State {
+        final Mac mac;
+        final byte[] digest = new byte[DIGEST_LENGTH];
+        byte[] text = new byte[128];
+
+        State(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final Mac prototype; // Never used itself, only cloned.
+    private final ObjectPool<State> states;
+
+    public HmacSha256Verifier(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.prototype = newMac(key); // Fails on a bad key here rather than on the first check.
+        this.states = new ObjectPool<>(ObjectPool.defaultCapacity(), () -> new State(cloneMac()));
+    }
+
+    /**
+     * Whether the signature matches the given bytes, e.g. a raw webhook body.
+     */
+    public boolean verify(byte[] message, String hexSignature) {
+        return verify(message, 0, message.length, hexSignature);
+    }
+
+    public boolean verify(byte[] message, int offset, int length, String hexSignature) {
+        State s = states.acquire();
+        s.mac.update(message, offset, length);
+        boolean matches = matches(finish(s), hexSignature);
+        states.release(s);
+        return matches;
+    }
+
+    /**
+     * Whether the signature matches the parts joined with the separator, without building
+     * the joined string (e.g. Razorpay's "order_id|payment_id").
+     */
+    public boolean verify(String first, char separator, String second, String hexSignature) {
+        State s = states.acquire();
+        update(s, first);
+        s.mac.update((byte) separator);
+        update(s, second);
+        boolean matches = matches(finish(s), hexSignature);
+        states.release(s);
+        return matches;
+    }
+
+    private static void update(State s, String text) {
+        int length = text.length();
+        if (s.text.length < length) {
+            s.text = new byte[Math.max(length, s.text.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII, which Razorpay IDs always are; take the slow path.
+                s.mac.update(s.text, 0, i);
+                s.mac.update(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            s.text[i] = (byte) c;
+        }
+        s.mac.update(s.text, 0, length);
+    }
+
+    private static byte[] finish(State s) {
+        try {
+            s.mac.doFinal(s.digest, 0); // Also resets the Mac for the next check.
+            return s.digest;
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compares the digest with a hex signature (either case). The time taken does not
+     * depend on how many bytes match.
+     */
+    static boolean matches(byte[] digest, String hexSignature) {
+        if (hexSignature == null || hexSignature.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        int difference = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int high = hexValue(hexSignature.charAt(2 * i));
+            int low = hexValue(hexSignature.charAt(2 * i + 1));
+            // An invalid digit is -1, whose high bits make the difference non-zero.
+            difference |= (high | low) & ~0xF;
+            difference |= ((high << 4) | low) ^ (digest[i] & 0xFF);
+        }
+        return difference == 0;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private Mac cloneMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Every JDK provider of HmacSHA256 supports cloning; this is a fallback.
+            return newMac(key);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.lemicare.payment.service.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+
+/**
+ * Writes objects to an async response as newline-delimited JSON, from any number of threads.
+ */
+@Slf4j
+public final class NdjsonStream {
+
+    private final ResponseBodyEmitter emitter;
+
+    public NdjsonStream(long timeoutMillis) {
+        this.emitter = new ResponseBodyEmitter(timeoutMillis);
+    }
+
+    public ResponseBodyEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Writes one line. If the client has gone away the line is dropped, since the work it
+     * reports has already been done.
+     */
+    public synchronized void send(Object line) {
+        try {
+            emitter.send(line, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropped a streamed result: {}", e.getMessage());
+        }
+    }
+
+    public void complete() {
+        emitter.complete();
+    }
+
+    public void completeWithError(Throwable error) {
+        emitter.completeWithError(error);
+    }
+}
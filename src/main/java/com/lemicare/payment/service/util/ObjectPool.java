@@ -0,0 +1,48 @@
+package com.lemicare.payment.service.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A small bounded pool of reusable objects that are not thread-safe, such as a
+ * {@link javax.crypto.Mac} or {@link java.security.MessageDigest}.
+ * <p>
+ * Used instead of a {@link ThreadLocal}: with virtual threads every request runs on a new
+ * thread, which would set up its own object and throw it away after one use. The pool is
+ * shared by all threads, creates an object when it is empty and drops a returned object
+ * when it is full, so it never holds more than {@code capacity} of them.
+ */
+public final class ObjectPool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<? extends T> factory;
+
+    public ObjectPool(int capacity, Supplier<? extends T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    /**
+     * A capacity that covers the threads that can run at once, including the carriers of
+     * virtual threads.
+     */
+    public static int defaultCapacity() {
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * An idle object, or a new one if there is none. Hand it back with {@link #release}.
+     */
+    public T acquire() {
+        T object = idle.poll();
+        return object != null ? object : factory.get();
+    }
+
+    /**
+     * Returns an object for reuse. Only objects left in a clean state may be returned;
+     * one abandoned halfway through a use should simply not be released.
+     */
+    public void release(T object) {
+        idle.offer(object);
+    }
+}
@@ -0,0 +1,38 @@
+package com.lemicare.payment.service.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces calls evenly at a fixed rate, without bursts.
+ * <p>
+ * Each caller reserves the next free slot and sleeps until it arrives, so waiting costs
+ * no lock time and, on virtual threads, no carrier thread.
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    /**
+     * Blocks until the caller may proceed.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.lemicare.payment.service.util;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * A call to the Razorpay SDK, which reports failures as checked RazorpayExceptions.
+ */
+@FunctionalInterface
+public interface RazorpayCall<T> {
+    T call() throws RazorpayException;
+}
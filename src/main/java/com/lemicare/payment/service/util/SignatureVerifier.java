@@ -1,26 +1,39 @@
 package com.lemicare.payment.service.util;
 
 import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
-import org.json.JSONObject;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies Razorpay checkout and webhook signatures.
+ * <p>
+ * Both run on hot paths (every verify-payment call and every webhook), so instead of the
+ * SDK's {@code Utils}, which builds a Mac and hex strings per call, each secret gets a
+ * cached {@link HmacSha256Verifier}.
+ */
 public final class SignatureVerifier {
     private SignatureVerifier() {}
 
-    public static void verifyPaymentSignature(String orderId, String paymentId, String signature, String secret) throws RazorpayException {
-        JSONObject options = new JSONObject();
-        options.put("razorpay_order_id", orderId);
-        options.put("razorpay_payment_id", paymentId);
-        options.put("razorpay_signature", signature);
+    // Only a handful of secrets exist (the key secret and the webhook secret).
+    private static final Map<String, HmacSha256Verifier> VERIFIERS = new ConcurrentHashMap<>();
 
-        if (!Utils.verifyPaymentSignature(options, secret)) {
+    public static void verifyPaymentSignature(String orderId, String paymentId, String signature, String secret) throws RazorpayException {
+        if (orderId == null || paymentId == null || !verifier(secret).verify(orderId, '|', paymentId, signature)) {
             throw new RazorpayException("Payment signature verification failed.");
         }
     }
 
-    public static void verifyWebhookSignature(String payload, String signature, String secret) throws RazorpayException {
-        if (!Utils.verifyWebhookSignature(payload, signature, secret)) {
+    /**
+     * @param payload The raw request body, exactly as received.
+     */
+    public static void verifyWebhookSignature(byte[] payload, String signature, String secret) throws RazorpayException {
+        if (!verifier(secret).verify(payload, signature)) {
             throw new RazorpayException("Webhook signature verification failed.");
         }
     }
+
+    private static HmacSha256Verifier verifier(String secret) {
+        return VERIFIERS.computeIfAbsent(secret, HmacSha256Verifier::new);
+    }
 }
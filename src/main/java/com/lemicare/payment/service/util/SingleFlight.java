@@ -0,0 +1,73 @@
+package com.lemicare.payment.service.util;
+
+import com.razorpay.RazorpayException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent identical Razorpay calls.
+ * <p>
+ * While a call for a key is in flight, other callers asking for the same key wait for
+ * it and receive the same result (or the same exception) instead of issuing their own
+ * request. Nothing is remembered once the call completes; caching is left to the caller.
+ *
+ * @param <K> The key type, e.g. a Razorpay payment ID.
+ * @param <V> The result type.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, RazorpayCall<V> call) throws RazorpayException {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (RazorpayException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * The number of keys with a call currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws RazorpayException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RazorpayException("Interrupted while waiting for an in-flight Razorpay call.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RazorpayException razorpayException) {
+                throw razorpayException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RazorpayException(cause);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.lemicare.payment.service.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by an unbounded set of keys.
+ * <p>
+ * Equal keys always map to the same lock, so work on one key is serialized without
+ * keeping a lock object per key alive. Unrelated keys occasionally share a stripe;
+ * more stripes make that rarer.
+ */
+public final class StripedLocks {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    /**
+     * @param minStripes The minimum number of stripes; rounded up to a power of two.
+     */
+    public StripedLocks(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock get(Object key) {
+        int h = key.hashCode();
+        // Spread the high bits so keys that differ only there still land on different stripes.
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
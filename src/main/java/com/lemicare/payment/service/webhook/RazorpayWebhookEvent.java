@@ -0,0 +1,44 @@
+package com.lemicare.payment.service.webhook;
+
+/**
+ * The parts of a Razorpay webhook the service acts on.
+ *
+ * @param event   The event type, e.g. "payment.captured" or "refund.processed".
+ * @param payment payload.payment.entity, or null if the webhook has none.
+ * @param refund  payload.refund.entity, or null if the webhook has none.
+ */
+public record RazorpayWebhookEvent(String event, Entity payment, Entity refund) {
+
+    /**
+     * The routing and ledger fields of a payment or refund entity. Fields that do not apply
+     * to the entity, or that the webhook leaves out, are null.
+     *
+     * @param amount          In the smallest currency unit (paise).
+     * @param createdAt       Epoch seconds.
+     * @param speedRequested  Refunds only.
+     * @param organizationId  From the entity's notes, as attached when the order or refund was created.
+     * @param noteBranchId    From the entity's notes.
+     * @param noteOrderId     From the entity's notes; our order ID, not Razorpay's.
+     */
+    public record Entity(String id,
+                         String orderId,
+                         String paymentId,
+                         Long amount,
+                         String currency,
+                         String status,
+                         String method,
+                         String speedRequested,
+                         Long createdAt,
+                         String organizationId,
+                         String noteBranchId,
+                         String noteOrderId) {
+    }
+
+    public boolean isPaymentEvent() {
+        return "payment.captured".equals(event) || "payment.failed".equals(event);
+    }
+
+    public boolean isRefundEvent() {
+        return event != null && event.startsWith("refund.");
+    }
+}
@@ -0,0 +1,166 @@
+package com.lemicare.payment.service.webhook;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads a Razorpay webhook body into a {@link RazorpayWebhookEvent} in a single streaming pass.
+ * <p>
+ * Webhook bodies run to several KB, most of it card, bank and acquirer details and free-form
+ * notes that the service never reads. Building a full JSON tree for each of them (and a
+ * String of the body first) was the bulk of the webhook workers' garbage during settlement
+ * bursts. This parser reads the raw bytes, keeps only the fields in
+ * {@link RazorpayWebhookEvent.Entity}, and skips every other section without materializing it.
+ */
+public final class RazorpayWebhookParser {
+    private RazorpayWebhookParser() {}
+
+    // Thread-safe, and shares its field-name symbol table between parsers, so the
+    // repeated Razorpay field names are not allocated again for every webhook.
+    private static final JsonFactory JSON = JsonFactory.builder().build();
+
+    /**
+     * @throws IOException if the body is not JSON, has no event type, or a payment or refund
+     *                     entity lacks the fields every Razorpay entity carries.
+     */
+    public static RazorpayWebhookEvent parse(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            String event = null;
+            RazorpayWebhookEvent.Entity payment = null;
+            RazorpayWebhookEvent.Entity refund = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("event".equals(field)) {
+                    event = text(parser, value);
+                } else if ("payload".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String section = parser.currentName();
+                        JsonToken sectionValue = parser.nextToken();
+                        if ("payment".equals(section) && sectionValue == JsonToken.START_OBJECT) {
+                            payment = wrappedEntity(parser);
+                        } else if ("refund".equals(section) && sectionValue == JsonToken.START_OBJECT) {
+                            refund = wrappedEntity(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (event == null) {
+                throw new JsonParseException(parser, "Webhook has no event type");
+            }
+            RazorpayWebhookEvent parsed = new RazorpayWebhookEvent(event, payment, refund);
+            if (parsed.isPaymentEvent() && (payment == null || payment.id() == null
+                    || payment.amount() == null || payment.createdAt() == null)) {
+                throw new JsonParseException(parser, "Webhook " + event + " has no complete payment entity");
+            }
+            if (parsed.isRefundEvent() && (refund == null || refund.id() == null)) {
+                throw new JsonParseException(parser, "Webhook " + event + " has no refund entity");
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Reads {"entity": {...}} with the parser on its opening brace.
+     */
+    private static RazorpayWebhookEvent.Entity wrappedEntity(JsonParser parser) throws IOException {
+        RazorpayWebhookEvent.Entity entity = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && "entity".equals(field)) {
+                entity = entity(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entity;
+    }
+
+    private static RazorpayWebhookEvent.Entity entity(JsonParser parser) throws IOException {
+        String id = null;
+        String orderId = null;
+        String paymentId = null;
+        Long amount = null;
+        String currency = null;
+        String status = null;
+        String method = null;
+        String speedRequested = null;
+        Long createdAt = null;
+        String organizationId = null;
+        String noteBranchId = null;
+        String noteOrderId = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = text(parser, value);
+                case "order_id" -> orderId = text(parser, value);
+                case "payment_id" -> paymentId = text(parser, value);
+                case "amount" -> amount = number(parser, value);
+                case "currency" -> currency = text(parser, value);
+                case "status" -> status = text(parser, value);
+                case "method" -> method = text(parser, value);
+                case "speed_requested" -> speedRequested = text(parser, value);
+                case "created_at" -> createdAt = number(parser, value);
+                case "notes" -> {
+                    // Razorpay sends [] rather than {} when there are no notes.
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String note = parser.currentName();
+                        JsonToken noteValue = parser.nextToken();
+                        switch (note) {
+                            case "organizationId" -> organizationId = text(parser, noteValue);
+                            case "branchId" -> noteBranchId = text(parser, noteValue);
+                            case "orderId" -> noteOrderId = text(parser, noteValue);
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                // card, acquirer_data, upi, emi and anything Razorpay adds later.
+                default -> parser.skipChildren();
+            }
+        }
+        return new RazorpayWebhookEvent.Entity(id, orderId, paymentId, amount, currency, status, method,
+                speedRequested, createdAt, organizationId, noteBranchId, noteOrderId);
+    }
+
+    /**
+     * A scalar as text; null for JSON null, and for an object or array, which is skipped.
+     */
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static Long number(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
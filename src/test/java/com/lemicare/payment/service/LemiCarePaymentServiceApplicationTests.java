@@ -6,6 +6,8 @@ import com.lemicare.payment.service.dto.request.CreateOrderRequest;
 import com.lemicare.payment.service.dto.request.VerifySignatureRequest;
 import com.lemicare.payment.service.dto.response.CreateOrderResponse;
 import com.lemicare.payment.service.filter.TenantFilter;
+import com.lemicare.payment.service.service.BulkOrderService;
+import com.lemicare.payment.service.service.OrderStatusStreamService;
 import com.lemicare.payment.service.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,12 @@ class PaymentControllerTest {
 	@MockBean
 	private PaymentService mockPaymentService;
 
+	@MockBean
+	private OrderStatusStreamService mockOrderStatusStreamService;
+
+	@MockBean
+	private BulkOrderService mockBulkOrderService;
+
 	private CreateOrderRequest validOrderRequest;
 	private VerifySignatureRequest validVerifyRequest;
 
@@ -61,7 +69,7 @@ class PaymentControllerTest {
 	@WithMockUser
 	void createPaymentOrder_whenValidRequest_shouldReturn200Ok() throws Exception {
 		CreateOrderResponse mockResponse = new CreateOrderResponse("order_ABC123", "rzp_test_key", 1500.00, "CosmicDoc");
-		when(mockPaymentService.createOrder(any(), any(), any(CreateOrderRequest.class))).thenReturn(mockResponse);
+		when(mockPaymentService.createOrder(any(), any(), any(CreateOrderRequest.class), any())).thenReturn(mockResponse);
 
 		mockMvc.perform(post("/api/internal/payments/create-order")
 						.with(csrf())
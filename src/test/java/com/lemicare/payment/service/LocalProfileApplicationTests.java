@@ -0,0 +1,26 @@
+package com.lemicare.payment.service;
+
+import com.cosmicdoc.common.repository.PaymentOrderRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * The 'local' profile starts the whole application without Firebase credentials or network.
+ */
+@SpringBootTest
+@ActiveProfiles("local")
+class LocalProfileApplicationTests {
+
+	@Autowired
+	private PaymentOrderRepository paymentOrderRepository;
+
+	@Test
+	void contextLoads_withInMemoryRepositories() {
+		assertInstanceOf(InMemoryPaymentOrderRepository.class, paymentOrderRepository);
+	}
+}
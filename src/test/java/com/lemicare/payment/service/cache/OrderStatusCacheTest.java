@@ -0,0 +1,88 @@
+package com.lemicare.payment.service.cache;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.lemicare.payment.service.service.OrderStateMachine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderStatusCacheTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final OrderStatusCache cache = new OrderStatusCache(100, 5, nanos::get);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void get_whenTheOrderIsCreated_shouldReloadAfterThePendingTtl() {
+		assertEquals(OrderStateMachine.CREATED, get(OrderStateMachine.CREATED));
+
+		advance(Duration.ofSeconds(4));
+		get(OrderStateMachine.CREATED);
+		assertEquals(1, loads.get());
+
+		advance(Duration.ofSeconds(1));
+		// Another instance marked it paid meanwhile.
+		assertEquals(OrderStateMachine.PAID, get(OrderStateMachine.PAID));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void get_whenTheOrderIsTerminal_shouldKeepItPastThePendingTtl() {
+		get(OrderStateMachine.PAID);
+
+		advance(Duration.ofDays(1));
+		assertEquals(OrderStateMachine.PAID, get(OrderStateMachine.CREATED));
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void put_shouldWriteTheNewStatusThrough() {
+		get(OrderStateMachine.CREATED);
+
+		cache.put(order(OrderStateMachine.CANCELLED));
+
+		assertEquals(OrderStateMachine.CANCELLED, get(OrderStateMachine.CREATED));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void get_whenTheOrderIsMissing_shouldNotCacheTheMiss() {
+		cache.get("org_a", "br_1", "ord_1", () -> {
+			loads.incrementAndGet();
+			return Optional.empty();
+		});
+
+		get(OrderStateMachine.CREATED);
+
+		assertEquals(2, loads.get());
+	}
+
+	private String get(String storedStatus) {
+		return cache.get("org_a", "br_1", "ord_1", () -> {
+			loads.incrementAndGet();
+			return Optional.of(order(storedStatus));
+		}).orElseThrow().getStatus();
+	}
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+
+	private static PaymentOrder order(String status) {
+		return PaymentOrder.builder()
+				.orderId("ord_1")
+				.organizationId("org_a")
+				.branchId("br_1")
+				.razorpayOrderId("order_1")
+				.amount(500)
+				.currency("INR")
+				.status(status)
+				.build();
+	}
+}
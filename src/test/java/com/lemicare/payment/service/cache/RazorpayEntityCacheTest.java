@@ -0,0 +1,98 @@
+package com.lemicare.payment.service.cache;
+
+import com.razorpay.Payment;
+import com.razorpay.Refund;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RazorpayEntityCacheTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final RazorpayEntityCache cache = new RazorpayEntityCache(100, 3600, 15, nanos::get);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void getPayment_whenAnotherOrganizationLoadedIt_shouldLoadAgain() throws Exception {
+		Payment orgA = getPayment("org_a", "captured");
+
+		Payment orgB = getPayment("org_b", "captured");
+
+		assertEquals(2, loads.get());
+		assertSame(orgB, getPayment("org_b", "captured"));
+		assertEquals(2, loads.get());
+		assertEquals("org_a", orgA.get("notes").toString());
+	}
+
+	@Test
+	void getPayment_whenCaptured_shouldExpireWithTheInFlightTtl() throws Exception {
+		getPayment("org_a", "captured");
+
+		advance(Duration.ofSeconds(16));
+		getPayment("org_a", "captured");
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void getPayment_whenRefunded_shouldKeepItForTheTerminalTtl() throws Exception {
+		getPayment("org_a", "refunded");
+
+		advance(Duration.ofMinutes(30));
+		getPayment("org_a", "refunded");
+		assertEquals(1, loads.get());
+
+		advance(Duration.ofMinutes(31));
+		getPayment("org_a", "refunded");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void getRefund_whenProcessed_shouldKeepItForTheTerminalTtl() throws Exception {
+		cache.getRefund("org_a", "rfnd_1", () -> refund("processed"));
+
+		advance(Duration.ofMinutes(30));
+		cache.getRefund("org_a", "rfnd_1", () -> refund("processed"));
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void getPayment_whenInvalidatedWhileLoading_shouldNotCacheTheStaleLoad() throws Exception {
+		cache.getPayment("org_a", "pay_1", () -> {
+			// A webhook reports the refund while this load is reading the old state.
+			cache.invalidatePayment("pay_1");
+			return payment("org_a", "captured");
+		});
+
+		getPayment("org_a", "refunded");
+
+		assertEquals(1, loads.get());
+	}
+
+	private Payment getPayment(String orgId, String status) throws Exception {
+		return cache.getPayment(orgId, "pay_1", () -> {
+			loads.incrementAndGet();
+			return payment(orgId, status);
+		});
+	}
+
+	private static Payment payment(String orgId, String status) {
+		return new Payment(new JSONObject().put("id", "pay_1").put("status", status).put("notes", orgId));
+	}
+
+	private Refund refund(String status) {
+		loads.incrementAndGet();
+		return new Refund(new JSONObject().put("id", "rfnd_1").put("status", status));
+	}
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+}
@@ -0,0 +1,78 @@
+package com.lemicare.payment.service.cache;
+
+import com.lemicare.payment.service.model.RazorpayOrderIndexEntry;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRazorpayOrderIndexRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RazorpayOrderIndexTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	// Stands in for Firestore, shared with "another instance" that indexes orders directly.
+	private final InMemoryRazorpayOrderIndexRepository repository = spy(new InMemoryRazorpayOrderIndexRepository());
+	private final RazorpayOrderIndex index = new RazorpayOrderIndex(repository, 100, 100, 60, nanos::get);
+
+	@Test
+	void resolve_whenTheOrderIsUnknown_shouldRememberTheMissUntilItExpires() {
+		assertEquals(Optional.empty(), index.resolve("order_1"));
+		// Another instance indexes the order right after the miss.
+		repository.save(entry("order_1"));
+
+		advance(Duration.ofSeconds(59));
+		assertEquals(Optional.empty(), index.resolve("order_1"));
+		verify(repository, times(1)).findByRazorpayOrderId("order_1");
+
+		advance(Duration.ofSeconds(1));
+		assertEquals("ord_order_1", index.resolve("order_1").orElseThrow().getOrderId());
+		verify(repository, times(2)).findByRazorpayOrderId("order_1");
+	}
+
+	@Test
+	void register_shouldReplaceTheNegativeEntry() {
+		index.resolve("order_1");
+
+		index.register(entry("order_1"));
+
+		assertEquals("ord_order_1", index.resolve("order_1").orElseThrow().getOrderId());
+		verify(repository, times(1)).findByRazorpayOrderId("order_1");
+	}
+
+	@Test
+	void resolveAll_shouldOnlyReadIdsThatAreNeitherKnownNorRecentlyMissed() {
+		index.register(entry("order_known"));
+		index.resolve("order_missing");
+		repository.save(entry("order_new"));
+
+		Map<String, RazorpayOrderIndexEntry> resolved = index.resolveAll(List.of("order_known", "order_missing", "order_new"));
+
+		assertEquals(List.of("order_known", "order_new"), resolved.keySet().stream().sorted().toList());
+		verify(repository).findAllByRazorpayOrderIds(List.of("order_new"));
+
+		advance(Duration.ofSeconds(60));
+		index.resolveAll(List.of("order_known", "order_missing"));
+		verify(repository).findAllByRazorpayOrderIds(List.of("order_missing"));
+	}
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+
+	private static RazorpayOrderIndexEntry entry(String razorpayOrderId) {
+		return RazorpayOrderIndexEntry.builder()
+				.razorpayOrderId(razorpayOrderId)
+				.organizationId("org_a")
+				.branchId("br_1")
+				.orderId("ord_" + razorpayOrderId)
+				.build();
+	}
+}
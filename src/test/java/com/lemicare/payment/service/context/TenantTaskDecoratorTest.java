@@ -0,0 +1,70 @@
+package com.lemicare.payment.service.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TenantTaskDecoratorTest {
+
+	private static final TenantContext.Tenant TENANT_A = new TenantContext.Tenant("org_a", "br_1", "user_1");
+	private static final TenantContext.Tenant TENANT_B = new TenantContext.Tenant("org_b", "br_2", "user_2");
+
+	private final TenantTaskDecorator decorator = new TenantTaskDecorator();
+	// One worker thread, so consecutive tasks show what the thread is left with.
+	private final ExecutorService worker = Executors.newSingleThreadExecutor();
+	private final TenantContext.Tenant[] seen = new TenantContext.Tenant[2];
+
+	@AfterEach
+	void tearDown() {
+		worker.shutdownNow();
+		TenantContext.clear();
+	}
+
+	@Test
+	void decorate_shouldRunTheTaskWithTheSubmittersTenant() throws Exception {
+		TenantContext.set(TENANT_A);
+		Runnable forA = decorator.decorate(recording(0));
+		TenantContext.set(TENANT_B);
+		Runnable forB = decorator.decorate(recording(1));
+		TenantContext.clear();
+
+		CompletableFuture.runAsync(forA, worker).get(5, TimeUnit.SECONDS);
+		CompletableFuture.runAsync(forB, worker).get(5, TimeUnit.SECONDS);
+
+		assertEquals(TENANT_A, seen[0]);
+		assertEquals(TENANT_B, seen[1]);
+	}
+
+	@Test
+	void decorate_shouldLeaveTheWorkerThreadWithoutATenant() throws Exception {
+		TenantContext.set(TENANT_A);
+		Runnable decorated = decorator.decorate(() -> {});
+		TenantContext.clear();
+
+		CompletableFuture.runAsync(decorated, worker).get(5, TimeUnit.SECONDS);
+		CompletableFuture.runAsync(recording(0), worker).get(5, TimeUnit.SECONDS);
+
+		assertNull(seen[0]);
+	}
+
+	@Test
+	void decorate_whenSubmittedWithoutATenant_shouldNotLeakTheWorkersTenant() throws Exception {
+		// A worker thread that still has a tenant bound, e.g. by an undecorated task.
+		CompletableFuture.runAsync(() -> TenantContext.set(TENANT_B), worker).get(5, TimeUnit.SECONDS);
+
+		CompletableFuture.runAsync(decorator.decorate(recording(0)), worker).get(5, TimeUnit.SECONDS);
+
+		assertNull(seen[0]);
+	}
+
+	private Runnable recording(int slot) {
+		return () -> seen[slot] = TenantContext.current();
+	}
+}
@@ -0,0 +1,156 @@
+package com.lemicare.payment.service.controller;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.cache.OrderStatusCache;
+import com.lemicare.payment.service.cache.RazorpayEntityCache;
+import com.lemicare.payment.service.cache.RazorpayOrderIndex;
+import com.lemicare.payment.service.context.TenantContext;
+import com.lemicare.payment.service.event.PaymentEvent;
+import com.lemicare.payment.service.gateway.RazorpayGateway;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentTransactionRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRefundRecordRepository;
+import com.lemicare.payment.service.service.BulkOrderService;
+import com.lemicare.payment.service.service.IdempotencyService;
+import com.lemicare.payment.service.service.OrderStateMachine;
+import com.lemicare.payment.service.service.OrderStatusHub;
+import com.lemicare.payment.service.service.OrderStatusStreamService;
+import com.lemicare.payment.service.service.OutboxDispatcher;
+import com.lemicare.payment.service.service.PaymentService;
+import com.razorpay.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentControllerTest {
+
+	private static final String KEY_SECRET = "rzp_secret_test";
+
+	private final InMemoryPaymentTransactionRepository ledger = new InMemoryPaymentTransactionRepository();
+	private final InMemoryPaymentOrderRepository orders = new InMemoryPaymentOrderRepository(new InMemoryOutboxRepository());
+	private OrderStateMachine orderStateMachine;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		orderStateMachine = new OrderStateMachine(orders, mock(OutboxDispatcher.class));
+		ReflectionTestUtils.setField(orderStateMachine, "lockStripes", 16);
+		ReflectionTestUtils.setField(orderStateMachine, "maxAttempts", 5);
+		ReflectionTestUtils.invokeMethod(orderStateMachine, "init");
+		RazorpayOrderIndex razorpayOrderIndex = mock(RazorpayOrderIndex.class);
+		when(razorpayOrderIndex.resolve(anyString())).thenReturn(Optional.empty());
+
+		PaymentService paymentService = new PaymentService(mock(RazorpayGateway.class), orders, ledger, orders,
+				new InMemoryRefundRecordRepository(ledger), orderStateMachine, mock(RazorpayEntityCache.class),
+				razorpayOrderIndex, mock(OrderStatusCache.class), mock(OrderStatusHub.class), mock(IdempotencyService.class));
+		ReflectionTestUtils.setField(paymentService, "keySecret", KEY_SECRET);
+		mockMvc = MockMvcBuilders.standaloneSetup(new PaymentController(paymentService,
+				mock(OrderStatusStreamService.class), mock(BulkOrderService.class))).build();
+
+		TenantContext.set(new TenantContext.Tenant("org_a", "br_1", "user_1"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void listPayments_shouldPageThroughTheBranchsLedger() throws Exception {
+		for (int i = 1; i <= 3; i++) {
+			ledger.save(transaction("pay_" + i, "br_1", i));
+		}
+		ledger.save(transaction("pay_other", "br_2", 4));
+
+		mockMvc.perform(get("/api/internal/payments/transactions").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.transactions[0].paymentId").value("pay_3"))
+				.andExpect(jsonPath("$.transactions[1].paymentId").value("pay_2"))
+				.andExpect(jsonPath("$.nextPageToken").value("pay_2"));
+		mockMvc.perform(get("/api/internal/payments/transactions").param("limit", "2").param("pageToken", "pay_2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.transactions.length()").value(1))
+				.andExpect(jsonPath("$.transactions[0].paymentId").value("pay_1"))
+				.andExpect(jsonPath("$.nextPageToken").doesNotExist());
+	}
+
+	@Test
+	void listPayments_whenThePageTokenIsFromAnotherBranch_shouldReturnAnEmptyPage() throws Exception {
+		ledger.save(transaction("pay_1", "br_1", 1));
+		ledger.save(transaction("pay_other", "br_2", 2));
+
+		mockMvc.perform(get("/api/internal/payments/transactions").param("pageToken", "pay_other"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.transactions.length()").value(0));
+	}
+
+	@Test
+	void verifyPayment_whenTheWebhookRecordedThePaymentFirst_shouldAddTheInvoiceToTheLedger() throws Exception {
+		orders.save(PaymentOrder.builder()
+				.orderId("ord_1")
+				.organizationId("org_a")
+				.branchId("br_1")
+				.razorpayOrderId("order_1")
+				.sourceService("opd")
+				.sourceInvoiceId("inv_1")
+				.amount(500)
+				.currency("INR")
+				.status(OrderStateMachine.CREATED)
+				.createdAt(Timestamp.now())
+				.build());
+		// The webhook marks the order paid and records the payment without the invoice.
+		orderStateMachine.transition("org_a", "br_1", "ord_1", OrderStateMachine.PAID,
+				order -> order.setRazorpayPaymentId("pay_1"), PaymentEvent.PAYMENT_SUCCESS);
+		PaymentTransaction fromWebhook = transaction("pay_1", "br_1", 1).toBuilder()
+				.sourceService(null)
+				.sourceInvoiceId(null)
+				.status("captured")
+				.build();
+		ledger.save(fromWebhook);
+
+		mockMvc.perform(post("/api/internal/payments/verify-payment")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								{"razorpayOrderId": "order_1", "razorpayPaymentId": "pay_1", "razorpaySignature": "%s"}
+								""".formatted(Utils.getHash("order_1|pay_1", KEY_SECRET))))
+				.andExpect(status().isOk());
+
+		PaymentTransaction stored = ledger.findByPaymentId("pay_1").orElseThrow();
+		assertEquals("opd", stored.getSourceService());
+		assertEquals("inv_1", stored.getSourceInvoiceId());
+		assertEquals("captured", stored.getStatus());
+		assertEquals(fromWebhook.getCreatedAt(), stored.getCreatedAt());
+	}
+
+	private static PaymentTransaction transaction(String paymentId, String branchId, int second) {
+		return PaymentTransaction.builder()
+				.paymentId(paymentId)
+				.organizationId("org_a")
+				.branchId(branchId)
+				.orderId("ord_" + paymentId)
+				.sourceService("opd")
+				.sourceInvoiceId("inv_" + paymentId)
+				.amount(500.0)
+				.currency("INR")
+				.createdAt(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L + second, 0))
+				.build();
+	}
+}
@@ -0,0 +1,43 @@
+package com.lemicare.payment.service.controller;
+
+import com.lemicare.payment.service.service.WebhookIngestionService;
+import com.razorpay.RazorpayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WebhookControllerTest {
+
+	private final WebhookIngestionService webhookIngestionService = mock(WebhookIngestionService.class);
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new WebhookController(webhookIngestionService)).build();
+
+	@Test
+	void handleRazorpayWebhook_shouldAnswerEachOutcome() throws Exception {
+		when(webhookIngestionService.ingest(eq("evt_new"), any(), eq("sig"))).thenReturn(WebhookIngestionService.Outcome.ACCEPTED);
+		when(webhookIngestionService.ingest(eq("evt_seen"), any(), eq("sig"))).thenReturn(WebhookIngestionService.Outcome.DUPLICATE);
+		when(webhookIngestionService.ingest(eq("evt_full"), any(), eq("sig"))).thenReturn(WebhookIngestionService.Outcome.REJECTED);
+		when(webhookIngestionService.ingest(eq("evt_forged"), any(), eq("sig")))
+				.thenThrow(new RazorpayException("Invalid webhook signature"));
+
+		webhook("evt_new").andExpect(status().isOk());
+		webhook("evt_seen").andExpect(status().isOk());
+		// Razorpay retries non-2xx responses, so a full queue must not answer 2xx.
+		webhook("evt_full").andExpect(status().isServiceUnavailable());
+		webhook("evt_forged").andExpect(status().isBadRequest());
+	}
+
+	private ResultActions webhook(String eventId) throws Exception {
+		return mockMvc.perform(post("/api/webhooks/razorpay")
+				.content("{\"event\":\"payment.captured\"}")
+				.header("X-Razorpay-Event-Id", eventId)
+				.header("X-Razorpay-Signature", "sig"));
+	}
+}
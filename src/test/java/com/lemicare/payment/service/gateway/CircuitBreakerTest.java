@@ -0,0 +1,125 @@
+package com.lemicare.payment.service.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	private final MutableClock clock = new MutableClock();
+	// Opens at 50% failures over the last 4 calls, once 4 calls were seen; 2 trial calls after 1s open.
+	private final CircuitBreaker breaker = new CircuitBreaker(50, 4, 4, 1000, 2, clock);
+
+	@Test
+	void onFailure_whenTheFailureRateReachesTheThreshold_shouldOpen() {
+		fail();
+		fail();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		succeed();
+		fail();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void onFailure_whenOldFailuresLeftTheWindow_shouldStayClosed() {
+		fail();
+		succeed();
+		succeed();
+		succeed();
+		// The first failure slides out as this one comes in: 1 of the last 4 failed.
+		fail();
+
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void tryAcquirePermission_whenTheOpenDurationHasPassed_shouldLetTheTrialCallsThroughAndClose() {
+		open();
+		clock.advance(999);
+		assertFalse(breaker.tryAcquirePermission());
+
+		clock.advance(1);
+		assertTrue(breaker.tryAcquirePermission());
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		breaker.onSuccess();
+		breaker.onSuccess();
+
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		// The window starts empty again, so one failure does not re-open it.
+		fail();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void onFailure_whenATrialCallFails_shouldOpenAgain() {
+		open();
+		clock.advance(1000);
+		assertTrue(breaker.tryAcquirePermission());
+
+		breaker.onFailure();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+		clock.advance(1000);
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	private void open() {
+		for (int i = 0; i < 4; i++) {
+			fail();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	private void succeed() {
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onSuccess();
+	}
+
+	private void fail() {
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onFailure();
+	}
+
+	private static class MutableClock extends Clock {
+
+		private long millis = 1_700_000_000_000L;
+
+		void advance(long deltaMillis) {
+			millis += deltaMillis;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.lemicare.payment.service.gateway;
+
+import com.razorpay.RazorpayException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RazorpayFailureTest {
+
+	@Test
+	void classify_shouldReadTheMessagesTheSdkAndTransportProduce() {
+		assertEquals(RazorpayFailure.CIRCUIT_OPEN, classify(RazorpayTransportInterceptor.CIRCUIT_OPEN_MESSAGE));
+		assertEquals(RazorpayFailure.NOT_SENT, classify(RazorpayTransportInterceptor.NOT_SENT_PREFIX + "Connection refused"));
+		assertEquals(RazorpayFailure.SERVER_ERROR, classify("Status Code: 502"));
+		assertEquals(RazorpayFailure.SERVER_ERROR, classify("SERVER_ERROR:The server encountered an error."));
+		assertEquals(RazorpayFailure.SERVER_ERROR, classify("GATEWAY_ERROR:Payment processing failed."));
+		assertEquals(RazorpayFailure.NOT_FOUND, classify("BAD_REQUEST_ERROR:The id provided does not exist"));
+		assertEquals(RazorpayFailure.CLIENT_ERROR, classify("BAD_REQUEST_ERROR:The amount must be at least INR 1.00"));
+		assertEquals(RazorpayFailure.NOT_FOUND, classify("Status Code: 404"));
+		assertEquals(RazorpayFailure.CLIENT_ERROR, classify("Status Code: 401"));
+		assertEquals(RazorpayFailure.TRANSPORT, classify("timeout"));
+		assertEquals(RazorpayFailure.TRANSPORT, RazorpayFailure.classify(new RazorpayException((String) null)));
+	}
+
+	@Test
+	void isRetryable_shouldOnlyRepeatWritesThatWereNeverSent() {
+		assertTrue(RazorpayFailure.NOT_SENT.isRetryable(false));
+		assertFalse(RazorpayFailure.SERVER_ERROR.isRetryable(false));
+		assertFalse(RazorpayFailure.TRANSPORT.isRetryable(false));
+		assertTrue(RazorpayFailure.SERVER_ERROR.isRetryable(true));
+		assertTrue(RazorpayFailure.TRANSPORT.isRetryable(true));
+		assertFalse(RazorpayFailure.CLIENT_ERROR.isRetryable(true));
+		assertFalse(RazorpayFailure.NOT_FOUND.isRetryable(true));
+		assertFalse(RazorpayFailure.CIRCUIT_OPEN.isRetryable(true));
+	}
+
+	private static RazorpayFailure classify(String message) {
+		return RazorpayFailure.classify(new RazorpayException(message));
+	}
+}
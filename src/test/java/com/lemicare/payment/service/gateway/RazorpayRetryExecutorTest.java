@@ -0,0 +1,167 @@
+package com.lemicare.payment.service.gateway;
+
+import com.razorpay.RazorpayException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RazorpayRetryExecutorTest {
+
+	private final RazorpayRetryExecutor executor = new RazorpayRetryExecutor(3, 1, 5, 6000, 20000, false, 0.95, 100);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+		Deadline.clear();
+	}
+
+	@Test
+	void executeRead_whenTheGatewayFailsOnce_shouldRetry() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = executor.executeRead(() -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new RazorpayException("Status Code: 503");
+			}
+			return "pay_1";
+		});
+
+		assertEquals("pay_1", result);
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void executeWrite_whenTheRequestMayHaveReachedTheGateway_shouldNotRetry() {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(RazorpayException.class, () -> executor.executeWrite(() -> {
+			calls.incrementAndGet();
+			throw new RazorpayException("Status Code: 503");
+		}));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void executeWrite_whenTheRequestWasNeverSent_shouldRetry() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = executor.executeWrite(() -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new RazorpayException(RazorpayTransportInterceptor.NOT_SENT_PREFIX + "Connection refused");
+			}
+			return "order_1";
+		});
+
+		assertEquals("order_1", result);
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void executeRead_whenTheCallerDeadlineIsShorter_shouldBindItForEachAttempt() throws Exception {
+		Deadline caller = Deadline.afterMillis(500);
+		Deadline.set(caller);
+
+		Deadline seen = executor.executeRead(Deadline::current);
+
+		assertSame(caller, seen);
+		assertSame(caller, Deadline.current());
+	}
+
+	@Test
+	void executeRead_whenTheCallerDeadlineHasPassed_shouldNotCallTheGateway() {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(RazorpayException.class, () -> executor.executeRead(() -> {
+			calls.incrementAndGet();
+			return "pay_1";
+		}, Deadline.afterMillis(0)));
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	void executeRead_whenNoTimeIsLeftForTheBackoff_shouldStopRetrying() {
+		RazorpayRetryExecutor slowBackoff = new RazorpayRetryExecutor(5, 1000, 1000, 6000, 20000, false, 0.95, 100);
+		AtomicInteger calls = new AtomicInteger();
+		try {
+			// Full jitter may draw a short backoff, but no draw fits twice in 50ms.
+			assertThrows(RazorpayException.class, () -> slowBackoff.executeRead(() -> {
+				calls.incrementAndGet();
+				awaitUninterruptibly(new CountDownLatch(1), 30);
+				throw new RazorpayException("Status Code: 503");
+			}, Deadline.afterMillis(50)));
+			assertTrue(calls.get() <= 2);
+		} finally {
+			slowBackoff.shutdown();
+		}
+	}
+
+	@Test
+	void executeRead_whenTheFirstRequestIsSlow_shouldAnswerWithTheHedge() throws Exception {
+		RazorpayRetryExecutor hedging = new RazorpayRetryExecutor(3, 1, 5, 6000, 20000, true, 0.95, 32);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		try {
+			for (int i = 0; i < 32; i++) {
+				hedging.executeRead(() -> "warm-up");
+			}
+
+			String result = hedging.executeRead(() -> {
+				if (calls.incrementAndGet() == 1) {
+					awaitUninterruptibly(release, 5000);
+					return "primary";
+				}
+				return "hedge";
+			});
+
+			assertEquals("hedge", result);
+			assertEquals(2, calls.get());
+		} finally {
+			release.countDown();
+			hedging.shutdown();
+		}
+	}
+
+	@Test
+	void executeRead_whenHedged_shouldBindTheDeadlineOnTheHedgeThread() throws Exception {
+		RazorpayRetryExecutor hedging = new RazorpayRetryExecutor(3, 1, 5, 6000, 20000, true, 0.95, 32);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Deadline caller = Deadline.afterMillis(3000);
+		try {
+			for (int i = 0; i < 32; i++) {
+				hedging.executeRead(() -> null);
+			}
+
+			Deadline seen = hedging.executeRead(() -> {
+				if (calls.incrementAndGet() == 1) {
+					awaitUninterruptibly(release, 5000);
+					return null;
+				}
+				return Deadline.current();
+			}, caller);
+
+			assertSame(caller, seen);
+			assertNull(Deadline.current());
+		} finally {
+			release.countDown();
+			hedging.shutdown();
+		}
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch, long millis) {
+		try {
+			latch.await(millis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.lemicare.payment.service.gateway;
+
+import com.lemicare.payment.service.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantBulkheadTest {
+
+	private final TenantBulkhead bulkhead = new TenantBulkhead(1, 20);
+
+	@Test
+	void call_whenTheTenantHasNoFreeSlot_shouldRejectWith429() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> holding = executor.submit(() -> bulkhead.call("org_a", () -> {
+				started.countDown();
+				awaitUninterruptibly(release);
+				return "pay_1";
+			}));
+			started.await(5, TimeUnit.SECONDS);
+
+			TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+					() -> bulkhead.call("org_a", () -> "pay_2"));
+			// Other tenants have their own slots.
+			assertEquals("pay_3", bulkhead.call("org_b", () -> "pay_3"));
+
+			release.countDown();
+			assertEquals("pay_1", holding.get(5, TimeUnit.SECONDS));
+			assertEquals("pay_2", bulkhead.call("org_a", () -> "pay_2"));
+			assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+					AnnotationUtils.findAnnotation(rejected.getClass(), ResponseStatus.class).value());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void call_whenTheCallFails_shouldReleaseTheSlot() {
+		assertThrows(IllegalStateException.class, () -> bulkhead.call("org_a", () -> {
+			throw new IllegalStateException("Gateway down");
+		}));
+
+		assertEquals("pay_1", assertDoesNotThrow(() -> bulkhead.call("org_a", () -> "pay_1")));
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
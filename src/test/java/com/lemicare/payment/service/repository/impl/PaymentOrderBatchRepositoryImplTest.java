@@ -0,0 +1,146 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentOrderBatchRepositoryImplTest {
+
+	private static final String PATH_TEMPLATE = "organizations/{organizationId}/branches/{branchId}/payment_orders";
+
+	// Firestore documents by path, as the shared repository would have written them.
+	private final Map<String, PaymentOrder> documents = new HashMap<>();
+	private final Firestore firestore = firestore();
+	// Stands in for the shared library's repository, for the layout check.
+	private final InMemoryPaymentOrderRepository sharedRepository = new InMemoryPaymentOrderRepository(new InMemoryOutboxRepository());
+	private final PaymentOrderBatchRepositoryImpl repository = new PaymentOrderBatchRepositoryImpl(
+			new PaymentOrderDocuments(firestore, sharedRepository, PATH_TEMPLATE));
+
+	@Test
+	void findAllById_shouldReadTheTenantsOrdersInOneGetAll() {
+		for (int i = 0; i < 10; i++) {
+			store(order("ord_" + i, "org_a"));
+		}
+		store(order("ord_other", "org_b"));
+
+		Map<String, PaymentOrder> found = repository.findAllById("org_a", "br_1",
+				List.of("ord_1", "ord_7", "ord_7", "ord_unknown", "ord_other", "../ord_1"));
+
+		assertEquals(Set.of("ord_1", "ord_7"), found.keySet());
+		assertEquals("CREATED", found.get("ord_7").getStatus());
+		verify(firestore, times(1)).getAll(any(DocumentReference[].class));
+	}
+
+	@Test
+	void findAllById_whenTheTemplateIsNotTenantScoped_shouldSkipOtherTenantsOrders() {
+		PaymentOrderBatchRepositoryImpl flat = new PaymentOrderBatchRepositoryImpl(
+				new PaymentOrderDocuments(firestore, sharedRepository, "payment_orders"));
+		PaymentOrder other = order("ord_1", "org_b");
+		documents.put("payment_orders/ord_1", other);
+
+		assertEquals(Map.of(), flat.findAllById("org_a", "br_1", List.of("ord_1")));
+	}
+
+	@Test
+	void saveAll_shouldSetEachOrderAtItsTenantsPathInBatchesOf500() {
+		List<PaymentOrder> orders = new ArrayList<>();
+		for (int i = 0; i < 501; i++) {
+			orders.add(order("ord_" + i, i % 2 == 0 ? "org_a" : "org_b"));
+		}
+
+		repository.saveAll(orders);
+
+		assertEquals(501, documents.size());
+		assertEquals("ord_13", documents.get("organizations/org_b/branches/br_1/payment_orders/ord_13").getOrderId());
+		assertEquals("ord_500", documents.get("organizations/org_a/branches/br_1/payment_orders/ord_500").getOrderId());
+		verify(firestore, times(2)).batch();
+	}
+
+	private void store(PaymentOrder order) {
+		documents.put("organizations/" + order.getOrganizationId() + "/branches/" + order.getBranchId()
+				+ "/payment_orders/" + order.getOrderId(), order);
+	}
+
+	private Firestore firestore() {
+		Firestore mock = mock(Firestore.class);
+		when(mock.collection(anyString())).thenAnswer(collectionCall -> {
+			String collectionPath = collectionCall.getArgument(0);
+			CollectionReference collection = mock(CollectionReference.class);
+			when(collection.document(anyString())).thenAnswer(documentCall -> {
+				String id = documentCall.getArgument(0);
+				DocumentReference document = mock(DocumentReference.class);
+				when(document.getPath()).thenReturn(collectionPath + "/" + id);
+				when(document.getId()).thenReturn(id);
+				return document;
+			});
+			return collection;
+		});
+		when(mock.batch()).thenAnswer(batchCall -> {
+			Map<String, PaymentOrder> pending = new HashMap<>();
+			WriteBatch batch = mock(WriteBatch.class);
+			when(batch.set(any(DocumentReference.class), any(PaymentOrder.class))).thenAnswer(setCall -> {
+				DocumentReference document = setCall.getArgument(0);
+				pending.put(document.getPath(), setCall.getArgument(1));
+				return batch;
+			});
+			when(batch.commit()).thenAnswer(commitCall -> {
+				documents.putAll(pending);
+				return ApiFutures.immediateFuture(List.of());
+			});
+			return batch;
+		});
+		when(mock.getAll(any(DocumentReference[].class))).thenAnswer(getAllCall -> {
+			Object[] references = getAllCall.getArguments();
+			return ApiFutures.immediateFuture(Arrays.stream(references)
+					.map(reference -> snapshot((DocumentReference) reference))
+					.toList());
+		});
+		return mock;
+	}
+
+	private DocumentSnapshot snapshot(DocumentReference reference) {
+		PaymentOrder order = documents.get(reference.getPath());
+		String id = reference.getId();
+		DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+		when(snapshot.exists()).thenReturn(order != null);
+		when(snapshot.getId()).thenReturn(id);
+		when(snapshot.toObject(PaymentOrder.class)).thenReturn(order);
+		return snapshot;
+	}
+
+	private static PaymentOrder order(String orderId, String orgId) {
+		return PaymentOrder.builder()
+				.orderId(orderId)
+				.organizationId(orgId)
+				.branchId("br_1")
+				.razorpayOrderId("order_" + orderId)
+				.amount(500)
+				.currency("INR")
+				.status("CREATED")
+				.createdAt(Timestamp.now())
+				.build();
+	}
+}
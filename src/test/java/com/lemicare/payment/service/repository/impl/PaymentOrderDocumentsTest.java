@@ -0,0 +1,100 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionGroup;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentOrderDocumentsTest {
+
+	private static final String PATH_TEMPLATE = "organizations/{organizationId}/branches/{branchId}/payment_orders";
+	private static final String ORDER_PATH = "organizations/org_a/branches/br_1/payment_orders/ord_1";
+
+	private final InMemoryPaymentOrderRepository sharedRepository = new InMemoryPaymentOrderRepository(new InMemoryOutboxRepository());
+
+	@Test
+	void checkLayout_whenTheSampledOrderIsAtTheTemplatedPath_shouldBeUp() {
+		sharedRepository.save(order());
+		PaymentOrderDocuments documents = new PaymentOrderDocuments(firestore(ORDER_PATH), sharedRepository, PATH_TEMPLATE);
+
+		documents.checkLayout();
+
+		assertEquals(Status.UP, documents.health().getStatus());
+	}
+
+	@Test
+	void checkLayout_whenTheSampledOrderIsElsewhere_shouldBeDown() {
+		sharedRepository.save(order());
+		PaymentOrderDocuments documents = new PaymentOrderDocuments(firestore("payment_orders/ord_1"),
+				sharedRepository, PATH_TEMPLATE);
+
+		documents.checkLayout();
+
+		assertEquals(Status.DOWN, documents.health().getStatus());
+	}
+
+	@Test
+	void checkLayout_whenTheSharedRepositoryMissesTheSampledOrder_shouldBeDown() {
+		PaymentOrderDocuments documents = new PaymentOrderDocuments(firestore(ORDER_PATH), sharedRepository, PATH_TEMPLATE);
+
+		documents.checkLayout();
+
+		assertEquals(Status.DOWN, documents.health().getStatus());
+	}
+
+	// A Firestore whose payment_orders collection group holds one order document at sampledPath.
+	private static Firestore firestore(String sampledPath) {
+		DocumentReference sampledReference = mock(DocumentReference.class);
+		when(sampledReference.getPath()).thenReturn(sampledPath);
+		QueryDocumentSnapshot sampled = mock(QueryDocumentSnapshot.class);
+		when(sampled.getId()).thenReturn("ord_1");
+		when(sampled.getReference()).thenReturn(sampledReference);
+		when(sampled.toObject(PaymentOrder.class)).thenReturn(order());
+		QuerySnapshot snapshot = mock(QuerySnapshot.class);
+		when(snapshot.getDocuments()).thenReturn(List.of(sampled));
+		Query limited = mock(Query.class);
+		when(limited.get()).thenReturn(ApiFutures.immediateFuture(snapshot));
+		CollectionGroup group = mock(CollectionGroup.class);
+		when(group.limit(1)).thenReturn(limited);
+
+		Firestore firestore = mock(Firestore.class);
+		when(firestore.collectionGroup("payment_orders")).thenReturn(group);
+		when(firestore.collection(anyString())).thenAnswer(collectionCall -> {
+			String collectionPath = collectionCall.getArgument(0);
+			CollectionReference collection = mock(CollectionReference.class);
+			when(collection.document(anyString())).thenAnswer(documentCall -> {
+				String path = collectionPath + "/" + documentCall.getArgument(0);
+				DocumentReference document = mock(DocumentReference.class);
+				when(document.getPath()).thenReturn(path);
+				return document;
+			});
+			return collection;
+		});
+		return firestore;
+	}
+
+	private static PaymentOrder order() {
+		return PaymentOrder.builder()
+				.orderId("ord_1")
+				.organizationId("org_a")
+				.branchId("br_1")
+				.status("CREATED")
+				.build();
+	}
+}
@@ -0,0 +1,91 @@
+package com.lemicare.payment.service.repository.impl;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentTransactionRepositoryImplTest {
+
+	private final Firestore firestore = mock(Firestore.class);
+	// Filters, ordering, limits and cursors return the same mock, standing in for the query.
+	private final CollectionReference collection = mock(CollectionReference.class, RETURNS_SELF);
+	private final PaymentTransactionRepositoryImpl repository = new PaymentTransactionRepositoryImpl(firestore);
+	private final DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+
+	@BeforeEach
+	void setUp() {
+		when(firestore.collection(PaymentTransactionRepositoryImpl.COLLECTION_NAME)).thenReturn(collection);
+		DocumentReference cursorReference = mock(DocumentReference.class);
+		when(collection.document("pay_9")).thenReturn(cursorReference);
+		when(cursorReference.get()).thenReturn(ApiFutures.immediateFuture(cursor));
+
+		QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+		when(document.toObject(PaymentTransaction.class)).thenReturn(PaymentTransaction.builder().paymentId("pay_8").build());
+		QuerySnapshot page = mock(QuerySnapshot.class);
+		when(page.getDocuments()).thenReturn(List.of(document));
+		when(collection.get()).thenReturn(ApiFutures.immediateFuture(page));
+	}
+
+	@Test
+	void findByOrganization_whenTheCursorIsTheTenants_shouldStartAfterIt() {
+		cursorOf("org_a", "br_1");
+
+		List<PaymentTransaction> found = repository.findByOrganization("org_a", "br_1", null, null, 50, "pay_9");
+
+		assertEquals(List.of("pay_8"), found.stream().map(PaymentTransaction::getPaymentId).toList());
+		verify(collection).startAfter(cursor);
+	}
+
+	@Test
+	void findByOrganization_whenTheCursorIsFromAnotherBranch_shouldReturnNothing() {
+		cursorOf("org_a", "br_2");
+
+		assertEquals(List.of(), repository.findByOrganization("org_a", "br_1", null, null, 50, "pay_9"));
+		verify(collection, never()).get();
+	}
+
+	@Test
+	void findByOrganization_whenTheCursorIsFromAnotherOrganization_shouldReturnNothing() {
+		cursorOf("org_b", "br_1");
+
+		assertEquals(List.of(), repository.findByOrganization("org_a", "br_1", null, null, 50, "pay_9"));
+		verify(collection, never()).get();
+	}
+
+	@Test
+	void toFields_shouldLeaveOutUnknownFieldsSoMergesKeepThem() {
+		Timestamp now = Timestamp.now();
+
+		Map<String, Object> fields = PaymentTransactionRepositoryImpl.toFields(PaymentTransaction.builder()
+				.paymentId("pay_1")
+				.status("captured")
+				.updatedAt(now)
+				.build());
+
+		assertEquals(Map.of("paymentId", "pay_1", "status", "captured", "updatedAt", now), fields);
+	}
+
+	private void cursorOf(String orgId, String branchId) {
+		when(cursor.exists()).thenReturn(true);
+		when(cursor.getString("organizationId")).thenReturn(orgId);
+		when(cursor.getString("branchId")).thenReturn(branchId);
+	}
+}
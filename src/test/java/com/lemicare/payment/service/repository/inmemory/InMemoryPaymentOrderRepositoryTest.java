@@ -0,0 +1,45 @@
+package com.lemicare.payment.service.repository.inmemory;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryPaymentOrderRepositoryTest {
+
+	private final InMemoryPaymentOrderRepository repository = new InMemoryPaymentOrderRepository(new InMemoryOutboxRepository());
+
+	@Test
+	void findByRazorpayOrderId_shouldOnlyResolveWithinTheTenant() {
+		repository.save(order("ord_1", "org_a", "CREATED"));
+
+		assertEquals("ord_1", repository.findByRazorpayOrderId("org_a", "br_1", "order_ord_1").orElseThrow().getOrderId());
+		assertTrue(repository.findByRazorpayOrderId("org_b", "br_1", "order_ord_1").isEmpty());
+		assertTrue(repository.findByRazorpayOrderId("org_a", "br_1", "order_unknown").isEmpty());
+	}
+
+	@Test
+	void save_shouldStoreACopy() {
+		PaymentOrder order = order("ord_1", "org_a", "CREATED");
+		repository.save(order);
+		order.setStatus("PAID");
+
+		assertEquals("CREATED", repository.findById("org_a", "br_1", "ord_1").orElseThrow().getStatus());
+	}
+
+	private static PaymentOrder order(String orderId, String orgId, String status) {
+		return PaymentOrder.builder()
+				.orderId(orderId)
+				.organizationId(orgId)
+				.branchId("br_1")
+				.razorpayOrderId("order_" + orderId)
+				.sourceService("opd")
+				.amount(500)
+				.currency("INR")
+				.status(status)
+				.createdAt(Timestamp.now())
+				.build();
+	}
+}
@@ -0,0 +1,95 @@
+package com.lemicare.payment.service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwtDecoderTest {
+
+	private final AtomicInteger decodes = new AtomicInteger();
+
+	@Test
+	void decode_whenTokenRepeats_shouldReturnCachedJwt() {
+		CachingJwtDecoder decoder = decoder(Instant.now().plusSeconds(3600));
+
+		Jwt first = decoder.decode("token-a");
+		Jwt second = decoder.decode("token-a");
+		decoder.decode("token-b");
+
+		assertSame(first, second);
+		assertEquals(2, decodes.get());
+	}
+
+	@Test
+	void decode_whenTokenExpiresWithinMargin_shouldNotCache() {
+		CachingJwtDecoder decoder = decoder(Instant.now().plusSeconds(20));
+
+		decoder.decode("token-a");
+		decoder.decode("token-a");
+
+		assertEquals(2, decodes.get());
+	}
+
+	@Test
+	void decode_whenDelegateRejectsToken_shouldRethrowEveryTime() {
+		CachingJwtDecoder decoder = new CachingJwtDecoder(token -> {
+			decodes.incrementAndGet();
+			throw new BadJwtException("Invalid signature");
+		}, 100, Duration.ofSeconds(30), Duration.ofMinutes(5));
+
+		assertThrows(BadJwtException.class, () -> decoder.decode("token-a"));
+		assertThrows(BadJwtException.class, () -> decoder.decode("token-a"));
+
+		assertEquals(2, decodes.get());
+	}
+
+	@Test
+	void decode_onVirtualThreads_shouldKeepEachTokenUnderItsOwnKey() throws Exception {
+		CachingJwtDecoder decoder = decoder(Instant.now().plusSeconds(3600));
+		List<Callable<Jwt>> decodings = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			String token = "token-" + (i % 50);
+			decodings.add(() -> decoder.decode(token));
+		}
+
+		List<Future<Jwt>> results;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			results = executor.invokeAll(decodings);
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals("token-" + (i % 50), results.get(i).get().getTokenValue());
+		}
+		int decoded = decodes.get();
+		for (int i = 0; i < 50; i++) {
+			assertEquals("token-" + i, decoder.decode("token-" + i).getTokenValue());
+		}
+		assertEquals(decoded, decodes.get());
+	}
+
+	private CachingJwtDecoder decoder(Instant expiresAt) {
+		return new CachingJwtDecoder(token -> {
+			decodes.incrementAndGet();
+			return Jwt.withTokenValue(token)
+					.header("alg", "HS256")
+					.subject("user_42")
+					.issuedAt(Instant.now())
+					.expiresAt(expiresAt)
+					.build();
+		}, 100, Duration.ofSeconds(30), Duration.ofMinutes(5));
+	}
+}
@@ -0,0 +1,102 @@
+package com.lemicare.payment.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemicare.payment.service.cache.RazorpayEntityCache;
+import com.lemicare.payment.service.dto.request.CreateRefundRequestDto;
+import com.lemicare.payment.service.dto.response.BatchRefundItemResult;
+import com.lemicare.payment.service.gateway.RazorpayGateway;
+import com.lemicare.payment.service.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentTransactionRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRefundRecordRepository;
+import com.razorpay.Refund;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchRefundServiceTest {
+
+	private final RazorpayGateway razorpayGateway = mock(RazorpayGateway.class);
+	private final AtomicInteger refunds = new AtomicInteger();
+	private BatchRefundService batchRefundService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		IdempotencyService idempotencyService = new IdempotencyService(new InMemoryIdempotencyRecordRepository(), new ObjectMapper());
+		ReflectionTestUtils.setField(idempotencyService, "retentionHours", 24L);
+		ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 60L);
+		ReflectionTestUtils.setField(idempotencyService, "hotMaxEntries", 100L);
+		ReflectionTestUtils.setField(idempotencyService, "hotTtlSeconds", 60L);
+		ReflectionTestUtils.setField(idempotencyService, "lockStripes", 16);
+		idempotencyService.init();
+		InMemoryRefundRecordRepository refundRecords = new InMemoryRefundRecordRepository(new InMemoryPaymentTransactionRepository());
+		RefundService refundService = new RefundService(razorpayGateway, mock(RazorpayEntityCache.class), idempotencyService,
+				refundRecords);
+		batchRefundService = new BatchRefundService(refundService, refundRecords, 1000, 4, 100, 5, 60);
+
+		when(razorpayGateway.refundPayment(eq("org_a"), anyString(), any(JSONObject.class))).thenAnswer(call ->
+				new Refund(new JSONObject()
+						.put("id", "rfnd_" + refunds.incrementAndGet())
+						.put("payment_id", (String) call.getArgument(1))
+						.put("amount", ((JSONObject) call.getArgument(2)).getInt("amount"))
+						.put("status", "processed")));
+	}
+
+	@Test
+	void run_whenTheBatchRefundsOnePaymentTwice_shouldMakeBothRefunds() throws Exception {
+		List<BatchRefundItemResult> results = run("batch_1", request("pay_1", 100.0), request("pay_1", 50.0));
+
+		assertEquals(List.of(BatchRefundItemResult.CREATED, BatchRefundItemResult.CREATED),
+				results.stream().map(BatchRefundItemResult::getStatus).toList());
+		verify(razorpayGateway, times(2)).refundPayment(eq("org_a"), eq("pay_1"), any(JSONObject.class));
+	}
+
+	@Test
+	void run_whenTheBatchIsResent_shouldReplayEveryRefund() throws Exception {
+		List<BatchRefundItemResult> first = run("batch_1", request("pay_1", 100.0), request("pay_1", 100.0));
+		List<BatchRefundItemResult> resent = run("batch_1", request("pay_1", 100.0), request("pay_1", 100.0));
+
+		assertEquals(first.stream().map(BatchRefundItemResult::getRefundId).toList(),
+				resent.stream().map(BatchRefundItemResult::getRefundId).toList());
+		verify(razorpayGateway, times(2)).refundPayment(eq("org_a"), eq("pay_1"), any(JSONObject.class));
+	}
+
+	@Test
+	void run_whenAResentItemHasMoved_shouldFailItInsteadOfRefunding() {
+		run("batch_1", request("pay_1", 100.0), request("pay_2", 50.0));
+
+		List<BatchRefundItemResult> reordered = run("batch_1", request("pay_2", 50.0), request("pay_1", 100.0));
+
+		assertEquals(List.of(BatchRefundItemResult.FAILED, BatchRefundItemResult.FAILED),
+				reordered.stream().map(BatchRefundItemResult::getStatus).toList());
+		assertEquals(2, refunds.get());
+	}
+
+	private List<BatchRefundItemResult> run(String batchKey, CreateRefundRequestDto... requests) {
+		ConcurrentLinkedQueue<BatchRefundItemResult> results = new ConcurrentLinkedQueue<>();
+		batchRefundService.run("org_a", "user_1", batchKey, List.of(requests), results::add);
+		return results.stream().sorted(Comparator.comparingInt(BatchRefundItemResult::getIndex)).toList();
+	}
+
+	private static CreateRefundRequestDto request(String paymentId, double amount) {
+		CreateRefundRequestDto request = new CreateRefundRequestDto();
+		request.setPaymentId(paymentId);
+		request.setAmount(amount);
+		request.setReason("Event cancelled");
+		return request;
+	}
+}
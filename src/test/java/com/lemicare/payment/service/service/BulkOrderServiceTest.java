@@ -0,0 +1,133 @@
+package com.lemicare.payment.service.service;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.lemicare.payment.service.cache.RazorpayOrderIndex;
+import com.lemicare.payment.service.dto.request.CreateOrderRequest;
+import com.lemicare.payment.service.dto.response.BulkCreateOrderItemResult;
+import com.lemicare.payment.service.dto.response.CreateOrderResponse;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkOrderServiceTest {
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+	private final FailingOrderRepository orders = new FailingOrderRepository();
+	private final BulkOrderService service = new BulkOrderService(paymentService, orders, mock(RazorpayOrderIndex.class));
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ReflectionTestUtils.setField(service, "concurrency", 4);
+		ReflectionTestUtils.setField(service, "writeBatchSize", 100);
+		ReflectionTestUtils.setField(service, "writeLingerMillis", 5L);
+		ReflectionTestUtils.setField(service, "persistAttempts", 3);
+		ReflectionTestUtils.setField(service, "persistBackoffMillis", 1L);
+
+		// Creates the Razorpay order "order_<invoice>" and hands the PaymentOrder to the persister,
+		// like PaymentService does; invoices starting with "bad" fail at Razorpay.
+		when(paymentService.createOrder(eq("org_a"), eq("br_1"), any(CreateOrderRequest.class), isNull(), any()))
+				.thenAnswer(call -> {
+					CreateOrderRequest request = call.getArgument(2);
+					if (request.getSourceInvoiceId().startsWith("bad")) {
+						throw new RuntimeException("Razorpay order creation failed: BAD_REQUEST_ERROR");
+					}
+					String razorpayOrderId = "order_" + request.getSourceInvoiceId();
+					((Consumer<PaymentOrder>) call.getArgument(4)).accept(PaymentOrder.builder()
+							.orderId("ord_" + request.getSourceInvoiceId())
+							.organizationId("org_a")
+							.branchId("br_1")
+							.razorpayOrderId(razorpayOrderId)
+							.amount(request.getAmount())
+							.status(OrderStateMachine.CREATED)
+							.build());
+					return new CreateOrderResponse(razorpayOrderId, "rzp_test", request.getAmount(), "CosmicDoc Clinic");
+				});
+	}
+
+	@Test
+	void run_whenSomeRazorpayCallsFail_shouldCreateAndSaveTheRest() {
+		List<BulkCreateOrderItemResult> results = run("inv_1", "bad_2", "inv_3");
+
+		assertEquals(List.of(BulkCreateOrderItemResult.CREATED, BulkCreateOrderItemResult.FAILED, BulkCreateOrderItemResult.CREATED),
+				results.stream().map(BulkCreateOrderItemResult::getStatus).toList());
+		assertNull(results.get(1).getRazorpayOrderId());
+		assertEquals(2, orders.size());
+	}
+
+	@Test
+	void run_whenSavingFailsOnce_shouldRetryAndReportTheOrdersCreated() {
+		orders.failures.set(1);
+
+		List<BulkCreateOrderItemResult> results = run("inv_1", "inv_2");
+
+		assertEquals(List.of(BulkCreateOrderItemResult.CREATED, BulkCreateOrderItemResult.CREATED),
+				results.stream().map(BulkCreateOrderItemResult::getStatus).toList());
+		assertEquals(2, orders.size());
+	}
+
+	@Test
+	void run_whenSavingKeepsFailing_shouldReportTheRazorpayOrdersThatHaveNoPaymentOrder() {
+		orders.failures.set(Integer.MAX_VALUE);
+
+		List<BulkCreateOrderItemResult> results = run("inv_1", "bad_2");
+
+		assertEquals(BulkCreateOrderItemResult.FAILED, results.get(0).getStatus());
+		assertEquals("order_inv_1", results.get(0).getRazorpayOrderId());
+		assertEquals(BulkCreateOrderItemResult.FAILED, results.get(1).getStatus());
+		assertNull(results.get(1).getRazorpayOrderId());
+		assertEquals(0, orders.size());
+	}
+
+	private List<BulkCreateOrderItemResult> run(String... invoiceIds) {
+		List<CreateOrderRequest> requests = new ArrayList<>();
+		for (String invoiceId : invoiceIds) {
+			CreateOrderRequest request = new CreateOrderRequest();
+			request.setSourceInvoiceId(invoiceId);
+			request.setSourceService("opd");
+			request.setAmount(500.0);
+			request.setCurrency("INR");
+			requests.add(request);
+		}
+		ConcurrentLinkedQueue<BulkCreateOrderItemResult> results = new ConcurrentLinkedQueue<>();
+		service.run("org_a", "br_1", requests, results::add);
+		return results.stream().sorted(Comparator.comparingInt(BulkCreateOrderItemResult::getIndex)).toList();
+	}
+
+	/**
+	 * The batch repository, failing the given number of saveAll calls first.
+	 */
+	private static class FailingOrderRepository extends InMemoryPaymentOrderRepository {
+
+		final AtomicInteger failures = new AtomicInteger();
+
+		FailingOrderRepository() {
+			super(new InMemoryOutboxRepository());
+		}
+
+		@Override
+		public void saveAll(List<PaymentOrder> orders) {
+			if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+				throw new IllegalStateException("Firestore unavailable");
+			}
+			super.saveAll(orders);
+		}
+	}
+}
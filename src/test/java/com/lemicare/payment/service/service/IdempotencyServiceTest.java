@@ -0,0 +1,125 @@
+package com.lemicare.payment.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemicare.payment.service.exception.IdempotencyConflictException;
+import com.lemicare.payment.service.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+	private final InMemoryIdempotencyRecordRepository records = new InMemoryIdempotencyRecordRepository();
+	private final AtomicLong nanos = new AtomicLong();
+	private final IdempotencyService idempotencyService = idempotencyService();
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@Test
+	void execute_whenKeyIsRetried_shouldReplayTheStoredResponseWithoutRunningAgain() {
+		assertEquals("order_1", createOrder(idempotencyService, "fp_1"));
+		assertEquals("order_1", createOrder(idempotencyService, "fp_1"));
+		// Another instance has an empty hot tier and replays from the durable record.
+		assertEquals("order_1", createOrder(idempotencyService(), "fp_1"));
+
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void execute_whenKeyIsReusedWithDifferentParameters_shouldThrowConflict() {
+		createOrder(idempotencyService, "fp_1");
+
+		IdempotencyConflictException conflict = assertThrows(IdempotencyConflictException.class,
+				() -> createOrder(idempotencyService, "fp_2"));
+		assertThrows(IdempotencyConflictException.class, () -> createOrder(idempotencyService(), "fp_2"));
+
+		assertEquals(HttpStatus.CONFLICT, conflict.getClass().getAnnotation(ResponseStatus.class).value());
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void execute_whenFirstRequestIsStillRunning_shouldThrowConflictWithoutWaitingForIt() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute(
+				"org_a", "create-order", "key_1", "fp_1", String.class, () -> {
+					started.countDown();
+					await(finish);
+					return "order_1";
+				}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// The same instance answers at once rather than blocking behind the running request.
+		assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> assertThrows(IdempotencyConflictException.class, () -> createOrder(idempotencyService, "fp_1")));
+
+		finish.countDown();
+		assertEquals("order_1", first.get(5, TimeUnit.SECONDS));
+		assertEquals("order_1", createOrder(idempotencyService, "fp_1"));
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void execute_whenActionFails_shouldReleaseTheClaimSoARetryRuns() {
+		assertThrows(IllegalStateException.class, () -> idempotencyService.execute("org_a", "create-order", "key_1", "fp_1",
+				String.class, () -> {
+					throw new IllegalStateException("Razorpay unavailable");
+				}));
+
+		assertEquals("order_1", createOrder(idempotencyService, "fp_1"));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void forget_shouldLetOtherInstancesRunTheKeyAgainOnceTheirHotEntryExpires() {
+		IdempotencyService otherInstance = idempotencyService();
+		createOrder(otherInstance, "fp_1");
+
+		idempotencyService.forget("org_a", "create-order", "key_1");
+
+		assertEquals("order_1", createOrder(otherInstance, "fp_1"));
+		assertEquals(1, runs.get());
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+		assertEquals("order_1", createOrder(otherInstance, "fp_1"));
+		assertEquals(2, runs.get());
+	}
+
+	private String createOrder(IdempotencyService service, String fingerprint) {
+		return service.execute("org_a", "create-order", "key_1", fingerprint, String.class, () -> {
+			runs.incrementAndGet();
+			return "order_1";
+		});
+	}
+
+	private IdempotencyService idempotencyService() {
+		IdempotencyService service = new IdempotencyService(records, new ObjectMapper());
+		ReflectionTestUtils.setField(service, "retentionHours", 24L);
+		ReflectionTestUtils.setField(service, "inProgressTimeoutSeconds", 60L);
+		ReflectionTestUtils.setField(service, "hotMaxEntries", 100L);
+		ReflectionTestUtils.setField(service, "hotTtlSeconds", 60L);
+		service.ticker = nanos::get;
+		ReflectionTestUtils.setField(service, "lockStripes", 16);
+		service.init();
+		return service;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
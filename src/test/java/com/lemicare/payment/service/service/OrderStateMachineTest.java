@@ -0,0 +1,246 @@
+package com.lemicare.payment.service.service;
+
+import com.cosmicdoc.common.model.PaymentOrder;
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.event.PaymentEvent;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.model.PaymentOrderPatch;
+import com.lemicare.payment.service.repository.PaymentOrderStateRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class OrderStateMachineTest {
+
+	private final InMemoryOutboxRepository outbox = new InMemoryOutboxRepository();
+	private final InMemoryPaymentOrderRepository orders = new InMemoryPaymentOrderRepository(outbox);
+	private final OrderStateMachine stateMachine = stateMachine(orders);
+
+	@BeforeEach
+	void setUp() {
+		orders.save(order());
+	}
+
+	@Test
+	void transition_whenAllowed_shouldWriteTheOrderWithItsEvent() {
+		OrderStateMachine.Result result = pay("pay_1");
+
+		assertEquals(OrderStateMachine.Outcome.APPLIED, result.outcome());
+		PaymentOrder stored = storedOrder();
+		assertEquals(OrderStateMachine.PAID, stored.getStatus());
+		assertEquals("pay_1", stored.getRazorpayPaymentId());
+		assertEquals(List.of("ord_1:" + PaymentEvent.PAYMENT_SUCCESS), eventIds());
+	}
+
+	@Test
+	void transition_whenOrderAlreadyHasTheStatus_shouldReturnDuplicateWithoutWriting() {
+		pay("pay_1");
+		Timestamp version = version();
+
+		OrderStateMachine.Result result = pay("pay_1");
+
+		assertEquals(OrderStateMachine.Outcome.DUPLICATE, result.outcome());
+		assertEquals(version, version());
+		assertEquals(1, outbox.findAll().size());
+	}
+
+	@Test
+	void transition_whenNotAllowed_shouldReturnIllegalWithoutWriting() {
+		stateMachine.transition("org_a", "br_1", "ord_1", OrderStateMachine.CANCELLED, null, PaymentEvent.PAYMENT_CANCELLED);
+		Timestamp version = version();
+
+		OrderStateMachine.Result result = pay("pay_1");
+
+		assertEquals(OrderStateMachine.Outcome.ILLEGAL, result.outcome());
+		assertEquals(OrderStateMachine.CANCELLED, result.order().getStatus());
+		assertEquals(version, version());
+		assertEquals(List.of("ord_1:" + PaymentEvent.PAYMENT_CANCELLED), eventIds());
+	}
+
+	@Test
+	void transition_whenTheOrderIsWrittenElsewhereSinceTheRead_shouldRetryAndNotWriteAgain() {
+		// Another instance, e.g. handling the webhook, marks the order paid between this
+		// instance's read and its compare-and-set.
+		OrderStateMachine otherInstance = stateMachine(orders);
+		AtomicInteger attempts = new AtomicInteger();
+		OrderStateMachine racing = stateMachine(new PaymentOrderStateRepository() {
+			@Override
+			public Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId) {
+				return orders.findVersionedById(orgId, branchId, orderId);
+			}
+
+			@Override
+			public boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event) {
+				if (attempts.incrementAndGet() == 1) {
+					otherInstance.transition("org_a", "br_1", "ord_1", OrderStateMachine.PAID,
+							paid -> paid.setRazorpayPaymentId("pay_1"), PaymentEvent.PAYMENT_SUCCESS);
+				}
+				return orders.compareAndSet(patch, expectedUpdateTime, event);
+			}
+		});
+
+		OrderStateMachine.Result result = racing.transition("org_a", "br_1", "ord_1", OrderStateMachine.PAID,
+				order -> order.setRazorpayPaymentId("pay_1"), PaymentEvent.PAYMENT_SUCCESS);
+
+		assertEquals(OrderStateMachine.Outcome.DUPLICATE, result.outcome());
+		assertEquals(1, attempts.get());
+		assertEquals(List.of("ord_1:" + PaymentEvent.PAYMENT_SUCCESS), eventIds());
+	}
+
+	@Test
+	void transition_whenAPlainSaveLandsSinceTheRead_shouldNotOverwriteIt() {
+		AtomicInteger attempts = new AtomicInteger();
+		OrderStateMachine racing = stateMachine(new PaymentOrderStateRepository() {
+			@Override
+			public Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId) {
+				return orders.findVersionedById(orgId, branchId, orderId);
+			}
+
+			@Override
+			public boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event) {
+				if (attempts.incrementAndGet() == 1) {
+					// E.g. the shared library's save, which knows nothing of the state machine.
+					PaymentOrder cancelled = order();
+					cancelled.setStatus(OrderStateMachine.CANCELLED);
+					orders.save(cancelled);
+				}
+				return orders.compareAndSet(patch, expectedUpdateTime, event);
+			}
+		});
+
+		OrderStateMachine.Result result = racing.transition("org_a", "br_1", "ord_1", OrderStateMachine.PAID,
+				null, PaymentEvent.PAYMENT_SUCCESS);
+
+		assertEquals(OrderStateMachine.Outcome.ILLEGAL, result.outcome());
+		assertEquals(OrderStateMachine.CANCELLED, storedOrder().getStatus());
+		assertEquals(List.of(), eventIds());
+	}
+
+	@Test
+	void transition_whenTheOutboxWriteFails_shouldWriteNothing() {
+		InMemoryPaymentOrderRepository failingOutbox = new InMemoryPaymentOrderRepository(new InMemoryOutboxRepository() {
+			@Override
+			public synchronized void saveAll(List<OutboxEvent> events) {
+				throw new IllegalStateException("Outbox unavailable");
+			}
+		});
+		failingOutbox.save(order());
+		Timestamp version = failingOutbox.findVersionedById("org_a", "br_1", "ord_1").orElseThrow().updateTime();
+
+		assertThrows(IllegalStateException.class, () -> stateMachine(failingOutbox).transition("org_a", "br_1", "ord_1",
+				OrderStateMachine.PAID, null, PaymentEvent.PAYMENT_SUCCESS));
+
+		PaymentOrderStateRepository.VersionedOrder stored = failingOutbox.findVersionedById("org_a", "br_1", "ord_1").orElseThrow();
+		assertEquals(OrderStateMachine.CREATED, stored.order().getStatus());
+		assertEquals(version, stored.updateTime());
+	}
+
+	@Test
+	void amend_shouldWriteOnlyThePatchedFields() {
+		pay("pay_1");
+
+		boolean written = stateMachine.amend("org_a", "br_1", "ord_1", order -> signature(order, "sig_1"));
+
+		assertTrue(written);
+		PaymentOrder stored = storedOrder();
+		assertEquals(OrderStateMachine.PAID, stored.getStatus());
+		assertEquals("pay_1", stored.getRazorpayPaymentId());
+		assertEquals("sig_1", stored.getRazorpaySignature());
+	}
+
+	@Test
+	void amend_whenATransitionLandsSinceTheRead_shouldRetryOnTheNewOrder() {
+		AtomicInteger attempts = new AtomicInteger();
+		OrderStateMachine racing = stateMachine(new PaymentOrderStateRepository() {
+			@Override
+			public Optional<VersionedOrder> findVersionedById(String orgId, String branchId, String orderId) {
+				return orders.findVersionedById(orgId, branchId, orderId);
+			}
+
+			@Override
+			public boolean compareAndSet(PaymentOrderPatch patch, Timestamp expectedUpdateTime, OutboxEvent event) {
+				if (attempts.incrementAndGet() == 1) {
+					pay("pay_1");
+				}
+				return orders.compareAndSet(patch, expectedUpdateTime, event);
+			}
+		});
+
+		assertTrue(racing.amend("org_a", "br_1", "ord_1", order -> signature(order, "sig_1")));
+
+		assertEquals(2, attempts.get());
+		PaymentOrder stored = storedOrder();
+		assertEquals(OrderStateMachine.PAID, stored.getStatus());
+		assertEquals("sig_1", stored.getRazorpaySignature());
+	}
+
+	@Test
+	void amend_whenNoPatchIsNeeded_shouldWriteNothing() {
+		Timestamp version = version();
+
+		assertFalse(stateMachine.amend("org_a", "br_1", "ord_1", order -> null));
+		assertEquals(version, version());
+	}
+
+	private static PaymentOrderPatch signature(PaymentOrder order, String signature) {
+		return PaymentOrderPatch.builder()
+				.organizationId(order.getOrganizationId())
+				.branchId(order.getBranchId())
+				.orderId(order.getOrderId())
+				.razorpaySignature(signature)
+				.updatedAt(Timestamp.now())
+				.build();
+	}
+
+	private OrderStateMachine.Result pay(String paymentId) {
+		return stateMachine.transition("org_a", "br_1", "ord_1", OrderStateMachine.PAID,
+				order -> order.setRazorpayPaymentId(paymentId), PaymentEvent.PAYMENT_SUCCESS);
+	}
+
+	private PaymentOrder storedOrder() {
+		return orders.findById("org_a", "br_1", "ord_1").orElseThrow();
+	}
+
+	private Timestamp version() {
+		return orders.findVersionedById("org_a", "br_1", "ord_1").orElseThrow().updateTime();
+	}
+
+	private List<String> eventIds() {
+		return outbox.findAll().stream().map(OutboxEvent::getEventId).sorted().toList();
+	}
+
+	private static PaymentOrder order() {
+		return PaymentOrder.builder()
+				.orderId("ord_1")
+				.organizationId("org_a")
+				.branchId("br_1")
+				.razorpayOrderId("order_1")
+				.sourceService("opd")
+				.sourceInvoiceId("inv_1")
+				.amount(500)
+				.currency("INR")
+				.status(OrderStateMachine.CREATED)
+				.createdAt(Timestamp.now())
+				.build();
+	}
+
+	private static OrderStateMachine stateMachine(PaymentOrderStateRepository stateRepository) {
+		OrderStateMachine machine = new OrderStateMachine(stateRepository, mock(OutboxDispatcher.class));
+		ReflectionTestUtils.setField(machine, "lockStripes", 16);
+		ReflectionTestUtils.setField(machine, "maxAttempts", 5);
+		machine.init();
+		return machine;
+	}
+}
@@ -0,0 +1,116 @@
+package com.lemicare.payment.service.service;
+
+import com.lemicare.payment.service.dto.response.BatchOrderStatusResponse;
+import com.lemicare.payment.service.dto.response.PaymentOrderStatusResponse;
+import com.lemicare.payment.service.service.OrderStatusHub.OrderKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderStatusStreamServiceTest {
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+	private final OrderStatusHub orderStatusHub = new OrderStatusHub();
+	private final OrderStatusStreamService streamService = new OrderStatusStreamService(paymentService, orderStatusHub);
+
+	@Test
+	void recheckSubscribedOrders_shouldLookUpEachTenantsOrdersInOneBatch() {
+		Map<String, String> received = new ConcurrentHashMap<>();
+		for (OrderKey key : List.of(new OrderKey("org_a", "br_1", "ord_1"), new OrderKey("org_a", "br_1", "ord_2"),
+				new OrderKey("org_b", "br_1", "ord_3"))) {
+			orderStatusHub.subscribe(key, status -> received.put(status.getOrderId(), status.getStatus()));
+		}
+		when(paymentService.getOrderStatuses(anyString(), anyString(), anyList())).thenAnswer(invocation -> {
+			List<String> orderIds = invocation.getArgument(2);
+			return new BatchOrderStatusResponse(orderIds.stream().map(orderId -> status(orderId, "PAID")).toList(), List.of());
+		});
+
+		streamService.recheckSubscribedOrders();
+
+		verify(paymentService, times(1)).getOrderStatuses(eq("org_a"), eq("br_1"), anyList());
+		verify(paymentService, times(1)).getOrderStatuses(eq("org_b"), eq("br_1"), anyList());
+		verify(paymentService, never()).getOrderStatus(any(), any(), any());
+		assertEquals(Map.of("ord_1", "PAID", "ord_2", "PAID", "ord_3", "PAID"), received);
+	}
+
+	@Test
+	void publish_whenAStreamsClientIsBlocked_shouldNotWaitForIt() throws InterruptedException {
+		OrderKey key = new OrderKey("org_a", "br_1", "ord_1");
+		when(paymentService.getOrderStatus("org_a", "br_1", "ord_1")).thenReturn(status("ord_1", "CREATED"));
+		CountDownLatch unblock = new CountDownLatch(1);
+		BlockingEmitter emitter = new BlockingEmitter(unblock);
+		streamService.open(key, emitter);
+		List<String> longPolled = new CopyOnWriteArrayList<>();
+		orderStatusHub.subscribe(key, status -> longPolled.add(status.getStatus()));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+			orderStatusHub.publish(key, status("ord_1", "CREATED"));
+			orderStatusHub.publish(key, status("ord_1", "PAID"));
+			orderStatusHub.publish(key, status("ord_1", "CREATED"));
+		});
+		assertEquals(List.of("CREATED", "PAID", "CREATED"), longPolled);
+
+		unblock.countDown();
+		assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+		// The initial status, then the terminal one that replaced everything offered while blocked.
+		assertEquals(List.of("CREATED", "PAID"), emitter.sent);
+	}
+
+	/**
+	 * An SSE emitter whose client does not read until released.
+	 */
+	private static class BlockingEmitter extends SseEmitter {
+
+		final List<String> sent = new CopyOnWriteArrayList<>();
+		final CountDownLatch completed = new CountDownLatch(1);
+		private final CountDownLatch unblock;
+
+		BlockingEmitter(CountDownLatch unblock) {
+			this.unblock = unblock;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			try {
+				unblock.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			String event = builder.build().stream()
+					.map(part -> part.getData() instanceof PaymentOrderStatusResponse status ? status.getStatus() : "")
+					.reduce("", String::concat);
+			sent.add(event);
+		}
+
+		@Override
+		public void complete() {
+			completed.countDown();
+		}
+	}
+
+	private static PaymentOrderStatusResponse status(String orderId, String status) {
+		return PaymentOrderStatusResponse.builder().orderId(orderId).status(status).build();
+	}
+}
@@ -0,0 +1,191 @@
+package com.lemicare.payment.service.service;
+
+import com.google.cloud.Timestamp;
+import com.lemicare.payment.service.event.EventDeliveryException;
+import com.lemicare.payment.service.event.PaymentEventTransport;
+import com.lemicare.payment.service.model.OutboxEvent;
+import com.lemicare.payment.service.repository.inmemory.InMemoryOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OutboxDispatcherTest {
+
+	private static final long LEASE_SECONDS = 60;
+	private static final long BASE_BACKOFF_MILLIS = 1000;
+
+	private final InMemoryOutboxRepository outbox = new InMemoryOutboxRepository();
+	private final PaymentEventTransport transport = mock(PaymentEventTransport.class);
+	private final OutboxDispatcher dispatcher = new OutboxDispatcher(outbox, transport);
+
+	@BeforeEach
+	void setUp() {
+		// Not started: each test runs the dispatcher's rounds itself.
+		ReflectionTestUtils.setField(dispatcher, "enabled", false);
+		ReflectionTestUtils.setField(dispatcher, "pollIntervalMillis", 2000L);
+		ReflectionTestUtils.setField(dispatcher, "claimBatchSize", 200);
+		ReflectionTestUtils.setField(dispatcher, "deliveryBatchSize", 50);
+		ReflectionTestUtils.setField(dispatcher, "maxInFlightPerDestination", 2);
+		ReflectionTestUtils.setField(dispatcher, "leaseSeconds", LEASE_SECONDS);
+		ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+		ReflectionTestUtils.setField(dispatcher, "baseBackoffMillis", BASE_BACKOFF_MILLIS);
+		ReflectionTestUtils.setField(dispatcher, "maxBackoffMillis", 300_000L);
+		ReflectionTestUtils.setField(dispatcher, "retentionHours", 72L);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		dispatcher.stop();
+	}
+
+	@Test
+	void dispatchDue_shouldLeaseTheEventsItDeliversSoTheyAreNotClaimedAgain() {
+		CountDownLatch delivering = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(call -> {
+			delivering.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(transport).deliver(eq("opd"), anyList());
+		outbox.saveAll(List.of(event("evt_1", "opd", 0)));
+		long before = System.currentTimeMillis();
+
+		assertEquals(1, dispatchDue());
+		awaitUninterruptibly(delivering);
+
+		OutboxEvent leased = stored("evt_1");
+		assertEquals(OutboxEvent.STATUS_PENDING, leased.getStatus());
+		assertTrue(millis(leased.getNextAttemptAt()) >= before + TimeUnit.SECONDS.toMillis(LEASE_SECONDS));
+		assertEquals(0, dispatchDue());
+
+		release.countDown();
+		OutboxEvent delivered = await("evt_1", event -> OutboxEvent.STATUS_DELIVERED.equals(event.getStatus()));
+		assertEquals(1, delivered.getAttempts());
+		assertNotNull(delivered.getExpiresAt());
+		verify(transport, times(1)).deliver(eq("opd"), anyList());
+	}
+
+	@Test
+	void dispatchDue_whenDeliveryFails_shouldRetryAfterTheBackoff() {
+		doThrow(new EventDeliveryException("opd returned 503")).when(transport).deliver(eq("opd"), anyList());
+		outbox.saveAll(List.of(event("evt_1", "opd", 0)));
+		long before = System.currentTimeMillis();
+
+		dispatchDue();
+
+		OutboxEvent retried = await("evt_1", event -> event.getAttempts() == 1);
+		long after = System.currentTimeMillis();
+		assertEquals(OutboxEvent.STATUS_PENDING, retried.getStatus());
+		assertEquals("opd returned 503", retried.getLastError());
+		// Jittered between half and all of the base backoff for a first failure.
+		long nextAttemptAt = millis(retried.getNextAttemptAt());
+		assertTrue(nextAttemptAt >= before + BASE_BACKOFF_MILLIS / 2, "retried too early");
+		assertTrue(nextAttemptAt <= after + BASE_BACKOFF_MILLIS, "retried too late");
+	}
+
+	@Test
+	void dispatchDue_whenADestinationFailed_shouldDeferItsEventsAndKeepDeliveringToTheOthers() {
+		doThrow(new EventDeliveryException("opd returned 503")).when(transport).deliver(eq("opd"), anyList());
+		outbox.saveAll(List.of(event("evt_1", "opd", 0)));
+		dispatchDue();
+		await("evt_1", event -> event.getAttempts() == 1);
+
+		outbox.saveAll(List.of(event("evt_2", "opd", 0), event("evt_3", "pharmacy", 0)));
+		long now = System.currentTimeMillis();
+		dispatchDue();
+
+		OutboxEvent deferred = stored("evt_2");
+		assertEquals(0, deferred.getAttempts());
+		assertTrue(millis(deferred.getNextAttemptAt()) > now);
+		await("evt_3", event -> OutboxEvent.STATUS_DELIVERED.equals(event.getStatus()));
+		verify(transport, times(1)).deliver(eq("opd"), anyList());
+		verify(transport, times(1)).deliver(eq("pharmacy"), anyList());
+	}
+
+	@Test
+	void dispatchDue_whenTheLastAttemptFails_shouldGiveUp() {
+		doThrow(new EventDeliveryException("opd returned 400")).when(transport).deliver(eq("opd"), anyList());
+		outbox.saveAll(List.of(event("evt_1", "opd", 2)));
+
+		dispatchDue();
+
+		OutboxEvent failed = await("evt_1", event -> OutboxEvent.STATUS_FAILED.equals(event.getStatus()));
+		assertEquals(3, failed.getAttempts());
+		assertNotNull(failed.getExpiresAt());
+		assertEquals(0, dispatchDue());
+	}
+
+	private int dispatchDue() {
+		Integer claimed = ReflectionTestUtils.invokeMethod(dispatcher, "dispatchDue");
+		return claimed;
+	}
+
+	private OutboxEvent stored(String eventId) {
+		return outbox.findAll().stream().filter(event -> event.getEventId().equals(eventId)).findFirst().orElseThrow();
+	}
+
+	/**
+	 * Waits for the asynchronous delivery to record the event's new state.
+	 */
+	private OutboxEvent await(String eventId, Predicate<OutboxEvent> condition) {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			OutboxEvent event = stored(eventId);
+			if (condition.test(event)) {
+				return event;
+			}
+			Thread.onSpinWait();
+		}
+		return fail("Event " + eventId + " did not reach the expected state: " + stored(eventId));
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail(e);
+		}
+	}
+
+	private static long millis(Timestamp timestamp) {
+		return TimeUnit.SECONDS.toMillis(timestamp.getSeconds()) + TimeUnit.NANOSECONDS.toMillis(timestamp.getNanos());
+	}
+
+	private static OutboxEvent event(String eventId, String destination, int attempts) {
+		// A second in the past, so it is due by the dispatcher's millisecond clock.
+		Timestamp now = Timestamp.ofTimeMicroseconds(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis() - 1000));
+		return OutboxEvent.builder()
+				.eventId(eventId)
+				.eventType("PaymentSuccess")
+				.destination(destination)
+				.organizationId("org_a")
+				.branchId("br_1")
+				.orderId("ord_" + eventId)
+				.amount(500.0)
+				.currency("INR")
+				.occurredAt(now)
+				.status(OutboxEvent.STATUS_PENDING)
+				.attempts(attempts)
+				.nextAttemptAt(now)
+				.build();
+	}
+}
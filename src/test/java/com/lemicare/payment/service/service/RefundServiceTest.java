@@ -0,0 +1,160 @@
+package com.lemicare.payment.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemicare.payment.service.cache.RazorpayEntityCache;
+import com.lemicare.payment.service.dto.request.CreateRefundRequestDto;
+import com.lemicare.payment.service.dto.response.RefundSummaryResponse;
+import com.lemicare.payment.service.exception.ResourceNotFoundException;
+import com.lemicare.payment.service.gateway.RazorpayGateway;
+import com.lemicare.payment.service.model.PaymentTransaction;
+import com.lemicare.payment.service.model.RefundRecord;
+import com.lemicare.payment.service.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryPaymentTransactionRepository;
+import com.lemicare.payment.service.repository.inmemory.InMemoryRefundRecordRepository;
+import com.lemicare.payment.service.util.RazorpayCall;
+import com.razorpay.Refund;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefundServiceTest {
+
+	private final RazorpayGateway razorpayGateway = mock(RazorpayGateway.class);
+	private final RazorpayEntityCache entityCache = mock(RazorpayEntityCache.class);
+	private final AtomicInteger refunds = new AtomicInteger();
+	private final InMemoryPaymentTransactionRepository ledger = new InMemoryPaymentTransactionRepository();
+	private final InMemoryRefundRecordRepository refundRecords = new InMemoryRefundRecordRepository(ledger);
+	private RefundService refundService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		IdempotencyService idempotencyService = new IdempotencyService(new InMemoryIdempotencyRecordRepository(), new ObjectMapper());
+		ReflectionTestUtils.setField(idempotencyService, "retentionHours", 24L);
+		ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 60L);
+		ReflectionTestUtils.setField(idempotencyService, "hotMaxEntries", 100L);
+		ReflectionTestUtils.setField(idempotencyService, "hotTtlSeconds", 60L);
+		ReflectionTestUtils.setField(idempotencyService, "lockStripes", 16);
+		idempotencyService.init();
+		ledger.save(PaymentTransaction.builder()
+				.paymentId("pay_1")
+				.organizationId("org_a")
+				.branchId("br_1")
+				.amount(500.0)
+				.build());
+		refundService = new RefundService(razorpayGateway, entityCache, idempotencyService, refundRecords);
+
+		when(razorpayGateway.refundPayment(eq("org_a"), eq("pay_1"), any(JSONObject.class))).thenAnswer(call ->
+				new Refund(new JSONObject()
+						.put("id", "rfnd_" + refunds.incrementAndGet())
+						.put("payment_id", "pay_1")
+						.put("amount", ((JSONObject) call.getArgument(2)).getInt("amount"))
+						.put("status", "pending")));
+	}
+
+	@Test
+	void createRefund_whenRetriedWithoutAKey_shouldReplayTheFirstRefund() throws Exception {
+		Refund first = refundService.createRefund("org_a", "user_1", request(100.0), null);
+		Refund retried = refundService.createRefund("org_a", "user_1", request(100.0), null);
+
+		assertEquals("rfnd_1", first.get("id"));
+		assertEquals("rfnd_1", retried.get("id"));
+		verify(razorpayGateway, times(1)).refundPayment(eq("org_a"), eq("pay_1"), any(JSONObject.class));
+	}
+
+	@Test
+	void createRefund_whenDistinctKeysAreSent_shouldRefundEachTime() throws Exception {
+		refundService.createRefund("org_a", "user_1", request(100.0), "key_1");
+		refundService.createRefund("org_a", "user_1", request(100.0), "key_2");
+		// A different amount without a key is a different refund.
+		refundService.createRefund("org_a", "user_1", request(50.0), null);
+
+		verify(razorpayGateway, times(3)).refundPayment(eq("org_a"), eq("pay_1"), any(JSONObject.class));
+	}
+
+	@Test
+	void getRefundSummary_shouldTotalPartialRefundsByStatus() {
+		refundService.createRefund("org_a", "user_1", request(100.0), null);
+		refundService.createRefund("org_a", "user_1", request(150.0), null);
+		refundService.createRefund("org_a", "user_1", request(50.0), null);
+		// Webhooks settle the first refund and fail the last; a replay of the first changes nothing.
+		refundRecords.saveAll(List.of(settled("rfnd_1", "processed"), settled("rfnd_3", "failed"), settled("rfnd_1", "processed")));
+
+		RefundSummaryResponse summary = refundService.getRefundSummary("org_a", "pay_1");
+
+		assertEquals(500.0, summary.getPaymentAmount());
+		assertEquals(100.0, summary.getRefundedAmount());
+		assertEquals(150.0, summary.getPendingAmount());
+		assertEquals(250.0, summary.getRefundableAmount());
+		assertEquals(3, summary.getRefundCount());
+		assertEquals(Map.of("rfnd_1", "processed", "rfnd_2", "pending", "rfnd_3", "failed"), summary.getRefundStatuses());
+		assertThrows(ResourceNotFoundException.class, () -> refundService.getRefundSummary("org_b", "pay_1"));
+	}
+
+	@Test
+	void getRefundSummary_whenALateUpdateArrivesAfterTheFinalStatus_shouldKeepTheFinalStatus() {
+		refundService.createRefund("org_a", "user_1", request(100.0), null);
+		refundRecords.save(settled("rfnd_1", "processed"));
+
+		refundRecords.save(settled("rfnd_1", "pending"));
+
+		RefundSummaryResponse summary = refundService.getRefundSummary("org_a", "pay_1");
+		assertEquals(100.0, summary.getRefundedAmount());
+		assertEquals(0.0, summary.getPendingAmount());
+		assertEquals(400.0, summary.getRefundableAmount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void fetchRefund_whenTwoOrganizationsFetchTheSameRefundAtOnce_shouldNotShareTheCall() throws Exception {
+		when(entityCache.getRefund(any(), any(), any())).thenAnswer(call -> ((RazorpayCall<Refund>) call.getArgument(2)).call());
+		// Each organization's fetch waits for the other's to start, so a shared call would time out.
+		CountDownLatch bothFetching = new CountDownLatch(2);
+		when(razorpayGateway.fetchRefund(any(), eq("rfnd_1"))).thenAnswer(call -> {
+			bothFetching.countDown();
+			bothFetching.await(2, TimeUnit.SECONDS);
+			return new Refund(new JSONObject()
+					.put("id", "rfnd_1")
+					.put("notes", new JSONObject().put("organizationId", (String) call.getArgument(0))));
+		});
+
+		CompletableFuture<Refund> orgA = CompletableFuture.supplyAsync(() -> refundService.fetchRefund("org_a", "rfnd_1"));
+		CompletableFuture<Refund> orgB = CompletableFuture.supplyAsync(() -> refundService.fetchRefund("org_b", "rfnd_1"));
+
+		assertEquals("org_a", ((JSONObject) orgA.get(5, TimeUnit.SECONDS).get("notes")).getString("organizationId"));
+		assertEquals("org_b", ((JSONObject) orgB.get(5, TimeUnit.SECONDS).get("notes")).getString("organizationId"));
+		assertEquals(0, bothFetching.getCount());
+	}
+
+	private static RefundRecord settled(String refundId, String status) {
+		return RefundRecord.builder()
+				.refundId(refundId)
+				.paymentId("pay_1")
+				.status(status)
+				.build();
+	}
+
+	private static CreateRefundRequestDto request(double amount) {
+		CreateRefundRequestDto request = new CreateRefundRequestDto();
+		request.setPaymentId("pay_1");
+		request.setAmount(amount);
+		request.setReason("Cancelled appointment");
+		return request;
+	}
+}
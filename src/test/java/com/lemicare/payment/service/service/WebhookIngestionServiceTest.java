@@ -0,0 +1,87 @@
+package com.lemicare.payment.service.service;
+
+import com.razorpay.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class WebhookIngestionServiceTest {
+
+	private static final String SECRET = "whsec_test";
+	private static final byte[] PAYMENT_CAPTURED = """
+			{"event": "payment.captured", "payload": {"payment": {"entity": {"id": "pay_1", "amount": 50000,
+			"currency": "INR", "status": "captured", "order_id": "order_1", "created_at": 1700000000}}}}
+			""".getBytes(StandardCharsets.UTF_8);
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+	private WebhookIngestionService service;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		ReflectionTestUtils.invokeMethod(service, "stop");
+	}
+
+	@Test
+	void ingest_whenTheEventIdWasSeen_shouldReturnDuplicate() throws Exception {
+		service = start(10, 0);
+
+		assertEquals(WebhookIngestionService.Outcome.ACCEPTED, ingest("evt_1"));
+		assertEquals(WebhookIngestionService.Outcome.DUPLICATE, ingest("evt_1"));
+	}
+
+	@Test
+	void ingest_whenTheQueueIsFull_shouldRejectAndAcceptTheRetryLater() throws Exception {
+		service = start(1, 0);
+		ingest("evt_1");
+
+		assertEquals(WebhookIngestionService.Outcome.REJECTED, ingest("evt_2"));
+
+		// The rejected ID is not remembered, so Razorpay's retry is queued once there is room.
+		((BlockingQueue<?>) ReflectionTestUtils.getField(service, "queue")).clear();
+		assertEquals(WebhookIngestionService.Outcome.ACCEPTED, ingest("evt_2"));
+	}
+
+	@Test
+	void ingest_whenTheEventsBatchFailed_shouldAcceptItsReplay() throws Exception {
+		doThrow(new IllegalStateException("Firestore unavailable")).doNothing().when(paymentService).processWebhookEvents(anyList());
+		service = start(10, 1);
+		ingest("evt_1");
+		verify(paymentService, timeout(5000)).processWebhookEvents(anyList());
+
+		long giveUpAt = System.nanoTime() + 5_000_000_000L;
+		WebhookIngestionService.Outcome replay;
+		do {
+			replay = ingest("evt_1");
+		} while (replay == WebhookIngestionService.Outcome.DUPLICATE && System.nanoTime() < giveUpAt);
+
+		assertEquals(WebhookIngestionService.Outcome.ACCEPTED, replay);
+		verify(paymentService, timeout(5000).times(2)).processWebhookEvents(anyList());
+		assertEquals(WebhookIngestionService.Outcome.DUPLICATE, ingest("evt_1"));
+	}
+
+	private WebhookIngestionService.Outcome ingest(String eventId) throws Exception {
+		return service.ingest(eventId, PAYMENT_CAPTURED, Utils.getHash(new String(PAYMENT_CAPTURED, StandardCharsets.UTF_8), SECRET));
+	}
+
+	private WebhookIngestionService start(int queueCapacity, int workers) {
+		WebhookIngestionService ingestion = new WebhookIngestionService(paymentService);
+		ReflectionTestUtils.setField(ingestion, "webhookSecret", SECRET);
+		ReflectionTestUtils.setField(ingestion, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(ingestion, "workerCount", workers);
+		ReflectionTestUtils.setField(ingestion, "batchSize", 10);
+		ReflectionTestUtils.setField(ingestion, "dedupWindowSeconds", 3600L);
+		ReflectionTestUtils.setField(ingestion, "dedupMaxEntries", 1000L);
+		ingestion.start();
+		return ingestion;
+	}
+}
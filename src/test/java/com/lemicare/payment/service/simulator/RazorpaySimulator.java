@@ -0,0 +1,640 @@
+package com.lemicare.payment.service.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process stand-in for the Razorpay API, for tests and load tests without network.
+ * <p>
+ * It serves the v1 endpoints the service uses (orders, payments fetch/fetchAll/capture,
+ * refunds) in Razorpay's JSON shapes, so the real SDK works against it once the service's
+ * {@code razorpay.base-url} points at {@link #baseUrl()}. Since there is no checkout page,
+ * {@link #pay} and {@link #authorize} stand in for the customer paying an order; they
+ * return the checkout signature the frontend would receive and, when a webhook target is
+ * set, send the matching signed webhook.
+ * <p>
+ * Latency and server errors can be injected at any time with {@link #setLatency} and
+ * {@link #setErrorRate}. All state is kept in memory for the simulator's lifetime.
+ */
+public final class RazorpaySimulator implements AutoCloseable {
+
+	/**
+	 * What Razorpay Checkout hands the frontend after a successful payment.
+	 */
+	public record Checkout(String razorpayOrderId, String razorpayPaymentId, String signature) {}
+
+	/**
+	 * A signed webhook, ready to send.
+	 */
+	public record Webhook(String eventId, byte[] body, String signature) {}
+
+	private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+	private final String expectedAuthorization;
+	private final String keySecret;
+	private final String webhookSecret;
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final HttpClient webhookClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.executor(executor)
+			.build();
+
+	private final Map<String, JSONObject> orders = new ConcurrentHashMap<>();
+	private final Map<String, JSONObject> payments = new ConcurrentHashMap<>();
+	private final Map<String, JSONObject> refunds = new ConcurrentHashMap<>();
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong injectedErrors = new AtomicLong();
+	private final AtomicLong webhooksSent = new AtomicLong();
+	private final AtomicLong webhooksFailed = new AtomicLong();
+
+	private volatile long latencyMillis;
+	private volatile long latencyJitterMillis;
+	private volatile double errorRate;
+	private volatile URI webhookTarget;
+	private volatile boolean autoWebhooks = true;
+
+	private RazorpaySimulator(String keyId, String keySecret, String webhookSecret, int port) throws IOException {
+		this.expectedAuthorization = "Basic " + Base64.getEncoder()
+				.encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+		this.keySecret = keySecret;
+		this.webhookSecret = webhookSecret;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.createContext("/v1/", this::handle);
+		this.server.setExecutor(executor);
+	}
+
+	/**
+	 * Starts a simulator on the loopback interface.
+	 *
+	 * @param port The port to listen on, or 0 for any free port.
+	 */
+	public static RazorpaySimulator start(String keyId, String keySecret, String webhookSecret, int port) throws IOException {
+		RazorpaySimulator simulator = new RazorpaySimulator(keyId, keySecret, webhookSecret, port);
+		simulator.server.start();
+		return simulator;
+	}
+
+	public URI baseUrl() {
+		InetSocketAddress address = server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+	}
+
+	/**
+	 * Delays every API response by the base latency plus a uniformly random extra of up to the jitter.
+	 */
+	public void setLatency(Duration base, Duration jitter) {
+		this.latencyMillis = base.toMillis();
+		this.latencyJitterMillis = jitter.toMillis();
+	}
+
+	/**
+	 * The fraction of API calls, between 0 and 1, answered with a 500 SERVER_ERROR instead.
+	 */
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Where to send webhooks for payments and refunds, e.g. the service's
+	 * /api/webhooks/razorpay endpoint; null to send none.
+	 */
+	public void setWebhookTarget(URI webhookTarget) {
+		this.webhookTarget = webhookTarget;
+	}
+
+	/**
+	 * Whether payments and refunds send their webhooks on their own (the default). When off,
+	 * webhooks are only sent by {@link #deliver}, e.g. by a load driver timing each delivery.
+	 */
+	public void setAutoWebhooks(boolean autoWebhooks) {
+		this.autoWebhooks = autoWebhooks;
+	}
+
+	public long requestCount() {
+		return requests.get();
+	}
+
+	public long injectedErrorCount() {
+		return injectedErrors.get();
+	}
+
+	public long webhooksSent() {
+		return webhooksSent.get();
+	}
+
+	public long webhooksFailed() {
+		return webhooksFailed.get();
+	}
+
+	// --- Customer actions ---
+
+	/**
+	 * Pays an order with an auto-captured card payment, and sends payment.captured.
+	 *
+	 * @throws IllegalArgumentException if the order does not exist.
+	 */
+	public Checkout pay(String razorpayOrderId) {
+		return checkout(razorpayOrderId, "captured");
+	}
+
+	/**
+	 * Pays an order with a payment left authorized for a later capture call, and sends payment.authorized.
+	 */
+	public Checkout authorize(String razorpayOrderId) {
+		return checkout(razorpayOrderId, "authorized");
+	}
+
+	/**
+	 * Records a failed payment attempt on an order, and sends payment.failed.
+	 *
+	 * @return The ID of the failed payment.
+	 */
+	public String failPayment(String razorpayOrderId) {
+		JSONObject payment = newPayment(order(razorpayOrderId), "failed");
+		payment.put("error_code", "BAD_REQUEST_ERROR");
+		payment.put("error_description", "Payment failed because the card was declined.");
+		payment.put("error_reason", "payment_failed");
+		Webhook webhook = webhook("payment.failed", payment, null);
+		payments.put(payment.getString("id"), payment);
+		sendAsync(webhook);
+		return payment.getString("id");
+	}
+
+	private Checkout checkout(String razorpayOrderId, String status) {
+		JSONObject order = order(razorpayOrderId);
+		JSONObject payment = newPayment(order, status);
+		synchronized (order) {
+			order.put("attempts", order.getInt("attempts") + 1);
+			if ("captured".equals(status)) {
+				order.put("status", "paid");
+				order.put("amount_paid", order.getLong("amount"));
+				order.put("amount_due", 0);
+			} else {
+				order.put("status", "attempted");
+			}
+		}
+		String paymentId = payment.getString("id");
+		Webhook webhook = webhook("payment." + status, payment, null);
+		payments.put(paymentId, payment);
+		sendAsync(webhook);
+		return new Checkout(razorpayOrderId, paymentId, hmac(keySecret, razorpayOrderId + "|" + paymentId));
+	}
+
+	// --- Webhooks ---
+
+	/**
+	 * Builds a signed webhook for a payment event, e.g. to replay a delivery or send it by hand.
+	 *
+	 * @throws IllegalArgumentException if the payment does not exist.
+	 */
+	public Webhook paymentWebhook(String event, String paymentId) {
+		JSONObject payment = payments.get(paymentId);
+		if (payment == null) {
+			throw new IllegalArgumentException("No such payment: " + paymentId);
+		}
+		synchronized (payment) {
+			return webhook(event, payment, null);
+		}
+	}
+
+	/**
+	 * Sends a webhook to the target and waits for the response.
+	 *
+	 * @return The HTTP status the target answered with.
+	 */
+	public int deliver(Webhook webhook) throws IOException, InterruptedException {
+		URI target = webhookTarget;
+		if (target == null) {
+			throw new IllegalStateException("No webhook target set");
+		}
+		HttpResponse<Void> response = webhookClient.send(webhookRequest(target, webhook), HttpResponse.BodyHandlers.discarding());
+		(response.statusCode() / 100 == 2 ? webhooksSent : webhooksFailed).incrementAndGet();
+		return response.statusCode();
+	}
+
+	private void sendAsync(Webhook webhook) {
+		URI target = webhookTarget;
+		if (target == null || !autoWebhooks) {
+			return;
+		}
+		webhookClient.sendAsync(webhookRequest(target, webhook), HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, error) ->
+						(error == null && response.statusCode() / 100 == 2 ? webhooksSent : webhooksFailed).incrementAndGet());
+	}
+
+	private static HttpRequest webhookRequest(URI target, Webhook webhook) {
+		return HttpRequest.newBuilder(target)
+				.header("Content-Type", "application/json")
+				.header("X-Razorpay-Event-Id", webhook.eventId())
+				.header("X-Razorpay-Signature", webhook.signature())
+				.POST(HttpRequest.BodyPublishers.ofByteArray(webhook.body()))
+				.build();
+	}
+
+	private Webhook webhook(String event, JSONObject payment, JSONObject refund) {
+		JSONObject payload = new JSONObject();
+		JSONArray contains = new JSONArray();
+		if (refund != null) {
+			payload.put("refund", new JSONObject().put("entity", refund));
+			contains.put("refund");
+		}
+		if (payment != null) {
+			payload.put("payment", new JSONObject().put("entity", payment));
+			contains.put("payment");
+		}
+		byte[] body = new JSONObject()
+				.put("entity", "event")
+				.put("account_id", "acc_Simulator0001")
+				.put("event", event)
+				.put("contains", contains)
+				.put("payload", payload)
+				.put("created_at", now())
+				.toString()
+				.getBytes(StandardCharsets.UTF_8);
+		return new Webhook(newId("evt"), body, hmac(webhookSecret, body));
+	}
+
+	// --- API ---
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.incrementAndGet();
+			delay();
+			if (!expectedAuthorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+				respond(exchange, 401, error("BAD_REQUEST_ERROR", "Authentication failed"));
+				return;
+			}
+			double rate = errorRate;
+			if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+				injectedErrors.incrementAndGet();
+				respond(exchange, 500, error("SERVER_ERROR", "We are facing some trouble completing your request at the moment. Please try again shortly."));
+				return;
+			}
+			try {
+				route(exchange);
+			} catch (NotFoundException e) {
+				respond(exchange, 400, error("BAD_REQUEST_ERROR", "The id provided does not exist"));
+			} catch (BadRequestException | JSONException e) {
+				respond(exchange, 400, error("BAD_REQUEST_ERROR", e.getMessage()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void route(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		// e.g. [v1, payments, pay_X, refund]
+		List<String> path = List.of(exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/"));
+		String resource = path.size() > 1 ? path.get(1) : "";
+		String id = path.size() > 2 ? path.get(2) : null;
+		String action = path.size() > 3 ? path.get(3) : null;
+
+		if ("orders".equals(resource)) {
+			if ("POST".equals(method) && id == null) {
+				respond(exchange, 200, createOrder(body(exchange)));
+				return;
+			}
+			if ("GET".equals(method) && id != null && action == null) {
+				respond(exchange, 200, snapshot(order(id)));
+				return;
+			}
+		} else if ("payments".equals(resource)) {
+			if ("GET".equals(method) && id == null) {
+				respond(exchange, 200, listPayments(query(exchange)));
+				return;
+			}
+			if ("GET".equals(method) && action == null) {
+				respond(exchange, 200, snapshot(payment(id)));
+				return;
+			}
+			if ("POST".equals(method) && "capture".equals(action)) {
+				respond(exchange, 200, capture(payment(id), body(exchange)));
+				return;
+			}
+			if ("POST".equals(method) && "refund".equals(action)) {
+				respond(exchange, 200, refund(payment(id), body(exchange)));
+				return;
+			}
+			if ("GET".equals(method) && "refunds".equals(action)) {
+				respond(exchange, 200, collection(refunds.values().stream()
+						.filter(refund -> id.equals(refund.getString("payment_id")))
+						.toList()));
+				return;
+			}
+		} else if ("refunds".equals(resource) && "GET".equals(method) && id != null) {
+			JSONObject refund = refunds.get(id);
+			if (refund == null) {
+				throw new NotFoundException();
+			}
+			respond(exchange, 200, snapshot(refund));
+			return;
+		}
+		respond(exchange, 400, error("BAD_REQUEST_ERROR", "The requested URL was not found on the server."));
+	}
+
+	private JSONObject createOrder(JSONObject request) {
+		long amount = request.getLong("amount");
+		if (amount < 100) {
+			throw new BadRequestException("The amount must be atleast INR 1.00");
+		}
+		JSONObject order = new JSONObject()
+				.put("id", newId("order"))
+				.put("entity", "order")
+				.put("amount", amount)
+				.put("amount_paid", 0)
+				.put("amount_due", amount)
+				.put("currency", request.optString("currency", "INR"))
+				.put("receipt", request.opt("receipt"))
+				.put("offer_id", JSONObject.NULL)
+				.put("status", "created")
+				.put("attempts", 0)
+				.put("notes", notes(request))
+				.put("created_at", now());
+		orders.put(order.getString("id"), order);
+		return snapshot(order);
+	}
+
+	private JSONObject listPayments(Map<String, String> query) {
+		int count = Math.min(Integer.parseInt(query.getOrDefault("count", "10")), 100);
+		int skip = Integer.parseInt(query.getOrDefault("skip", "0"));
+		long from = Long.parseLong(query.getOrDefault("from", "0"));
+		long to = Long.parseLong(query.getOrDefault("to", String.valueOf(Long.MAX_VALUE)));
+		return collection(payments.values().stream()
+				.filter(payment -> payment.getLong("created_at") >= from && payment.getLong("created_at") <= to)
+				.sorted(Comparator.comparingLong((JSONObject payment) -> payment.getLong("created_at")).reversed())
+				.skip(skip)
+				.limit(count)
+				.toList());
+	}
+
+	private JSONObject capture(JSONObject payment, JSONObject request) {
+		synchronized (payment) {
+			if (!"authorized".equals(payment.getString("status"))) {
+				throw new BadRequestException("This payment has already been captured");
+			}
+			if (request.getLong("amount") != payment.getLong("amount")) {
+				throw new BadRequestException("Capture amount must be equal to the amount authorized");
+			}
+			payment.put("status", "captured");
+			payment.put("captured", true);
+			JSONObject order = orders.get(payment.getString("order_id"));
+			if (order != null) {
+				synchronized (order) {
+					order.put("status", "paid");
+					order.put("amount_paid", order.getLong("amount"));
+					order.put("amount_due", 0);
+				}
+			}
+			sendAsync(webhook("payment.captured", payment, null));
+			return snapshot(payment);
+		}
+	}
+
+	private JSONObject refund(JSONObject payment, JSONObject request) {
+		synchronized (payment) {
+			if (!"captured".equals(payment.getString("status")) && !"refunded".equals(payment.getString("status"))) {
+				throw new BadRequestException("The payment has not been captured");
+			}
+			long refundable = payment.getLong("amount") - payment.getLong("amount_refunded");
+			long amount = request.has("amount") ? request.getLong("amount") : refundable;
+			if (amount <= 0 || amount > refundable) {
+				throw new BadRequestException("The refund amount provided is greater than amount captured");
+			}
+			String speed = request.optString("speed", "normal");
+			JSONObject refund = new JSONObject()
+					.put("id", newId("rfnd"))
+					.put("entity", "refund")
+					.put("amount", amount)
+					.put("currency", payment.getString("currency"))
+					.put("payment_id", payment.getString("id"))
+					.put("notes", notes(request))
+					.put("receipt", request.opt("receipt"))
+					.put("acquirer_data", new JSONObject().put("arn", JSONObject.NULL))
+					.put("created_at", now())
+					.put("batch_id", JSONObject.NULL)
+					.put("status", "processed")
+					.put("speed_processed", speed)
+					.put("speed_requested", speed);
+			refunds.put(refund.getString("id"), refund);
+
+			long refunded = payment.getLong("amount_refunded") + amount;
+			payment.put("amount_refunded", refunded);
+			payment.put("refund_status", refunded == payment.getLong("amount") ? "full" : "partial");
+			if (refunded == payment.getLong("amount")) {
+				payment.put("status", "refunded");
+			}
+			sendAsync(webhook("refund.processed", payment, refund));
+			return snapshot(refund);
+		}
+	}
+
+	private JSONObject newPayment(JSONObject order, String status) {
+		String cardId = newId("card");
+		JSONObject payment;
+		synchronized (order) {
+			payment = new JSONObject()
+					.put("id", newId("pay"))
+					.put("entity", "payment")
+					.put("amount", order.getLong("amount"))
+					.put("currency", order.getString("currency"))
+					.put("status", status)
+					.put("order_id", order.getString("id"))
+					.put("invoice_id", JSONObject.NULL)
+					.put("international", false)
+					.put("method", "card")
+					.put("amount_refunded", 0)
+					.put("refund_status", JSONObject.NULL)
+					.put("captured", "captured".equals(status))
+					.put("description", JSONObject.NULL)
+					.put("card_id", cardId)
+					.put("card", new JSONObject()
+							.put("id", cardId)
+							.put("entity", "card")
+							.put("name", "Simulated Customer")
+							.put("last4", "1111")
+							.put("network", "Visa")
+							.put("type", "debit")
+							.put("issuer", "HDFC")
+							.put("international", false)
+							.put("emi", false))
+					.put("bank", JSONObject.NULL)
+					.put("wallet", JSONObject.NULL)
+					.put("vpa", JSONObject.NULL)
+					.put("email", "customer@example.com")
+					.put("contact", "+919000090000")
+					.put("notes", order.get("notes"))
+					.put("fee", "failed".equals(status) ? JSONObject.NULL : order.getLong("amount") * 2 / 100)
+					.put("tax", "failed".equals(status) ? JSONObject.NULL : order.getLong("amount") * 36 / 10000)
+					.put("error_code", JSONObject.NULL)
+					.put("error_description", JSONObject.NULL)
+					.put("error_source", JSONObject.NULL)
+					.put("error_step", JSONObject.NULL)
+					.put("error_reason", JSONObject.NULL)
+					.put("acquirer_data", new JSONObject().put("auth_code", String.format("%06d", ThreadLocalRandom.current().nextInt(1_000_000))))
+					.put("created_at", now());
+		}
+		return payment;
+	}
+
+	// --- Helpers ---
+
+	private JSONObject order(String id) {
+		JSONObject order = orders.get(id);
+		if (order == null) {
+			throw new NotFoundException();
+		}
+		return order;
+	}
+
+	private JSONObject payment(String id) {
+		JSONObject payment = payments.get(id);
+		if (payment == null) {
+			throw new NotFoundException();
+		}
+		return payment;
+	}
+
+	/**
+	 * A copy taken under the entity's lock, so a response never shows a half-applied update.
+	 */
+	private static JSONObject snapshot(JSONObject entity) {
+		synchronized (entity) {
+			return new JSONObject(entity.toString());
+		}
+	}
+
+	private static JSONObject collection(List<JSONObject> items) {
+		JSONArray array = new JSONArray();
+		items.forEach(item -> array.put(snapshot(item)));
+		return new JSONObject().put("entity", "collection").put("count", array.length()).put("items", array);
+	}
+
+	private static Object notes(JSONObject request) {
+		// Like Razorpay, empty notes come back as [].
+		JSONObject notes = request.optJSONObject("notes");
+		return notes != null && notes.length() > 0 ? notes : new JSONArray();
+	}
+
+	private static JSONObject error(String code, String description) {
+		return new JSONObject().put("error", new JSONObject()
+				.put("code", code)
+				.put("description", description)
+				.put("source", "NA")
+				.put("step", "NA")
+				.put("reason", "NA"));
+	}
+
+	private void delay() throws InterruptedException {
+		long jitter = latencyJitterMillis;
+		long millis = latencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+		if (millis > 0) {
+			Thread.sleep(millis);
+		}
+	}
+
+	private static JSONObject body(HttpExchange exchange) throws IOException {
+		byte[] body = exchange.getRequestBody().readAllBytes();
+		return body.length == 0 ? new JSONObject() : new JSONObject(new String(body, StandardCharsets.UTF_8));
+	}
+
+	private static Map<String, String> query(HttpExchange exchange) {
+		Map<String, String> query = new HashMap<>();
+		String raw = exchange.getRequestURI().getRawQuery();
+		if (raw != null) {
+			for (String pair : raw.split("&")) {
+				int eq = pair.indexOf('=');
+				if (eq > 0) {
+					query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+							URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+				}
+			}
+		}
+		return query;
+	}
+
+	private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static long now() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	private static String newId(String prefix) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		StringBuilder id = new StringBuilder(prefix.length() + 15).append(prefix).append('_');
+		for (int i = 0; i < 14; i++) {
+			id.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+		}
+		return id.toString();
+	}
+
+	private static String hmac(String secret, String message) {
+		return hmac(secret, message.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String hmac(String secret, byte[] message) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			return HexFormat.of().formatHex(mac.doFinal(message));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private static final class NotFoundException extends IllegalArgumentException {
+		NotFoundException() {
+			super("The id provided does not exist");
+		}
+	}
+
+	private static final class BadRequestException extends RuntimeException {
+		BadRequestException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.lemicare.payment.service.simulator;
+
+import com.lemicare.payment.service.gateway.RazorpayBaseUrlInterceptor;
+import com.lemicare.payment.service.gateway.RazorpayFailure;
+import com.lemicare.payment.service.gateway.RazorpayHttpTransport;
+import com.lemicare.payment.service.util.SignatureVerifier;
+import com.razorpay.Order;
+import com.razorpay.Payment;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Drives the simulator through the real Razorpay SDK, redirected the way the service redirects it.
+ */
+class RazorpaySimulatorTest {
+
+	private static final String KEY_ID = "rzp_test_simulator";
+	private static final String KEY_SECRET = "simulator_key_secret";
+
+	private RazorpaySimulator simulator;
+	private RazorpayClient client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		simulator = RazorpaySimulator.start(KEY_ID, KEY_SECRET, "simulator_webhook_secret", 0);
+		client = new RazorpayClient(KEY_ID, KEY_SECRET);
+		RazorpayHttpTransport.install(new OkHttpClient.Builder()
+				.addInterceptor(new RazorpayBaseUrlInterceptor(HttpUrl.get(simulator.baseUrl())))
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		simulator.close();
+	}
+
+	@Test
+	void sdk_whenOrderIsPaidAndRefunded_shouldSeeRazorpayShapedEntities() throws RazorpayException {
+		Order order = client.orders.create(new JSONObject()
+				.put("amount", 150000)
+				.put("currency", "INR")
+				.put("receipt", "inv_1")
+				.put("notes", new JSONObject().put("organizationId", "org_1")));
+
+		RazorpaySimulator.Checkout checkout = simulator.pay(order.get("id"));
+		assertDoesNotThrow(() -> SignatureVerifier.verifyPaymentSignature(
+				checkout.razorpayOrderId(), checkout.razorpayPaymentId(), checkout.signature(), KEY_SECRET));
+
+		Payment payment = client.payments.fetch(checkout.razorpayPaymentId());
+		assertEquals("captured", payment.get("status"));
+		assertEquals("org_1", payment.toJson().getJSONObject("notes").getString("organizationId"));
+
+		Refund refund = client.payments.refund(checkout.razorpayPaymentId(), new JSONObject().put("amount", 50000));
+		assertEquals("processed", client.refunds.fetch(refund.get("id")).get("status"));
+		assertEquals("partial", client.payments.fetch(checkout.razorpayPaymentId()).get("refund_status"));
+
+		List<Payment> payments = client.payments.fetchAll(new JSONObject().put("count", 10));
+		assertEquals(1, payments.size());
+	}
+
+	@Test
+	void sdk_whenPaymentIsAuthorized_shouldCaptureOnlyTheAuthorizedAmount() throws RazorpayException {
+		Order order = client.orders.create(new JSONObject().put("amount", 20000).put("currency", "INR"));
+		String paymentId = simulator.authorize(order.get("id")).razorpayPaymentId();
+
+		RazorpayException wrongAmount = assertThrows(RazorpayException.class,
+				() -> client.payments.capture(paymentId, new JSONObject().put("amount", 100).put("currency", "INR")));
+		assertEquals(RazorpayFailure.CLIENT_ERROR, RazorpayFailure.classify(wrongAmount));
+
+		Payment captured = client.payments.capture(paymentId, new JSONObject().put("amount", 20000).put("currency", "INR"));
+		assertEquals("captured", captured.get("status"));
+	}
+
+	@Test
+	void sdk_whenIdIsUnknownOrErrorsAreInjected_shouldClassifyLikeRazorpay() {
+		RazorpayException notFound = assertThrows(RazorpayException.class, () -> client.payments.fetch("pay_missing"));
+		assertEquals(RazorpayFailure.NOT_FOUND, RazorpayFailure.classify(notFound));
+
+		simulator.setErrorRate(1.0);
+		RazorpayException serverError = assertThrows(RazorpayException.class,
+				() -> client.orders.create(new JSONObject().put("amount", 20000).put("currency", "INR")));
+		assertEquals(RazorpayFailure.SERVER_ERROR, RazorpayFailure.classify(serverError));
+		assertEquals(1, simulator.injectedErrorCount());
+	}
+}
@@ -0,0 +1,86 @@
+package com.lemicare.payment.service.util;
+
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SignatureVerifierTest {
+
+	private static final String SECRET = "whsec_test_3c4f";
+
+	@Test
+	void verifyPaymentSignature_shouldAcceptTheSdkSignature() throws Exception {
+		String signature = Utils.getHash("order_9A33XWu170gUtm|pay_29QQoUBi66xm2f", SECRET);
+
+		assertDoesNotThrow(() -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f", signature, SECRET));
+		assertDoesNotThrow(() -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f",
+				signature.toUpperCase(Locale.ROOT), SECRET));
+	}
+
+	@Test
+	void verifyPaymentSignature_shouldRejectTamperedOrMalformedSignatures() throws Exception {
+		String signature = Utils.getHash("order_9A33XWu170gUtm|pay_29QQoUBi66xm2f", SECRET);
+		char last = signature.charAt(signature.length() - 1);
+		String tampered = signature.substring(0, signature.length() - 1) + (last == '0' ? '1' : '0');
+
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_other", signature, SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f", tampered, SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f", signature.substring(2), SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f",
+				"zz" + signature.substring(2), SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", "pay_29QQoUBi66xm2f", null, SECRET));
+	}
+
+	@Test
+	void verifyWebhookSignature_shouldCheckTheRawBody() throws Exception {
+		String body = "{\"event\":\"payment.captured\",\"payload\":{\"payment\":{\"entity\":{\"id\":\"pay_1\",\"notes\":{\"patient\":\"Zoë\"}}}}}";
+		String signature = Utils.getHash(body, SECRET);
+
+		assertDoesNotThrow(() -> SignatureVerifier.verifyWebhookSignature(body.getBytes(StandardCharsets.UTF_8), signature, SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyWebhookSignature(
+				(body + " ").getBytes(StandardCharsets.UTF_8), signature, SECRET));
+		assertThrows(RazorpayException.class, () -> SignatureVerifier.verifyWebhookSignature(
+				body.getBytes(StandardCharsets.UTF_8), signature, "another_secret"));
+	}
+
+	@Test
+	void verifyPaymentSignature_onVirtualThreads_shouldCheckEachSignatureIndependently() throws Exception {
+		List<Callable<Boolean>> checks = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			String paymentId = "pay_" + i;
+			String signature = Utils.getHash("order_9A33XWu170gUtm|" + paymentId, SECRET);
+			// Every other check carries another payment's signature and must fail.
+			String presented = i % 2 == 0 ? signature : Utils.getHash("order_9A33XWu170gUtm|pay_other", SECRET);
+			checks.add(() -> {
+				try {
+					SignatureVerifier.verifyPaymentSignature("order_9A33XWu170gUtm", paymentId, presented, SECRET);
+					return true;
+				} catch (RazorpayException e) {
+					return false;
+				}
+			});
+		}
+
+		List<Future<Boolean>> results;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			results = executor.invokeAll(checks);
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i % 2 == 0, results.get(i).get(), "check " + i);
+		}
+	}
+}
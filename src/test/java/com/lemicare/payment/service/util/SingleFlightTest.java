@@ -0,0 +1,75 @@
+package com.lemicare.payment.service.util;
+
+import com.razorpay.RazorpayException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	@Test
+	void execute_whenCallersOverlap_shouldShareOneCall() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>();
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> singleFlight.execute("pay_123", () -> {
+					calls.incrementAndGet();
+					awaitUninterruptibly(release);
+					return "captured";
+				})));
+			}
+			// Wait until the leader is in flight and the others had a chance to join it.
+			while (calls.get() == 0) {
+				Thread.onSpinWait();
+			}
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("captured", result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, calls.get());
+			assertEquals(0, singleFlight.inFlightCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void execute_whenCallFails_shouldRethrowAndForgetKey() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>();
+		RazorpayException failure = new RazorpayException("BAD_REQUEST_ERROR:The id provided does not exist");
+
+		RazorpayException thrown = assertThrows(RazorpayException.class,
+				() -> singleFlight.execute("pay_404", () -> { throw failure; }));
+		assertSame(failure, thrown);
+
+		// A later call for the same key is not stuck behind the failed one.
+		assertEquals("ok", singleFlight.execute("pay_404", () -> "ok"));
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.lemicare.payment.service.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RazorpayWebhookParserTest {
+
+	private static final String PAYMENT_CAPTURED = """
+			{
+			  "entity": "event",
+			  "account_id": "acc_BFQ7uQEaa7j2z7",
+			  "event": "payment.captured",
+			  "contains": ["payment"],
+			  "payload": {
+			    "payment": {
+			      "entity": {
+			        "id": "pay_DESlfW9H8K9uqM",
+			        "entity": "payment",
+			        "amount": 125050,
+			        "currency": "INR",
+			        "status": "captured",
+			        "order_id": "order_DESlLckIVRkHWj",
+			        "method": "card",
+			        "card": {"id": "card_DESlfXuN5V4Kdd", "network": "Visa", "emi": false, "meta": [1, {"a": null}]},
+			        "acquirer_data": {"auth_code": "828553", "rrn": null},
+			        "notes": {"organizationId": "org_1", "branchId": "br_1", "orderId": "po_1", "patient": "Zoë"},
+			        "fee": 2951,
+			        "error_code": null,
+			        "created_at": 1567674599
+			      }
+			    }
+			  },
+			  "created_at": 1567674606
+			}
+			""";
+
+	@Test
+	void parse_whenPaymentCaptured_shouldExtractOnlyRoutingFields() throws IOException {
+		RazorpayWebhookEvent event = RazorpayWebhookParser.parse(PAYMENT_CAPTURED.getBytes(StandardCharsets.UTF_8));
+
+		assertTrue(event.isPaymentEvent());
+		assertNull(event.refund());
+		RazorpayWebhookEvent.Entity payment = event.payment();
+		assertEquals("pay_DESlfW9H8K9uqM", payment.id());
+		assertEquals("order_DESlLckIVRkHWj", payment.orderId());
+		assertEquals(125050L, payment.amount());
+		assertEquals("INR", payment.currency());
+		assertEquals("captured", payment.status());
+		assertEquals("card", payment.method());
+		assertEquals(1567674599L, payment.createdAt());
+		assertEquals("org_1", payment.organizationId());
+		assertEquals("br_1", payment.noteBranchId());
+		assertEquals("po_1", payment.noteOrderId());
+	}
+
+	@Test
+	void parse_whenRefundHasEmptyNotes_shouldReadRefundEntity() throws IOException {
+		String body = """
+				{"event":"refund.processed","payload":{
+				  "refund":{"entity":{"id":"rfnd_1","payment_id":"pay_1","amount":500,"status":"processed","notes":[],"speed_requested":"normal"}},
+				  "payment":{"entity":{"id":"pay_1","amount":1000,"created_at":1}}}}
+				""";
+
+		RazorpayWebhookEvent event = RazorpayWebhookParser.parse(body.getBytes(StandardCharsets.UTF_8));
+
+		assertTrue(event.isRefundEvent());
+		assertEquals("rfnd_1", event.refund().id());
+		assertEquals("pay_1", event.refund().paymentId());
+		assertEquals(500L, event.refund().amount());
+		assertEquals("normal", event.refund().speedRequested());
+		assertNull(event.refund().organizationId());
+		assertNull(event.refund().createdAt());
+	}
+
+	@Test
+	void parse_whenMalformed_shouldThrow() {
+		assertThrows(IOException.class, () -> RazorpayWebhookParser.parse("{\"event\":".getBytes(StandardCharsets.UTF_8)));
+		assertThrows(IOException.class, () -> RazorpayWebhookParser.parse("[]".getBytes(StandardCharsets.UTF_8)));
+		assertThrows(IOException.class, () -> RazorpayWebhookParser.parse("{\"payload\":{}}".getBytes(StandardCharsets.UTF_8)));
+		assertThrows(IOException.class, () -> RazorpayWebhookParser.parse(
+				"{\"event\":\"payment.captured\",\"payload\":{\"payment\":{\"entity\":{\"id\":\"pay_1\"}}}}".getBytes(StandardCharsets.UTF_8)));
+	}
+}